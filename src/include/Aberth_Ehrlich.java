@@ -0,0 +1,477 @@
+package include;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.*;
+import java.util.function.Consumer;
+
+import include.utils.ExpressionCache;
+import include.utils.IterationTrace;
+import include.utils.Polynomial;
+import include.utils.RootFinder;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
+
+public class Aberth_Ehrlich {
+    //? Finds all n complex roots of a degree-n polynomial at once. Every estimate z_i moves by
+    //? the Newton correction p/p' deflated by the other estimates:
+    //?     z_i -= 1 / (p'(z_i)/p(z_i) - sum_{j != i} 1/(z_i - z_j))
+    //? which costs O(n^2) per sweep and converges cubically for simple roots. The estimates start
+    //? on a circle whose radius is the geometric mean of the root magnitudes.
+
+    //* Columns of the iteration trace
+    private static final int MAX_CORRECTION = 0;
+    private static final int CONVERGED_COUNT = 1;
+
+    private static final double EPSILON = Math.ulp(1.0);
+
+    private List<String> msgSoln;
+    private List<String> answers;
+    private String functionExpression;
+    private Polynomial polynomial;
+    private RootFindingEngine engine;
+    private final IterationTrace trace;
+    private RootFindingEngine.Status status;
+    private TraceLevel traceLevel;
+    private double[] rootsRe;
+    private double[] rootsIm;
+    private double tolerance;
+    private DecimalFormat decimalFormat;
+    private int maxIterations;
+    private String variable;
+
+    // Default constructor with default variable "x"
+    public Aberth_Ehrlich() {
+        this(0.0001, 1000, "x");
+    }
+
+    // Constructor with tolerance only
+    public Aberth_Ehrlich(double tolerance) {
+        this(tolerance, 1000, "x");
+    }
+
+    // Constructor with variable name
+    public Aberth_Ehrlich(String var) {
+        this(0.0001, 1000, var);
+    }
+
+    // Full constructor with all parameters
+    public Aberth_Ehrlich(double tolerance, int maxIterations, String var) {
+        this.msgSoln = new ArrayList<>();
+        this.trace = new IterationTrace(2);
+        this.answers = new ArrayList<>();
+        setTolerance(tolerance);
+        this.maxIterations = maxIterations;
+        this.variable = var;
+        this.traceLevel = TraceLevel.FULL;
+        this.rootsRe = new double[0];
+        this.rootsIm = new double[0];
+    }
+
+    public List<String> getSolutionSteps() {
+        renderTrace();
+        return msgSoln;
+    }
+
+    public List<String> getAnswers() {
+        return answers;
+    }
+
+    private void renderTrace() {
+        //? Steps are recorded as numbers during the solve and only formatted on first access
+        if (trace.isPending()) {
+            msgSoln.clear();
+            trace.render(this::renderRow, msgSoln::add);
+        }
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        //? Render a pending trace with the format it was recorded under
+        renderTrace();
+        this.tolerance = tolerance;
+        updateDecimalFormat();
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getRealParts() and getImaginaryParts()
+        this.traceLevel = traceLevel;
+    }
+
+    public Polynomial getPolynomial() {
+        //* The coefficients read from the last expression, null if it was not a polynomial
+        return polynomial;
+    }
+
+    public double[] getRealParts() {
+        //* Real parts of all roots, ordered by real part and then imaginary part; the last estimates if solve() returned false
+        return rootsRe.clone();
+    }
+
+    public double[] getImaginaryParts() {
+        return rootsIm.clone();
+    }
+
+    public double[] getRealRoots() {
+        //* The roots whose imaginary part is within the tolerance of zero, ascending
+        int count = 0;
+        double[] real = new double[rootsRe.length];
+        for (int i = 0; i < rootsRe.length; i++) {
+            if (rootsIm[i] == 0) {
+                real[count++] = rootsRe[i];
+            }
+        }
+        return Arrays.copyOf(real, count);
+    }
+
+    public int getIterationCount() {
+        return engine == null ? 0 : engine.getIterations();
+    }
+
+    public RootFindingEngine.Status getStatus() {
+        //* Why the last solve stopped iterating; null if it failed before the first iteration
+        return status;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
+    private void updateDecimalFormat() {
+        int decimalPlaces = Math.max(1, (int) Math.ceil(-Math.log10(tolerance)));
+
+        StringBuilder pattern = new StringBuilder("0");
+        if (decimalPlaces > 0) {
+            pattern.append(".");
+            for (int i = 0; i < decimalPlaces; i++) {
+                pattern.append("0");
+            }
+        }
+
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+        symbols.setDecimalSeparator('.');
+
+        this.decimalFormat = new DecimalFormat(pattern.toString());
+        this.decimalFormat.setDecimalFormatSymbols(symbols);
+    }
+
+    private String formatNumber(double value) {
+        return decimalFormat.format(value);
+    }
+
+    private String formatComplex(double re, double im) {
+        if (im == 0) {
+            return formatNumber(re);
+        }
+        return formatNumber(re) + (im < 0 ? " - " : " + ") + formatNumber(Math.abs(im)) + "i";
+    }
+
+    public boolean solve(String function) {
+        return solve(function, this.tolerance);
+    }
+
+    public boolean solve(String function, double tolerance) {
+        msgSoln.clear();
+        trace.clear();
+        answers.clear();
+        this.functionExpression = function;
+        this.polynomial = null;
+        this.engine = null;
+        this.status = null;
+        this.rootsRe = new double[0];
+        this.rootsIm = new double[0];
+        setTolerance(tolerance);
+
+        if (traceSteps()) {
+            trace.note("Using tolerance: " + formatNumber(tolerance));
+            trace.note("Maximum iterations: " + maxIterations);
+        }
+
+        try {
+            try {
+                polynomial = ExpressionCache.getPolynomial(function, variable);
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+            }
+            if (polynomial == null) {
+                throw new IllegalArgumentException("'" + function + "' is not a polynomial in " + variable + ".");
+            }
+            if (polynomial.degree() < 1) {
+                throw new IllegalArgumentException("The polynomial must have degree at least 1.");
+            }
+
+            //? Roots at zero are exact; dividing them out keeps the starting radius meaningful
+            int zeroRoots = 0;
+            while (polynomial.getCoefficient(zeroRoots) == 0) {
+                zeroRoots++;
+            }
+            double[] reduced = Arrays.copyOfRange(polynomial.getCoefficients(), zeroRoots, polynomial.degree() + 1);
+            Polynomial deflated = new Polynomial(reduced);
+            int n = deflated.degree();
+
+            rootsRe = new double[zeroRoots + n];
+            rootsIm = new double[zeroRoots + n];
+            this.engine = new RootFindingEngine(maxIterations, RootFindingEngine.DEFAULT_MAX_EVALUATIONS);
+
+            if (traceSteps()) {
+                trace.note("Polynomial: " + polynomial.toString(variable) + " (degree " + polynomial.degree() + ")");
+                if (zeroRoots > 0) {
+                    trace.note(String.format("Factored out %s^%d: %d root(s) at 0", variable, zeroRoots, zeroRoots));
+                }
+            }
+
+            if (n > 0) {
+                AberthStep step = new AberthStep(deflated);
+                if (traceSteps()) {
+                    trace.note(String.format("Starting %d estimates on the circle |z| = %s", n, formatNumber(step.radius)));
+                    trace.note("");
+                }
+                status = engine.run(step);
+                if (traceAnswers()) {
+                    if (status == RootFindingEngine.Status.MAX_ITERATIONS) {
+                        trace.note("Maximum iterations reached without convergence.");
+                    } else if (status == RootFindingEngine.Status.MAX_EVALUATIONS) {
+                        trace.note("Maximum function evaluations reached without convergence.");
+                    } else if (status == RootFindingEngine.Status.STOPPED) {
+                        trace.note("Stopped early: an Aberth correction was not finite (coincident estimates or overflow).");
+                    }
+                }
+                System.arraycopy(step.re, 0, rootsRe, zeroRoots, n);
+                System.arraycopy(step.im, 0, rootsIm, zeroRoots, n);
+            } else {
+                status = RootFindingEngine.Status.CONVERGED;
+            }
+            sortRoots();
+
+            //? Estimates of a solve that did not converge stay readable but are not claimed as roots
+            if (status != RootFindingEngine.Status.CONVERGED) {
+                return false;
+            }
+
+            if (traceAnswers()) {
+                for (int i = 0; i < rootsRe.length; i++) {
+                    answers.add(String.format("Root %d: %s", i + 1, formatComplex(rootsRe[i], rootsIm[i])));
+                }
+                answers.add("Number of iterations: " + getIterationCount());
+                answers.add("Final tolerance: " + formatNumber(tolerance));
+            }
+
+            return true;
+        } catch (IllegalArgumentException e) {
+            if (traceAnswers()) {
+                trace.note("Error: " + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private void sortRoots() {
+        //? Imaginary parts within the tolerance are rounding noise on a real root
+        Integer[] order = new Integer[rootsRe.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            if (Math.abs(rootsIm[i]) <= tolerance) {
+                rootsIm[i] = 0;
+            }
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> rootsRe[i]).thenComparingDouble(i -> rootsIm[i]));
+        double[] re = new double[order.length];
+        double[] im = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            re[i] = rootsRe[order[i]];
+            im[i] = rootsIm[order[i]];
+        }
+        rootsRe = re;
+        rootsIm = im;
+    }
+
+    private class AberthStep implements RootFinder {
+        private final Polynomial p;
+        private final double[] re;
+        private final double[] im;
+        private final boolean[] converged;
+        private final double radius;
+        private final double[] value = new double[4];
+        private final double[] magnitudes;
+        private int convergedCount;
+
+        AberthStep(Polynomial p) {
+            this.p = p;
+            int n = p.degree();
+            this.re = new double[n];
+            this.im = new double[n];
+            this.converged = new boolean[n];
+            this.magnitudes = p.getCoefficients();
+            for (int i = 0; i <= n; i++) {
+                magnitudes[i] = Math.abs(magnitudes[i]);
+            }
+            //? |product of roots| = |c0/cn|; the offset angle breaks the symmetry of real coefficients
+            this.radius = Math.pow(Math.abs(p.getCoefficient(0) / p.getCoefficient(n)), 1.0 / n);
+            for (int i = 0; i < n; i++) {
+                double angle = 2 * Math.PI * i / n + 0.4;
+                re[i] = radius * Math.cos(angle);
+                im[i] = radius * Math.sin(angle);
+            }
+        }
+
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            int n = re.length;
+            double maxCorrection = 0;
+            boolean allAtRoundingLevel = true;
+            for (int i = 0; i < n; i++) {
+                if (converged[i]) {
+                    continue;
+                }
+                p.evaluate(re[i], im[i], value);
+                double pr = value[0];
+                double pi = value[1];
+                if (pr == 0 && pi == 0) {
+                    converged[i] = true;
+                    convergedCount++;
+                    continue;
+                }
+                boolean atRoundingLevel = Math.hypot(pr, pi) <= roundingBound(Math.hypot(re[i], im[i]));
+
+                //* ratio = p'(z)/p(z)
+                double denominator = pr * pr + pi * pi;
+                double ratioRe = (value[2] * pr + value[3] * pi) / denominator;
+                double ratioIm = (value[3] * pr - value[2] * pi) / denominator;
+
+                //* sum = sum over j != i of 1/(z_i - z_j), using the estimates already updated this sweep
+                double sumRe = 0;
+                double sumIm = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j == i) {
+                        continue;
+                    }
+                    double dr = re[i] - re[j];
+                    double di = im[i] - im[j];
+                    double d = dr * dr + di * di;
+                    sumRe += dr / d;
+                    sumIm -= di / d;
+                }
+
+                //* correction = 1 / (ratio - sum)
+                double wr = ratioRe - sumRe;
+                double wi = ratioIm - sumIm;
+                double w = wr * wr + wi * wi;
+                double correctionRe = wr / w;
+                double correctionIm = -wi / w;
+                if (!Double.isFinite(correctionRe) || !Double.isFinite(correctionIm)) {
+                    return RootFindingEngine.Status.STOPPED;
+                }
+                re[i] -= correctionRe;
+                im[i] -= correctionIm;
+
+                double correction = Math.hypot(correctionRe, correctionIm);
+                maxCorrection = Math.max(maxCorrection, correction);
+                //? Absolute tolerance as in the other solvers, or rounding level for large roots
+                if (correction < tolerance || correction <= 4 * EPSILON * Math.hypot(re[i], im[i])) {
+                    converged[i] = true;
+                    convergedCount++;
+                } else if (!atRoundingLevel) {
+                    allAtRoundingLevel = false;
+                }
+            }
+
+            if (traceSteps()) {
+                int row = trace.addRow();
+                trace.set(row, MAX_CORRECTION, maxCorrection);
+                trace.set(row, CONVERGED_COUNT, convergedCount);
+            }
+            //? An ill-conditioned root (e.g. Wilkinson's polynomial) may never reach the tolerance;
+            //? once every open estimate leaves only rounding noise in p(z), no sweep can improve it
+            if (convergedCount == n || allAtRoundingLevel) {
+                return RootFindingEngine.Status.CONVERGED;
+            }
+            return RootFindingEngine.Status.RUNNING;
+        }
+
+        private double roundingBound(double modulus) {
+            //* 4 eps * sum |c_k| |z|^k, by Horner on the coefficient magnitudes
+            double sum = magnitudes[magnitudes.length - 1];
+            for (int k = magnitudes.length - 2; k >= 0; k--) {
+                sum = sum * modulus + magnitudes[k];
+            }
+            return 4 * EPSILON * sum;
+        }
+
+        @Override
+        public double getRoot() {
+            return re.length == 0 ? Double.NaN : re[0];
+        }
+    }
+
+    private void renderRow(IterationTrace trace, int row, Consumer<String> out) {
+        out.accept(String.format("Iteration %d:", row + 1));
+        out.accept(String.format("  Largest correction = %s", formatNumber(trace.get(row, MAX_CORRECTION))));
+        out.accept(String.format("  Roots converged: %d", (int) trace.get(row, CONVERGED_COUNT)));
+        out.accept("");
+    }
+
+    public void printSolution(boolean success) {
+        System.out.println(functionExpression);
+        System.out.println(tolerance);
+        System.out.println();
+
+        if (success) {
+            System.out.println("Solution Steps:");
+            for (String step : getSolutionSteps()) {
+                System.out.println(step);
+            }
+
+            System.out.println("\nFinal Answers:");
+            for (String answer : answers) {
+                System.out.println(answer);
+            }
+        } else {
+            System.out.println("Solution failed:");
+            for (String error : getSolutionSteps()) {
+                System.out.println(error);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        // Example usages:
+
+        // 1. All three roots of the cubic from the Newton-Raphson example
+        Aberth_Ehrlich solver1 = new Aberth_Ehrlich();
+        boolean success1 = solver1.solve("x^3 - x - 1");
+        solver1.printSolution(success1);
+
+        System.out.println("\n--------------------------------\n");
+
+        // 2. Products and powers are multiplied out; x^2 contributes a double root at 0
+        Aberth_Ehrlich solver2 = new Aberth_Ehrlich(0.000001);
+        boolean success2 = solver2.solve("x^2*(x - 2)*(x^2 + 4)");
+        solver2.printSolution(success2);
+
+        System.out.println("\n--------------------------------\n");
+
+        // 3. Not a polynomial
+        Aberth_Ehrlich solver3 = new Aberth_Ehrlich();
+        boolean success3 = solver3.solve("x^3 - 4cos(x)");
+        solver3.printSolution(success3);
+    }
+}
@@ -3,18 +3,41 @@ package include;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
+import java.util.function.Consumer;
+
+import include.utils.CompiledFunction;
+import include.utils.ExpressionBackend;
+import include.utils.ExpressionCache;
+import include.utils.IterationTrace;
+import include.utils.RootFinder;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
 
 public class Bisection {
+    //* Columns of the iteration trace
+    private static final int A = 0;
+    private static final int FA = 1;
+    private static final int B = 2;
+    private static final int FB = 3;
+    private static final int C = 4;
+    private static final int FC = 5;
+
     private Stack<String> msgSoln;
     private Stack<String> answers;
     private List<Double> iterationValues;
     private String functionExpression;
+    private CompiledFunction function;
+    private ExpressionBackend backend;
+    private RootFindingEngine engine;
+    private final IterationTrace trace;
+    private RootFindingEngine.Status status;
+    private TraceLevel traceLevel;
+    private double root;
     private double tolerance;
     private DecimalFormat decimalFormat;
     private DecimalFormat fixedFormat;
     private int maxIterations;
+    private int maxEvaluations;
     private String variable;
 
     // Default constructor with default variable "x"
@@ -45,6 +68,7 @@ public class Bisection {
     // Full constructor with all parameters
     public Bisection(double tolerance, int maxIterations, String var) {
         this.msgSoln = new Stack<>();
+        this.trace = new IterationTrace(6);
         this.answers = new Stack<>();
         this.iterationValues = new ArrayList<>();
         this.fixedFormat = new DecimalFormat("0.000");
@@ -54,9 +78,14 @@ public class Bisection {
         setTolerance(tolerance);
         this.maxIterations = maxIterations;
         this.variable = var;
+        this.backend = ExpressionBackend.BYTECODE;
+        this.maxEvaluations = RootFindingEngine.DEFAULT_MAX_EVALUATIONS;
+        this.traceLevel = TraceLevel.FULL;
+        this.root = Double.NaN;
     }
 
     public Stack<String> getSolutionSteps() {
+        renderTrace();
         return msgSoln;
     }
 
@@ -68,15 +97,79 @@ public class Bisection {
         return iterationValues;
     }
 
+    private void renderTrace() {
+        //? Steps are recorded as numbers during the solve and only formatted on first access
+        if (trace.isPending()) {
+            msgSoln.clear();
+            trace.render(this::renderRow, msgSoln::push);
+        }
+    }
+
     public double getTolerance() {
         return tolerance;
     }
 
     public void setTolerance(double tolerance) {
+        //? Render a pending trace with the format it was recorded under
+        renderTrace();
         this.tolerance = tolerance;
         updateDecimalFormat();
     }
 
+    public ExpressionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExpressionBackend backend) {
+        //? BYTECODE compiles the function to JVM code; EXP4J keeps the interpreter
+        this.backend = backend;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public void setMaxEvaluations(int maxEvaluations) {
+        //? Hard cap on function evaluations per solve, checked between iterations
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getRoot()
+        this.traceLevel = traceLevel;
+    }
+
+    public double getRoot() {
+        //* NaN until a solve succeeds
+        return root;
+    }
+
+    public int getIterationCount() {
+        return engine == null ? 0 : engine.getIterations();
+    }
+
+    public int getEvaluationCount() {
+        //* Function evaluations actually performed by the last solve; repeated points are memoized
+        return engine == null ? 0 : engine.getEvaluations();
+    }
+
+    public RootFindingEngine.Status getStatus() {
+        //* Why the last solve stopped iterating; null if it failed before the first iteration
+        return status;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
     private void updateDecimalFormat() {
         int decimalPlaces = Math.max(1, (int) Math.ceil(-Math.log10(tolerance)));
         
@@ -110,93 +203,159 @@ public class Bisection {
         return functionExpression.replaceAll(variable, formatFixed(x));
     }
     
+    private CompiledFunction compile() throws IllegalArgumentException {
+        try {
+            return ExpressionCache.getFunction(functionExpression, variable, backend);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+    
     private double f(double x) throws IllegalArgumentException {
         try {
-            Expression e = new ExpressionBuilder(functionExpression)
-                .variables(variable)
-                .build()
-                .setVariable(variable, x);
-            return e.evaluate();
+            return engine.evaluate(x);
         } catch (Exception e) {
             throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
         }
     }
 
+    private double iterate(RootFinder finder) {
+        status = engine.run(finder);
+        if (traceAnswers()) {
+            if (status == RootFindingEngine.Status.MAX_ITERATIONS) {
+                trace.note("Maximum iterations reached without convergence.");
+            } else if (status == RootFindingEngine.Status.MAX_EVALUATIONS) {
+                trace.note("Maximum function evaluations reached without convergence.");
+            }
+        }
+        return finder.getRoot();
+    }
+
     public boolean solve(String function, double a, double b) {
         return solve(function, a, b, this.tolerance);
     }
 
     public boolean solve(String function, double a, double b, double tolerance) {
         msgSoln.clear();
+        trace.clear();
         answers.clear();
         iterationValues.clear();
         this.functionExpression = function;
+        this.engine = null;
+        this.status = null;
+        this.root = Double.NaN;
         setTolerance(tolerance);
 
-        msgSoln.push("Using tolerance: " + formatNumber(tolerance)); 
-        msgSoln.push("Maximum iterations: " + maxIterations);
+        if (traceSteps()) {
+            trace.note("Using tolerance: " + formatNumber(tolerance)); 
+            trace.note("Maximum iterations: " + maxIterations);
+        }
         
         try {
+            this.function = compile();
+            this.engine = new RootFindingEngine(maxIterations, maxEvaluations, this.function);
             double fa = f(a);
             double fb = f(b);
             
-            msgSoln.push("Initial values:");
-            msgSoln.push(String.format("a = %s, f(a) = %s = %s", 
-                formatNumber(a), getFunctionEvaluationString(a), formatNumber(fa)));
-            msgSoln.push(String.format("b = %s, f(b) = %s = %s", 
-                formatNumber(b), getFunctionEvaluationString(b), formatNumber(fb)));
-            msgSoln.push("");
+            if (traceSteps()) {
+                trace.note("Initial values:");
+                trace.note(String.format("a = %s, f(a) = %s = %s", 
+                    formatNumber(a), getFunctionEvaluationString(a), formatNumber(fa)));
+                trace.note(String.format("b = %s, f(b) = %s = %s", 
+                    formatNumber(b), getFunctionEvaluationString(b), formatNumber(fb)));
+                trace.note("");
+            }
 
             if (fa * fb >= 0) {
-                msgSoln.push("Bisection method cannot continue. f(a) and f(b) must have opposite signs.");
+                if (traceAnswers()) {
+                    trace.note("Bisection method cannot continue. f(a) and f(b) must have opposite signs.");
+                }
                 return false;
             }
 
-            double root = bisectionRecursive(a, b, fa, fb, 1);
+            root = iterate(new BisectionStep(a, b, fa, fb));
 
-            answers.push("Root found: " + formatNumber(root));
-            answers.push("Number of iterations: " + iterationValues.size());
-            answers.push("Final tolerance: " + formatNumber(tolerance));
+            if (traceAnswers()) {
+                answers.push("Root found: " + formatNumber(root));
+                answers.push("Number of iterations: " + iterationValues.size());
+                answers.push("Final tolerance: " + formatNumber(tolerance));
+            }
             
             return true;
         } catch (IllegalArgumentException e) {
-            msgSoln.push("Error with function evaluation: " + e.getMessage());
+            if (traceAnswers()) {
+                trace.note("Error with function evaluation: " + e.getMessage());
+            }
             return false;
         }
     }
     
-    private double bisectionRecursive(double a, double b, double fa, double fb, int iteration) {
-        if (iteration > maxIterations) {
-            msgSoln.push("Maximum iterations reached without convergence.");
-            return (a + b) / 2;
+    private class BisectionStep implements RootFinder {
+        private double a;
+        private double b;
+        private double fa;
+        private double fb;
+
+        BisectionStep(double a, double b, double fa, double fb) {
+            this.a = a;
+            this.b = b;
+            this.fa = fa;
+            this.fb = fb;
         }
 
-        double c = (a + b) / 2;
-        double fc = f(c);
-        iterationValues.add(c);
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            double c = (a + b) / 2;
+            double fc = f(c);
+            iterationValues.add(c);
+
+            if (traceSteps()) {
+                int row = trace.addRow();
+                trace.set(row, A, a);
+                trace.set(row, FA, fa);
+                trace.set(row, B, b);
+                trace.set(row, FB, fb);
+                trace.set(row, C, c);
+                trace.set(row, FC, fc);
+            }
 
-        msgSoln.push(String.format("Iteration %d:", iteration));
-        msgSoln.push(String.format("  a = %s, f(a) = %s = %s", 
-            formatNumber(a), getFunctionEvaluationString(a), formatNumber(fa)));
-        msgSoln.push(String.format("  b = %s, f(b) = %s = %s", 
-            formatNumber(b), getFunctionEvaluationString(b), formatNumber(fb)));
-        msgSoln.push(String.format("  c = (a + b)/2 = (%s + %s)/2 = %s", 
-            formatNumber(a), formatNumber(b), formatNumber(c)));
-        msgSoln.push(String.format("  f(c) = %s = %s", 
-            getFunctionEvaluationString(c), formatNumber(fc)));
-        msgSoln.push("");
+            if (Math.abs(fc) < tolerance || (b - a) / 2 < tolerance) {
+                return RootFindingEngine.Status.CONVERGED;
+            }
 
-        if (Math.abs(fc) < tolerance || (b - a) / 2 < tolerance) {
-            return c;
+            if (fc * fa < 0) {
+                b = c;
+                fb = fc;
+            } else {
+                a = c;
+                fa = fc;
+            }
+            return RootFindingEngine.Status.RUNNING;
         }
 
-        if (fc * fa < 0) {
-            return bisectionRecursive(a, c, fa, fc, iteration + 1);
-        } else {
-            return bisectionRecursive(c, b, fc, fb, iteration + 1);
+        @Override
+        public double getRoot() {
+            //? The converged c is the midpoint of the bracket it was computed from
+            return (a + b) / 2;
         }
     }
     
+    private void renderRow(IterationTrace trace, int row, Consumer<String> out) {
+        double a = trace.get(row, A);
+        double b = trace.get(row, B);
+        double c = trace.get(row, C);
+        out.accept(String.format("Iteration %d:", row + 1));
+        out.accept(String.format("  a = %s, f(a) = %s = %s", 
+            formatNumber(a), getFunctionEvaluationString(a), formatNumber(trace.get(row, FA))));
+        out.accept(String.format("  b = %s, f(b) = %s = %s", 
+            formatNumber(b), getFunctionEvaluationString(b), formatNumber(trace.get(row, FB))));
+        out.accept(String.format("  c = (a + b)/2 = (%s + %s)/2 = %s", 
+            formatNumber(a), formatNumber(b), formatNumber(c)));
+        out.accept(String.format("  f(c) = %s = %s", 
+            getFunctionEvaluationString(c), formatNumber(trace.get(row, FC))));
+        out.accept("");
+    }
+    
     public void printSolution(boolean success) {
         System.out.println(functionExpression);
         System.out.println(tolerance);
@@ -204,7 +363,7 @@ public class Bisection {
 
         if (success) {
             System.out.println("Solution Steps:");
-            List<String> reversedSteps = new ArrayList<>(msgSoln);
+            List<String> reversedSteps = new ArrayList<>(getSolutionSteps());
             Collections.reverse(reversedSteps);
             for (String step : reversedSteps) {
                 System.out.println(step);
@@ -218,7 +377,7 @@ public class Bisection {
             }
         } else {
             System.out.println("Solution failed:");
-            List<String> reversedErrors = new ArrayList<>(msgSoln);
+            List<String> reversedErrors = new ArrayList<>(getSolutionSteps());
             Collections.reverse(reversedErrors);
             for (String error : reversedErrors) {
                 System.out.println(error);
@@ -0,0 +1,512 @@
+package include;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.*;
+import java.util.function.Consumer;
+
+import include.utils.CompiledFunction;
+import include.utils.ExpressionBackend;
+import include.utils.ExpressionCache;
+import include.utils.IterationTrace;
+import include.utils.RootFinder;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
+
+public class Brent {
+    //? Brent's method: keeps a sign-changing bracket like Bisection, but takes an inverse
+    //? quadratic or secant step whenever it lands safely inside the bracket and shrinks it fast
+    //? enough, falling back to bisection otherwise.
+
+    //* Columns of the iteration trace
+    private static final int B = 0;
+    private static final int FB = 1;
+    private static final int C = 2;
+    private static final int FC = 3;
+    private static final int METHOD = 4;
+    private static final int X = 5;
+    private static final int FX = 6;
+
+    //* Values of the METHOD column
+    private static final int BISECTION = 0;
+    private static final int SECANT = 1;
+    private static final int INVERSE_QUADRATIC = 2;
+
+    private static final double EPSILON = Math.ulp(1.0);
+
+    private List<String> msgSoln;
+    private List<String> answers;
+    private List<Double> iterationValues;
+    private String functionExpression;
+    private CompiledFunction function;
+    private ExpressionBackend backend;
+    private RootFindingEngine engine;
+    private final IterationTrace trace;
+    private RootFindingEngine.Status status;
+    private TraceLevel traceLevel;
+    private double root;
+    private double tolerance;
+    private DecimalFormat decimalFormat;
+    private DecimalFormat fixedFormat;
+    private int maxIterations;
+    private int maxEvaluations;
+    private String variable;
+
+    // Default constructor with default variable "x"
+    public Brent() {
+        this(0.0001, 1000, "x");
+    }
+
+    // Constructor with tolerance only
+    public Brent(double tolerance) {
+        this(tolerance, 1000, "x");
+    }
+
+    // Constructor with max iterations only
+    public Brent(int maxIterations) {
+        this(0.0001, maxIterations, "x");
+    }
+
+    // Constructor with variable name
+    public Brent(String var) {
+        this(0.0001, 1000, var);
+    }
+
+    // Constructor with tolerance and max iterations
+    public Brent(double tolerance, int maxIterations) {
+        this(tolerance, maxIterations, "x");
+    }
+
+    // Full constructor with all parameters
+    public Brent(double tolerance, int maxIterations, String var) {
+        this.msgSoln = new ArrayList<>();
+        this.trace = new IterationTrace(7);
+        this.answers = new ArrayList<>();
+        this.iterationValues = new ArrayList<>();
+        this.fixedFormat = new DecimalFormat("0.000");
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+        symbols.setDecimalSeparator('.');
+        fixedFormat.setDecimalFormatSymbols(symbols);
+        setTolerance(tolerance);
+        this.maxIterations = maxIterations;
+        this.variable = var;
+        this.backend = ExpressionBackend.BYTECODE;
+        this.maxEvaluations = RootFindingEngine.DEFAULT_MAX_EVALUATIONS;
+        this.traceLevel = TraceLevel.FULL;
+        this.root = Double.NaN;
+    }
+
+    public List<String> getSolutionSteps() {
+        renderTrace();
+        return msgSoln;
+    }
+
+    public List<String> getAnswers() {
+        return answers;
+    }
+
+    public List<Double> getIterationValues() {
+        return iterationValues;
+    }
+
+    private void renderTrace() {
+        //? Steps are recorded as numbers during the solve and only formatted on first access
+        if (trace.isPending()) {
+            msgSoln.clear();
+            trace.render(this::renderRow, msgSoln::add);
+        }
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        //? Render a pending trace with the format it was recorded under
+        renderTrace();
+        this.tolerance = tolerance;
+        updateDecimalFormat();
+    }
+
+    public ExpressionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExpressionBackend backend) {
+        //? BYTECODE compiles the function to JVM code; EXP4J keeps the interpreter
+        this.backend = backend;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public void setMaxEvaluations(int maxEvaluations) {
+        //? Hard cap on function evaluations per solve, checked between iterations
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getRoot()
+        this.traceLevel = traceLevel;
+    }
+
+    public double getRoot() {
+        //* NaN until a solve succeeds
+        return root;
+    }
+
+    public int getIterationCount() {
+        return engine == null ? 0 : engine.getIterations();
+    }
+
+    public int getEvaluationCount() {
+        //* Function evaluations actually performed by the last solve; repeated points are memoized
+        return engine == null ? 0 : engine.getEvaluations();
+    }
+
+    public RootFindingEngine.Status getStatus() {
+        //* Why the last solve stopped iterating; null if it failed before the first iteration
+        return status;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
+    private void updateDecimalFormat() {
+        int decimalPlaces = Math.max(1, (int) Math.ceil(-Math.log10(tolerance)));
+        
+        StringBuilder pattern = new StringBuilder("0");
+        if (decimalPlaces > 0) {
+            pattern.append(".");
+            for (int i = 0; i < decimalPlaces; i++) {
+                pattern.append("0"); 
+            }
+        }
+
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+        symbols.setDecimalSeparator('.');
+
+        this.decimalFormat = new DecimalFormat(pattern.toString());
+        this.decimalFormat.setDecimalFormatSymbols(symbols);
+
+        this.fixedFormat = new DecimalFormat(pattern.toString());
+        this.fixedFormat.setDecimalFormatSymbols(symbols);
+    }
+
+    private String formatNumber(double value) {
+        return decimalFormat.format(value);
+    }
+
+    private String formatFixed(double value) {
+        return fixedFormat.format(value);
+    }
+
+    private String getFunctionEvaluationString(double x) {
+        return functionExpression.replaceAll(variable, formatFixed(x));
+    }
+    
+    private CompiledFunction compile() throws IllegalArgumentException {
+        try {
+            return ExpressionCache.getFunction(functionExpression, variable, backend);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+    
+    private double f(double x) throws IllegalArgumentException {
+        try {
+            return engine.evaluate(x);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+
+    private double iterate(RootFinder finder) {
+        status = engine.run(finder);
+        if (traceAnswers()) {
+            if (status == RootFindingEngine.Status.MAX_ITERATIONS) {
+                trace.note("Maximum iterations reached without convergence.");
+            } else if (status == RootFindingEngine.Status.MAX_EVALUATIONS) {
+                trace.note("Maximum function evaluations reached without convergence.");
+            }
+        }
+        return finder.getRoot();
+    }
+
+    public boolean solve(String function, double a, double b) {
+        return solve(function, a, b, this.tolerance);
+    }
+
+    public boolean solve(String function, double a, double b, double tolerance) {
+        msgSoln.clear();
+        trace.clear();
+        answers.clear();
+        iterationValues.clear();
+        this.functionExpression = function;
+        this.engine = null;
+        this.status = null;
+        this.root = Double.NaN;
+        setTolerance(tolerance);
+
+        if (traceSteps()) {
+            trace.note("Using tolerance: " + formatNumber(tolerance));
+            trace.note("Maximum iterations: " + maxIterations);
+        }
+
+        try {
+            this.function = compile();
+            this.engine = new RootFindingEngine(maxIterations, maxEvaluations, this.function);
+            double fa = f(a);
+            double fb = f(b);
+
+            if (traceSteps()) {
+                trace.note("Initial values:");
+                trace.note(String.format("a = %s, f(a) = %s = %s", 
+                    formatNumber(a), getFunctionEvaluationString(a), formatNumber(fa)));
+                trace.note(String.format("b = %s, f(b) = %s = %s", 
+                    formatNumber(b), getFunctionEvaluationString(b), formatNumber(fb)));
+                trace.note("");
+            }
+
+            if (fa * fb >= 0) {
+                if (traceAnswers()) {
+                    trace.note("Brent's method cannot continue. f(a) and f(b) must have opposite signs.");
+                }
+                return false;
+            }
+
+            root = iterate(new BrentStep(a, b, fa, fb));
+
+            if (traceAnswers()) {
+                answers.add("Root found: " + formatNumber(root));
+                answers.add("Number of iterations: " + iterationValues.size());
+                answers.add("Final tolerance: " + formatNumber(tolerance));
+            }
+
+            return true;
+        } catch (IllegalArgumentException e) {
+            if (traceAnswers()) {
+                trace.note("Error with function evaluation: " + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private class BrentStep implements RootFinder {
+        //? b is the best estimate, c the contrapoint with f(c) of opposite sign, a the previous b.
+        //? d is the last step taken and e the one before it, used to reject slow interpolation.
+        private double a;
+        private double b;
+        private double c;
+        private double fa;
+        private double fb;
+        private double fc;
+        private double d;
+        private double e;
+
+        BrentStep(double a, double b, double fa, double fb) {
+            this.a = a;
+            this.b = b;
+            this.fa = fa;
+            this.fb = fb;
+            this.c = a;
+            this.fc = fa;
+            this.d = b - a;
+            this.e = d;
+            keepBestEstimate();
+        }
+
+        private void keepBestEstimate() {
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+        }
+
+        private double stepTolerance() {
+            return 2 * EPSILON * Math.abs(b) + 0.5 * tolerance;
+        }
+
+        private boolean converged() {
+            //? Same residual-or-bracket test as Bisection and False_Position
+            return Math.abs(fb) < tolerance || Math.abs(0.5 * (c - b)) <= stepTolerance();
+        }
+
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            if (converged()) {
+                return RootFindingEngine.Status.CONVERGED;
+            }
+
+            double tol = stepTolerance();
+            double mid = 0.5 * (c - b);
+            int method = BISECTION;
+
+            if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    //? Only two distinct points: secant step
+                    p = 2 * mid * s;
+                    q = 1 - s;
+                    method = SECANT;
+                } else {
+                    //? Inverse quadratic interpolation through a, b and c
+                    double r = fb / fc;
+                    q = fa / fc;
+                    p = s * (2 * mid * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                    method = INVERSE_QUADRATIC;
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                //? Accept the interpolated step only if it stays inside the bracket and
+                //? is less than half the step before last; otherwise bisect
+                if (2 * p < Math.min(3 * mid * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = mid;
+                    e = d;
+                    method = BISECTION;
+                }
+            } else {
+                d = mid;
+                e = d;
+            }
+
+            double previousB = b;
+            double previousFb = fb;
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tol ? d : Math.copySign(tol, mid);
+            fb = f(b);
+            iterationValues.add(b);
+
+            if (traceSteps()) {
+                int row = trace.addRow();
+                trace.set(row, B, previousB);
+                trace.set(row, FB, previousFb);
+                trace.set(row, C, c);
+                trace.set(row, FC, fc);
+                trace.set(row, METHOD, method);
+                trace.set(row, X, b);
+                trace.set(row, FX, fb);
+            }
+
+            if ((fb > 0) == (fc > 0)) {
+                //? The sign change is now between a and b
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            keepBestEstimate();
+
+            return converged() ? RootFindingEngine.Status.CONVERGED : RootFindingEngine.Status.RUNNING;
+        }
+
+        @Override
+        public double getRoot() {
+            return b;
+        }
+    }
+
+    private void renderRow(IterationTrace trace, int row, Consumer<String> out) {
+        double b = trace.get(row, B);
+        double c = trace.get(row, C);
+        double x = trace.get(row, X);
+        String method;
+        switch ((int) trace.get(row, METHOD)) {
+            case INVERSE_QUADRATIC:
+                method = "inverse quadratic interpolation";
+                break;
+            case SECANT:
+                method = "secant";
+                break;
+            default:
+                method = "bisection";
+                break;
+        }
+        out.accept(String.format("Iteration %d:", row + 1));
+        out.accept(String.format("  b = %s, f(b) = %s = %s", 
+            formatNumber(b), getFunctionEvaluationString(b), formatNumber(trace.get(row, FB))));
+        out.accept(String.format("  c = %s, f(c) = %s = %s", 
+            formatNumber(c), getFunctionEvaluationString(c), formatNumber(trace.get(row, FC))));
+        out.accept("  Step: " + method);
+        out.accept(String.format("  x = %s, f(x) = %s = %s", 
+            formatNumber(x), getFunctionEvaluationString(x), formatNumber(trace.get(row, FX))));
+        out.accept("");
+    }
+
+    public void printSolution(boolean success) {
+        System.out.println(functionExpression);
+        System.out.println(tolerance);
+        System.out.println();
+
+        if (success) {
+            System.out.println("Solution Steps:");
+            for (String step : getSolutionSteps()) {
+                System.out.println(step);
+            }
+            
+            System.out.println("\nFinal Answers:");
+            for (String answer : answers) {
+                System.out.println(answer);
+            }
+        } else {
+            System.out.println("Solution failed:");
+            for (String error : getSolutionSteps()) {
+                System.out.println(error);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        // Example usages showing all constructor variations:
+        
+        // 1. Using default constructor
+        Brent solver1 = new Brent();
+        boolean success1 = solver1.solve("x^3 - 4cos(x)", 1.0, 2.0);
+        solver1.printSolution(success1);
+
+        System.out.println("\n--------------------------------\n");
+        
+        // 2. Using constructor with variable name
+        Brent solver2 = new Brent("y");
+        boolean success2 = solver2.solve("y^3 - 4cos(y)", 1.0, 2.0);
+        solver2.printSolution(success2);
+
+        System.out.println("\n--------------------------------\n");
+        
+        // 3. Using constructor with tolerance
+        Brent solver3 = new Brent(0.001);
+        boolean success3 = solver3.solve("x^3 - 4cos(x)", 1.0, 2.0);
+        solver3.printSolution(success3);
+
+        System.out.println("\n--------------------------------\n");
+        
+        // 4. Specifying tolerance at solve time
+        Brent solver4 = new Brent();
+        boolean success4 = solver4.solve("x^3 - 4cos(x)", 1.0, 2.0, 0.1);
+        solver4.printSolution(success4);
+    }
+}
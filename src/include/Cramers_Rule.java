@@ -5,10 +5,27 @@ import java.text.DecimalFormatSymbols;
 import java.util.*;
 
 import include.utils.Fraction;
+import include.utils.LUCache;
+import include.utils.LUDecomposition;
+import include.utils.TraceLevel;
 
 public class Cramers_Rule {
+    //? Determinants come from a pivoted LU factorization, O(n^3) each. Up to DIRECT_LIMIT
+    //? unknowns every A_i is factored on its own, as the method is taught; beyond that all
+    //? det(A_i) follow from the one factorization of A, since Cramer's rule x_i = det(A_i)/det(A)
+    //? turns around to det(A_i) = det(A) * x_i with x solved from the same factors.
+
+    //* Largest system whose A_i are factored one by one
+    private static final int DIRECT_LIMIT = 8;
+
+    //* Largest denominator shown when a determinant or unknown is written as a fraction
+    private static final int MAX_DENOMINATOR = 100000;
+
     private List<String> msgSoln;
     private List<String> answers;
+    private double[] solution;
+    private TraceLevel traceLevel;
+    private boolean caching;
     private double tolerance;
     private DecimalFormat decimalFormat;
     private DecimalFormat fixedFormat;
@@ -25,6 +42,8 @@ public class Cramers_Rule {
         symbols.setDecimalSeparator('.');
         fixedFormat.setDecimalFormatSymbols(symbols);
         setTolerance(tolerance);
+        this.traceLevel = TraceLevel.FULL;
+        this.caching = true;
     }
 
     public List<String> getSolutionSteps() {
@@ -35,6 +54,37 @@ public class Cramers_Rule {
         return answers;
     }
 
+    public double[] getSolution() {
+        //* null if the last solve failed
+        return solution;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getSolution()
+        this.traceLevel = traceLevel;
+    }
+
+    public boolean isCaching() {
+        return caching;
+    }
+
+    public void setCaching(boolean caching) {
+        //? false for one-off systems: A is factored directly instead of through LUCache
+        this.caching = caching;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
     public double getTolerance() {
         return tolerance;
     }
@@ -69,30 +119,47 @@ public class Cramers_Rule {
         return decimalFormat.format(value);
     }
 
-    private LinkedList<LinkedList<Double>> convertToLinkedList(double[][] matrix) {
-        LinkedList<LinkedList<Double>> list = new LinkedList<>();
-        for (double[] row : matrix) {
-            LinkedList<Double> listRow = new LinkedList<>();
-            for (double val : row) {
-                listRow.add(val);
-            }
-            list.add(listRow);
+    private String formatFraction(double value) {
+        /*
+         * Method to show a double as the closest fraction with a small denominator
+         * @param value The number to show
+         * @return e.g. "35/22", or the decimal if the value is too large for a Fraction
+         */
+        if (Double.isFinite(value) && Math.abs(value) < Integer.MAX_VALUE) {
+            return Fraction.approximate(value, MAX_DENOMINATOR).toString();
         }
-        return list;
+        return formatNumber(value);
     }
 
-    private LinkedList<Double> convertToLinkedList(double[] vector) {
-        LinkedList<Double> list = new LinkedList<>();
-        for (double val : vector) {
-            list.add(val);
+    private String formatScaled(double mantissa, double exponent) {
+        /*
+         * Method to show m * 2^e as "fraction ≈ decimal", like the other values in the trace
+         * @param mantissa m
+         * @param exponent e
+         * @return The usual form, or scientific notation when the value would overflow a double,
+         *         be too large for a Fraction, or round to 0 at the fraction's resolution
+         */
+        if (!Double.isFinite(mantissa)) {
+            return formatNumber(mantissa);
+        }
+        double value = Math.scalb(mantissa, (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, exponent)));
+        if (mantissa == 0 || (Math.abs(value) < Integer.MAX_VALUE && Math.abs(value) >= 1.0 / MAX_DENOMINATOR)) {
+            return formatFraction(value) + " ≈ " + formatNumber(value);
+        }
+        double log10 = Math.log10(Math.abs(mantissa)) + exponent * Math.log10(2);
+        long power = (long) Math.floor(log10);
+        double digits = Math.pow(10, log10 - power);
+        if (digits >= 9.999995) {
+            digits /= 10;
+            power++;
         }
-        return list;
+        return String.format(Locale.ROOT, "%s%.5fE%d", mantissa < 0 ? "-" : "", digits, power);
     }
 
-    private String matrixToString(LinkedList<LinkedList<Double>> matrix) {
+    private String matrixToString(double[][] matrix) {
         StringBuilder sb = new StringBuilder();
-        for (LinkedList<Double> row : matrix) {
-            for (Double entry : row) {
+        for (double[] row : matrix) {
+            for (double entry : row) {
                 sb.append(formatNumber(entry)).append("\t");
             }
             sb.append("\n");
@@ -100,105 +167,110 @@ public class Cramers_Rule {
         return sb.toString();
     }
 
-    private LinkedList<LinkedList<Double>> replaceColumn(LinkedList<LinkedList<Double>> matrix, 
-                                                      LinkedList<Double> column, 
-                                                      int colIndex) {
-        LinkedList<LinkedList<Double>> newMatrix = new LinkedList<>();
-        for (LinkedList<Double> row : matrix) {
-            LinkedList<Double> newRow = new LinkedList<>(row);
-            newRow.set(colIndex, column.get(newMatrix.size()));
-            newMatrix.add(newRow);
+    private double[][] replaceColumn(double[][] matrix, double[] column, int colIndex) {
+        double[][] newMatrix = new double[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            newMatrix[i] = matrix[i].clone();
+            newMatrix[i][colIndex] = column[i];
         }
         return newMatrix;
     }
 
-    private double determinant(LinkedList<LinkedList<Double>> matrix) {
-        int n = matrix.size();
-        if (n == 1) return matrix.get(0).get(0);
-        if (n == 2) {
-            return matrix.get(0).get(0) * matrix.get(1).get(1) - 
-                   matrix.get(0).get(1) * matrix.get(1).get(0);
-        }
-
-        double det = 0;
-        for (int i = 0; i < n; i++) {
-            det += Math.pow(-1, i) * matrix.get(0).get(i) * 
-                  determinant(minor(matrix, 0, i));
-        }
-        return det;
-    }
-
-    private LinkedList<LinkedList<Double>> minor(LinkedList<LinkedList<Double>> matrix, 
-                                              int row, int col) {
-        LinkedList<LinkedList<Double>> minor = new LinkedList<>();
-        for (int i = 0; i < matrix.size(); i++) {
-            if (i == row) continue;
-            LinkedList<Double> newRow = new LinkedList<>();
-            for (int j = 0; j < matrix.size(); j++) {
-                if (j == col) continue;
-                newRow.add(matrix.get(i).get(j));
-            }
-            minor.add(newRow);
-        }
-        return minor;
+    private double[] determinant(double[][] matrix) {
+        //* Product of the pivots of PA = LU, sign-corrected for the row swaps, as {m, e} = m * 2^e
+        return new LUDecomposition(matrix).scaledDeterminant();
     }
 
     public boolean solve(double[][] A, double[] B) {
         msgSoln.clear();
         answers.clear();
+        solution = null;
 
-        LinkedList<LinkedList<Double>> listA = convertToLinkedList(A);
-        LinkedList<Double> listB = convertToLinkedList(B);
-
-        int n = listA.size();
+        int n = A.length;
         
         if (n < 2) {
-            msgSoln.add("Error: System must have at least 2 variables.");
+            if (traceAnswers()) {
+                msgSoln.add("Error: System must have at least 2 variables.");
+            }
             return false;
         }
         
-        if (listB.size() != n) {
-            msgSoln.add("Error: Constant matrix is not compatible with coefficient matrix.");
+        for (double[] row : A) {
+            if (row.length != n) {
+                if (traceAnswers()) {
+                    msgSoln.add("Error: Coefficient matrix is not square.");
+                }
+                return false;
+            }
+        }
+        
+        if (B.length != n) {
+            if (traceAnswers()) {
+                msgSoln.add("Error: Constant matrix is not compatible with coefficient matrix.");
+            }
             return false;
         }
 
-        msgSoln.add("Original Coefficient Matrix:");
-        msgSoln.add(matrixToString(listA));
-        msgSoln.add("Constant Terms Vector:");
-        for (int i = 0; i < n; i++) {
-            msgSoln.add("b[" + i + "] = " + formatNumber(listB.get(i)));
+        if (traceSteps()) {
+            msgSoln.add("Original Coefficient Matrix:");
+            msgSoln.add(matrixToString(A));
+            msgSoln.add("Constant Terms Vector:");
+            for (int i = 0; i < n; i++) {
+                msgSoln.add("b[" + i + "] = " + formatNumber(B[i]));
+            }
+            msgSoln.add("");
         }
-        msgSoln.add("");
 
-        double detAValue = determinant(listA);
-        Fraction detA = new Fraction(detAValue);
-        msgSoln.add("Step 1: Calculate determinant of A");
-        msgSoln.add("det(A) = " + detA + " ≈ " + formatNumber(detAValue));
-        msgSoln.add("");
+        LUDecomposition lu = caching ? LUCache.get(A) : new LUDecomposition(A);
+        //? Determinants of large or badly scaled systems over- or underflow a double, so they
+        //? stay as mantissa and binary exponent; singularity is the factorization's own test
+        double[] detA = lu.scaledDeterminant();
+        if (traceSteps()) {
+            msgSoln.add("Step 1: Calculate determinant of A");
+            msgSoln.add("det(A) = " + formatScaled(detA[0], detA[1]));
+            msgSoln.add("");
+        }
 
-        if (Math.abs(detAValue) < tolerance) {
-            msgSoln.add("Error: Determinant of A is 0. No unique solution exists.");
+        if (lu.isSingular()) {
+            if (traceAnswers()) {
+                msgSoln.add("Error: Determinant of A is 0. No unique solution exists.");
+            }
             return false;
         }
 
+        //? Beyond DIRECT_LIMIT the unknowns come first and the det(A_i) from them
+        double[] x = n > DIRECT_LIMIT ? lu.solve(B) : new double[n];
         for (int i = 0; i < n; i++) {
-            LinkedList<LinkedList<Double>> Ai = replaceColumn(listA, listB, i);
-            msgSoln.add("Step " + (i + 2) + ": Matrix A" + (i + 1) + 
-                       " (replace column " + (i + 1) + " with constants)");
-            msgSoln.add(matrixToString(Ai));
+            double[][] Ai = traceSteps() || n <= DIRECT_LIMIT ? replaceColumn(A, B, i) : null;
+            if (traceSteps()) {
+                msgSoln.add("Step " + (i + 2) + ": Matrix A" + (i + 1) + 
+                           " (replace column " + (i + 1) + " with constants)");
+                msgSoln.add(matrixToString(Ai));
+            }
             
-            double detAiValue = determinant(Ai);
-            Fraction detAi = new Fraction(detAiValue);
-            msgSoln.add("det(A" + (i + 1) + ") = " + detAi + " ≈ " + formatNumber(detAiValue));
+            double[] detAi;
+            if (n > DIRECT_LIMIT) {
+                detAi = new double[] {detA[0] * x[i], detA[1]};
+            } else {
+                detAi = determinant(Ai);
+                x[i] = Math.scalb(detAi[0] / detA[0], (int) (detAi[1] - detA[1]));
+            }
+            if (traceSteps()) {
+                msgSoln.add("det(A" + (i + 1) + ") = " + formatScaled(detAi[0], detAi[1]));
+            }
             
-            Fraction xi = detAi.divide(detA);
-            msgSoln.add("x" + (i + 1) + " = det(A" + (i + 1) + ")/det(A) = " + 
-                        xi + " ≈ " + formatNumber(xi.doubleValue()));
-            msgSoln.add("");
+            String xi = formatScaled(x[i], 0);
+            if (traceSteps()) {
+                msgSoln.add("x" + (i + 1) + " = det(A" + (i + 1) + ")/det(A) = " + xi);
+                msgSoln.add("");
+            }
             
-            answers.add("x" + (i + 1) + " = " + xi + " ≈ " + formatNumber(xi.doubleValue()));
+            if (traceAnswers()) {
+                answers.add("x" + (i + 1) + " = " + xi);
+            }
         }
 
+        solution = x;
         return true;
     }
     public void printSolution(boolean success) {
@@ -3,18 +3,63 @@ package include;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
+import java.util.function.Consumer;
+
+import include.utils.CompiledFunction;
+import include.utils.ExpressionBackend;
+import include.utils.ExpressionCache;
+import include.utils.IterationTrace;
+import include.utils.RootFinder;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
 
 public class False_Position {
+    public enum Variant {
+        //? Plain regula falsi; one endpoint can stay fixed and convergence becomes linear
+        STANDARD,
+
+        //? Halve the retained endpoint's f value when it is kept twice in a row
+        ILLINOIS,
+
+        //? Scale it by f(old)/(f(old) + f(c)), where old is the endpoint just replaced
+        PEGASUS,
+
+        //? Scale it by 1 - f(c)/f(old), or by 1/2 when that is not positive
+        ANDERSON_BJORCK
+    }
+
+    //* Columns of the iteration trace
+    private static final int A = 0;
+    private static final int FA = 1;
+    private static final int B = 2;
+    private static final int FB = 3;
+    private static final int C = 4;
+    private static final int FC = 5;
+    private static final int SCALED = 6;
+    private static final int MULTIPLIER = 7;
+
+    //* Values of the SCALED column
+    private static final int NONE = 0;
+    private static final int SCALED_A = 1;
+    private static final int SCALED_B = 2;
+
     private Queue<String> msgSoln;
     private Queue<String> answers;
     private LinkedList<Double> iterationValues;
     private String functionExpression;
+    private CompiledFunction function;
+    private ExpressionBackend backend;
+    private Variant variant;
+    private RootFindingEngine engine;
+    private final IterationTrace trace;
+    private RootFindingEngine.Status status;
+    private TraceLevel traceLevel;
+    private double root;
     private double tolerance;
     private DecimalFormat decimalFormat;
     private DecimalFormat fixedFormat;
     private int maxIterations;
+    private int maxEvaluations;
     private String variable;
 
     // Default constructor with default variable "x"
@@ -45,6 +90,7 @@ public class False_Position {
     // Full constructor with all parameters
     public False_Position(double tolerance, int maxIterations, String var) {
         this.msgSoln = new LinkedList<>();
+        this.trace = new IterationTrace(8);
         this.answers = new LinkedList<>();
         this.iterationValues = new LinkedList<>();
         this.fixedFormat = new DecimalFormat("0.000");
@@ -54,9 +100,15 @@ public class False_Position {
         setTolerance(tolerance);
         this.maxIterations = maxIterations;
         this.variable = var;
+        this.backend = ExpressionBackend.BYTECODE;
+        this.variant = Variant.STANDARD;
+        this.maxEvaluations = RootFindingEngine.DEFAULT_MAX_EVALUATIONS;
+        this.traceLevel = TraceLevel.FULL;
+        this.root = Double.NaN;
     }
 
     public Queue<String> getSolutionSteps() {
+        renderTrace();
         return msgSoln;
     }
 
@@ -68,15 +120,89 @@ public class False_Position {
         return iterationValues;
     }
 
+    private void renderTrace() {
+        //? Steps are recorded as numbers during the solve and only formatted on first access
+        if (trace.isPending()) {
+            msgSoln.clear();
+            trace.render(this::renderRow, msgSoln::add);
+        }
+    }
+
     public double getTolerance() {
         return tolerance;
     }
 
     public void setTolerance(double tolerance) {
+        //? Render a pending trace with the format it was recorded under
+        renderTrace();
         this.tolerance = tolerance;
         updateDecimalFormat();
     }
 
+    public ExpressionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExpressionBackend backend) {
+        //? BYTECODE compiles the function to JVM code; EXP4J keeps the interpreter
+        this.backend = backend;
+    }
+
+    public Variant getVariant() {
+        return variant;
+    }
+
+    public void setVariant(Variant variant) {
+        //? Illinois, Pegasus and Anderson-Bjorck keep the bracket but restore superlinear convergence
+        renderTrace();
+        this.variant = variant;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public void setMaxEvaluations(int maxEvaluations) {
+        //? Hard cap on function evaluations per solve, checked between iterations
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getRoot()
+        this.traceLevel = traceLevel;
+    }
+
+    public double getRoot() {
+        //* NaN until a solve succeeds
+        return root;
+    }
+
+    public int getIterationCount() {
+        return engine == null ? 0 : engine.getIterations();
+    }
+
+    public int getEvaluationCount() {
+        //* Function evaluations actually performed by the last solve; repeated points are memoized
+        return engine == null ? 0 : engine.getEvaluations();
+    }
+
+    public RootFindingEngine.Status getStatus() {
+        //* Why the last solve stopped iterating; null if it failed before the first iteration
+        return status;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
     private void updateDecimalFormat() {
         int decimalPlaces = Math.max(1, (int) Math.ceil(-Math.log10(tolerance)));
         
@@ -110,96 +236,228 @@ public class False_Position {
         return functionExpression.replaceAll(variable, formatFixed(x));
     }
     
+    private CompiledFunction compile() throws IllegalArgumentException {
+        try {
+            return ExpressionCache.getFunction(functionExpression, variable, backend);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+    
     private double f(double x) throws IllegalArgumentException {
         try {
-            Expression e = new ExpressionBuilder(functionExpression)
-                .variables(variable)
-                .build()
-                .setVariable(variable, x);
-            return e.evaluate();
+            return engine.evaluate(x);
         } catch (Exception e) {
             throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
         }
     }
 
+    private double iterate(RootFinder finder) {
+        status = engine.run(finder);
+        if (traceAnswers()) {
+            if (status == RootFindingEngine.Status.MAX_ITERATIONS) {
+                trace.note("Maximum iterations reached without convergence.");
+            } else if (status == RootFindingEngine.Status.MAX_EVALUATIONS) {
+                trace.note("Maximum function evaluations reached without convergence.");
+            }
+        }
+        return finder.getRoot();
+    }
+
     public boolean solve(String function, double a, double b) {
         return solve(function, a, b, this.tolerance);
     }
 
     public boolean solve(String function, double a, double b, double tolerance) {
         msgSoln.clear();
+        trace.clear();
         answers.clear();
         iterationValues.clear();
         this.functionExpression = function;
+        this.engine = null;
+        this.status = null;
+        this.root = Double.NaN;
         setTolerance(tolerance);
 
-        msgSoln.add("Using tolerance: " + formatNumber(tolerance));
-        msgSoln.add("Maximum iterations: " + maxIterations);
+        if (traceSteps()) {
+            trace.note("Using tolerance: " + formatNumber(tolerance));
+            trace.note("Maximum iterations: " + maxIterations);
+            if (variant != Variant.STANDARD) {
+                trace.note("Variant: " + variantName());
+            }
+        }
         
         try {
+            this.function = compile();
+            this.engine = new RootFindingEngine(maxIterations, maxEvaluations, this.function);
             double fa = f(a);
             double fb = f(b);
             
-            msgSoln.add("Initial values:");
-            msgSoln.add(String.format("a = %s, f(a) = %s = %s", 
-                formatNumber(a), getFunctionEvaluationString(a), formatNumber(fa)));
-            msgSoln.add(String.format("b = %s, f(b) = %s = %s", 
-                formatNumber(b), getFunctionEvaluationString(b), formatNumber(fb)));
-            msgSoln.add("");
+            if (traceSteps()) {
+                trace.note("Initial values:");
+                trace.note(String.format("a = %s, f(a) = %s = %s", 
+                    formatNumber(a), getFunctionEvaluationString(a), formatNumber(fa)));
+                trace.note(String.format("b = %s, f(b) = %s = %s", 
+                    formatNumber(b), getFunctionEvaluationString(b), formatNumber(fb)));
+                trace.note("");
+            }
 
             if (fa * fb >= 0) {
-                msgSoln.add("False Position method cannot continue. f(a) and f(b) must have opposite signs.");
+                if (traceAnswers()) {
+                    trace.note("False Position method cannot continue. f(a) and f(b) must have opposite signs.");
+                }
                 return false;
             }
 
-            double root = falsePositionRecursive(a, b, fa, fb, 1);
+            root = iterate(new FalsePositionStep(a, b, fa, fb));
 
-            answers.add("Root found: " + formatNumber(root));
-            answers.add("Number of iterations: " + iterationValues.size());
-            answers.add("Final tolerance: " + formatNumber(tolerance));
+            if (traceAnswers()) {
+                answers.add("Root found: " + formatNumber(root));
+                answers.add("Number of iterations: " + iterationValues.size());
+                answers.add("Final tolerance: " + formatNumber(tolerance));
+            }
             
             return true;
         } catch (IllegalArgumentException e) {
-            msgSoln.add("Error with function evaluation: " + e.getMessage());
+            if (traceAnswers()) {
+                trace.note("Error with function evaluation: " + e.getMessage());
+            }
             return false;
         }
     }
     
-    private double falsePositionRecursive(double a, double b, double fa, double fb, int iteration) {
-        if (iteration > maxIterations) {
-            msgSoln.add("Maximum iterations reached without convergence.");
-            return (a + b) / 2;
+    private class FalsePositionStep implements RootFinder {
+        private double a;
+        private double b;
+        private double fa;
+        private double fb;
+        private double root;
+        private int retained;
+
+        FalsePositionStep(double a, double b, double fa, double fb) {
+            this.a = a;
+            this.b = b;
+            this.fa = fa;
+            this.fb = fb;
+            this.root = (a + b) / 2;
+            this.retained = NONE;
         }
 
-        double c = a - (fa * (b - a)) / (fb - fa);
-        double fc = f(c);
-        iterationValues.add(c);
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            double c = a - (fa * (b - a)) / (fb - fa);
+            double fc = f(c);
+            iterationValues.add(c);
+
+            int row = -1;
+            if (traceSteps()) {
+                row = trace.addRow();
+                trace.set(row, A, a);
+                trace.set(row, FA, fa);
+                trace.set(row, B, b);
+                trace.set(row, FB, fb);
+                trace.set(row, C, c);
+                trace.set(row, FC, fc);
+                trace.set(row, SCALED, NONE);
+            }
 
-        msgSoln.add(String.format("Iteration %d:", iteration));
-        msgSoln.add(String.format("  a = %s, f(a) = %s = %s", 
-            formatNumber(a), getFunctionEvaluationString(a), formatNumber(fa)));
-        msgSoln.add(String.format("  b = %s, f(b) = %s = %s", 
-            formatNumber(b), getFunctionEvaluationString(b), formatNumber(fb)));
-        msgSoln.add(String.format("  c = a - (f(a)*(b-a))/(f(b)-f(a)) = %s - (%s*(%s-%s))/(%s-%s) = %s", 
-            formatNumber(a), formatNumber(fa), formatNumber(b), formatNumber(a),
-            formatNumber(fb), formatNumber(fa), formatNumber(c)));
-        msgSoln.add(String.format("  f(c) = %s = %s", 
-            getFunctionEvaluationString(c), formatNumber(fc)));
-        msgSoln.add("");
+            if (Math.abs(fc) < tolerance || Math.abs(b - a) < tolerance) {
+                root = c;
+                return RootFindingEngine.Status.CONVERGED;
+            }
+
+            if (c == a || c == b) {
+                root = c;
+                return RootFindingEngine.Status.STOPPED;
+            }
+
+            if (fa * fc < 0) {
+                //? c replaces b; a is retained
+                if (retained == SCALED_A && variant != Variant.STANDARD) {
+                    double m = multiplier(fb, fc);
+                    fa *= m;
+                    record(row, SCALED_A, m);
+                }
+                b = c;
+                fb = fc;
+                retained = SCALED_A;
+            } else {
+                //? c replaces a; b is retained
+                if (retained == SCALED_B && variant != Variant.STANDARD) {
+                    double m = multiplier(fa, fc);
+                    fb *= m;
+                    record(row, SCALED_B, m);
+                }
+                a = c;
+                fa = fc;
+                retained = SCALED_B;
+            }
+            //? Out of iterations the midpoint of the current bracket is reported
+            root = (a + b) / 2;
+            return RootFindingEngine.Status.RUNNING;
+        }
 
-        if (Math.abs(fc) < tolerance || Math.abs(b - a) < tolerance) {
-            return c;
+        private double multiplier(double replaced, double fc) {
+            //* Factor applied to the retained endpoint's f value; always in (0, 1)
+            switch (variant) {
+                case PEGASUS:
+                    return replaced / (replaced + fc);
+                case ANDERSON_BJORCK:
+                    double m = 1 - fc / replaced;
+                    return m > 0 ? m : 0.5;
+                default:
+                    return 0.5;
+            }
         }
 
-        if (c == a || c == b) {
-            return c;
+        private void record(int row, int endpoint, double m) {
+            if (row >= 0) {
+                trace.set(row, SCALED, endpoint);
+                trace.set(row, MULTIPLIER, m);
+            }
         }
 
-        if (fa * fc < 0) {
-            return falsePositionRecursive(a, c, fa, fc, iteration + 1);
-        } else {
-            return falsePositionRecursive(c, b, fc, fb, iteration + 1);
+        @Override
+        public double getRoot() {
+            return root;
+        }
+    }
+    
+    private String variantName() {
+        switch (variant) {
+            case ILLINOIS:
+                return "Illinois";
+            case PEGASUS:
+                return "Pegasus";
+            case ANDERSON_BJORCK:
+                return "Anderson-Bjorck";
+            default:
+                return "Standard";
+        }
+    }
+    
+    private void renderRow(IterationTrace trace, int row, Consumer<String> out) {
+        double a = trace.get(row, A);
+        double fa = trace.get(row, FA);
+        double b = trace.get(row, B);
+        double fb = trace.get(row, FB);
+        double c = trace.get(row, C);
+        out.accept(String.format("Iteration %d:", row + 1));
+        out.accept(String.format("  a = %s, f(a) = %s = %s", 
+            formatNumber(a), getFunctionEvaluationString(a), formatNumber(fa)));
+        out.accept(String.format("  b = %s, f(b) = %s = %s", 
+            formatNumber(b), getFunctionEvaluationString(b), formatNumber(fb)));
+        out.accept(String.format("  c = a - (f(a)*(b-a))/(f(b)-f(a)) = %s - (%s*(%s-%s))/(%s-%s) = %s", 
+            formatNumber(a), formatNumber(fa), formatNumber(b), formatNumber(a),
+            formatNumber(fb), formatNumber(fa), formatNumber(c)));
+        out.accept(String.format("  f(c) = %s = %s", 
+            getFunctionEvaluationString(c), formatNumber(trace.get(row, FC))));
+        int scaled = (int) trace.get(row, SCALED);
+        if (scaled != NONE) {
+            out.accept(String.format("  %s: retained f(%s) scaled by %s", 
+                variantName(), scaled == SCALED_A ? "a" : "b", formatNumber(trace.get(row, MULTIPLIER))));
         }
+        out.accept("");
     }
     
     public void printSolution(boolean success) {
@@ -209,7 +467,7 @@ public class False_Position {
 
         if (success) {
             System.out.println("Solution Steps:");
-            for (String step : msgSoln) {
+            for (String step : getSolutionSteps()) {
                 System.out.println(step);
             }
             
@@ -219,7 +477,7 @@ public class False_Position {
             }
         } else {
             System.out.println("Solution failed:");
-            for (String error : msgSoln) {
+            for (String error : getSolutionSteps()) {
                 System.out.println(error);
             }
         }
@@ -4,18 +4,59 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.LinkedList;
 import java.util.Stack;
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
+import java.util.function.Consumer;
+
+import include.utils.CompiledFunction;
+import include.utils.ConvergenceMonitor;
+import include.utils.DerivativeMode;
+import include.utils.DualEvaluator;
+import include.utils.ExpressionBackend;
+import include.utils.ExpressionCache;
+import include.utils.IterationTrace;
+import include.utils.RootFinder;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
 
 public class Fixed_Point {
+    public enum Mode {
+        //? x = g(x); linear convergence with rate |g'(root)|
+        PLAIN,
+
+        //? Aitken's delta-squared applied to every two iterates; quadratic without a derivative
+        STEFFENSEN
+    }
+
+    //* Columns of the iteration trace
+    private static final int X = 0;
+    private static final int GX = 1;
+    private static final int ERROR = 2;
+    private static final int GGX = 3;
+    private static final int ACCELERATED = 4;
+    private static final int KIND = 5;
+
+    //* Values of the KIND column
+    private static final int PLAIN_STEP = 0;
+    private static final int AITKEN_STEP = 1;
+    private static final int AITKEN_SKIPPED = 2;
+
     private LinkedList<String> msgSoln;
     private LinkedList<String> answers;
     private Stack<Double> iterationValues;
     private String functionExpression;
+    private CompiledFunction function;
+    private ExpressionBackend backend;
+    private RootFindingEngine engine;
+    private final IterationTrace trace;
+    private RootFindingEngine.Status status;
+    private TraceLevel traceLevel;
+    private double root;
+    private DerivativeMode derivativeMode;
+    private Mode mode;
     private double tolerance;
     private DecimalFormat decimalFormat;
     private DecimalFormat fixedFormat;
     private int maxIterations;
+    private int maxEvaluations;
     String variable;
 
     public Fixed_Point(String var) {
@@ -28,6 +69,7 @@ public class Fixed_Point {
 
     public Fixed_Point(double tolerance, int maxIterations, String var) {
         this.msgSoln = new LinkedList<>();
+        this.trace = new IterationTrace(6);
         this.answers = new LinkedList<>();
         this.iterationValues = new Stack<>();
         this.fixedFormat = new DecimalFormat("0.000");
@@ -37,9 +79,16 @@ public class Fixed_Point {
         setTolerance(tolerance);
         this.maxIterations = maxIterations;
         this.variable = var;
+        this.backend = ExpressionBackend.BYTECODE;
+        this.maxEvaluations = RootFindingEngine.DEFAULT_MAX_EVALUATIONS;
+        this.traceLevel = TraceLevel.FULL;
+        this.root = Double.NaN;
+        this.derivativeMode = DerivativeMode.AUTOMATIC;
+        this.mode = Mode.PLAIN;
     }
 
     public LinkedList<String> getSolutionSteps() {
+        renderTrace();
         return msgSoln;
     }
 
@@ -51,15 +100,97 @@ public class Fixed_Point {
         return iterationValues;
     }
 
+    private void renderTrace() {
+        //? Steps are recorded as numbers during the solve and only formatted on first access
+        if (trace.isPending()) {
+            msgSoln.clear();
+            trace.render(this::renderRow, msgSoln::add);
+        }
+    }
+
     public double getTolerance() {
         return tolerance;
     }
 
     public void setTolerance(double tolerance) {
+        //? Render a pending trace with the format it was recorded under
+        renderTrace();
         this.tolerance = tolerance;
         updateDecimalFormat();
     }
 
+    public ExpressionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExpressionBackend backend) {
+        //? BYTECODE compiles the function to JVM code; EXP4J keeps the interpreter
+        this.backend = backend;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public void setMaxEvaluations(int maxEvaluations) {
+        //? Hard cap on function evaluations per solve, checked between iterations
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getRoot()
+        this.traceLevel = traceLevel;
+    }
+
+    public double getRoot() {
+        //* NaN until a solve succeeds
+        return root;
+    }
+
+    public int getIterationCount() {
+        return engine == null ? 0 : engine.getIterations();
+    }
+
+    public int getEvaluationCount() {
+        //* Function evaluations actually performed by the last solve; repeated points are memoized
+        return engine == null ? 0 : engine.getEvaluations();
+    }
+
+    public RootFindingEngine.Status getStatus() {
+        //* Why the last solve stopped iterating; null if it failed before the first iteration
+        return status;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
+    public DerivativeMode getDerivativeMode() {
+        return derivativeMode;
+    }
+
+    public void setDerivativeMode(DerivativeMode derivativeMode) {
+        //? Only used for the |g'(x)| < 1 convergence check at the initial guess
+        this.derivativeMode = derivativeMode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        //? STEFFENSEN spends two g evaluations per iteration and extrapolates from them
+        this.mode = mode;
+    }
+
     private void updateDecimalFormat() {
         int decimalPlaces = Math.max(1, (int) Math.ceil(-Math.log10(tolerance)));
         
@@ -93,21 +224,55 @@ public class Fixed_Point {
         return functionExpression.replaceAll(variable, formatFixed(x));
     }
     
+    private CompiledFunction compile() throws IllegalArgumentException {
+        try {
+            return ExpressionCache.getFunction(functionExpression, variable, backend);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+    
     private double f(double x) throws IllegalArgumentException {
         try {
-            Expression e = new ExpressionBuilder(functionExpression)
-                .variables(variable)
-                .build()
-                .setVariable(variable, x);
-            return e.evaluate();
+            return engine.evaluate(x);
         } catch (Exception e) {
             throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
         }
     }
 
+    private double iterate(RootFinder finder) {
+        status = engine.run(finder);
+        if (traceAnswers()) {
+            if (status == RootFindingEngine.Status.MAX_ITERATIONS) {
+                trace.note("Maximum iterations reached without convergence.");
+            } else if (status == RootFindingEngine.Status.MAX_EVALUATIONS) {
+                trace.note("Maximum function evaluations reached without convergence.");
+            } else if (engine.getStopReason() != null) {
+                trace.note("Stopped early: " + engine.getStopReason() + ".");
+            }
+        }
+        return finder.getRoot();
+    }
+
     private double derivative(double x) throws IllegalArgumentException {
         double h = 1e-10;
         try {
+            //? Exact derivatives where the expression allows it; forward difference otherwise
+            if (derivativeMode == DerivativeMode.AUTOMATIC) {
+                try {
+                    DualEvaluator dual = new DualEvaluator(ExpressionCache.getTree(functionExpression, variable), variable);
+                    dual.evaluate(x);
+                    return dual.getFirstDerivative();
+                } catch (IllegalArgumentException e) {
+                    // fall through to the forward difference
+                }
+            } else if (derivativeMode == DerivativeMode.SYMBOLIC) {
+                try {
+                    return ExpressionCache.getDerivative(functionExpression, variable).apply(x);
+                } catch (IllegalArgumentException e) {
+                    // fall through to the forward difference
+                }
+            }
             double fxh = f(x + h);
             double fx = f(x);
             return (fxh - fx) / h;
@@ -120,65 +285,215 @@ public class Fixed_Point {
         return solve(function, initialGuess, this.tolerance);
     }
 
+    public boolean solve(String function, double initialGuess, Mode mode) {
+        return solve(function, initialGuess, this.tolerance, mode);
+    }
+
+    public boolean solve(String function, double initialGuess, double tolerance, Mode mode) {
+        //? The mode applies to this solve only; later plain solves keep the configured one
+        Mode previous = this.mode;
+        this.mode = mode;
+        try {
+            return solve(function, initialGuess, tolerance);
+        } finally {
+            this.mode = previous;
+        }
+    }
+
     public boolean solve(String function, double initialGuess, double tolerance) {
         msgSoln.clear();
+        trace.clear();
         answers.clear();
         iterationValues.clear();
         this.functionExpression = function;
+        this.engine = null;
+        this.status = null;
+        this.root = Double.NaN;
         setTolerance(tolerance);
 
-        msgSoln.add("Using tolerance: " + formatNumber(tolerance));
-        msgSoln.add("Maximum iterations: " + maxIterations);
+        if (traceSteps()) {
+            trace.note("Using tolerance: " + formatNumber(tolerance));
+            trace.note("Maximum iterations: " + maxIterations);
+            if (mode == Mode.STEFFENSEN) {
+                trace.note("Acceleration: Steffensen (Aitken delta-squared on every two iterates)");
+            }
+        }
         
         try {
-            double derivativeValue = derivative(initialGuess);
-            msgSoln.add(String.format("Derivative at initial guess: g'(%s) = %s", 
-                formatNumber(initialGuess), formatNumber(derivativeValue)));
-            
-            if (Math.abs(derivativeValue) >= 1) {
-                msgSoln.add("Warning: |g'(x)| ≥ 1 at initial guess. Convergence not guaranteed.");
+            this.function = compile();
+            this.engine = new RootFindingEngine(maxIterations, maxEvaluations, this.function);
+            engine.setMonitor(new ConvergenceMonitor(tolerance));
+            //? The |g'(x)| < 1 check only feeds the trace, so OFF skips the derivative entirely
+            if (traceAnswers()) {
+                double derivativeValue = derivative(initialGuess);
+                if (traceSteps()) {
+                    trace.note(String.format("Derivative at initial guess: g'(%s) = %s", 
+                        formatNumber(initialGuess), formatNumber(derivativeValue)));
+                }
+                if (Math.abs(derivativeValue) >= 1) {
+                    trace.note("Warning: |g'(x)| ≥ 1 at initial guess. Convergence not guaranteed.");
+                }
             }
 
-            msgSoln.add("Starting fixed-point iteration with initial guess: " + formatNumber(initialGuess));
-            msgSoln.add("");
+            if (traceSteps()) {
+                trace.note("Starting fixed-point iteration with initial guess: " + formatNumber(initialGuess));
+                trace.note("");
+            }
 
-            double root = fixedPointRecursive(initialGuess, 1);
+            root = iterate(mode == Mode.STEFFENSEN
+                ? new SteffensenStep(initialGuess)
+                : new FixedPointStep(initialGuess));
+            if (engine.getStopReason() != null) {
+                root = Double.NaN;
+                return false;
+            }
 
-            answers.add("Root found: " + formatNumber(root));
-            answers.add("Number of iterations: " + iterationValues.size());
-            answers.add("Final tolerance: " + formatNumber(tolerance));
+            if (traceAnswers()) {
+                answers.add("Root found: " + formatNumber(root));
+                answers.add("Number of iterations: " + iterationValues.size());
+                answers.add("Final tolerance: " + formatNumber(tolerance));
+            }
             
             return true;
         } catch (IllegalArgumentException e) {
-            msgSoln.add("Error: " + e.getMessage());
+            if (traceAnswers()) {
+                trace.note("Error: " + e.getMessage());
+            }
             return false;
         }
     }
     
-    private double fixedPointRecursive(double x, int iteration) {
-        if (iteration > maxIterations) {
-            msgSoln.add("Maximum iterations reached without convergence.");
+    private class FixedPointStep implements RootFinder {
+        private double x;
+
+        FixedPointStep(double initialGuess) {
+            this.x = initialGuess;
+        }
+
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            double gx = f(x);
+            double error = Math.abs(gx - x);
+            iterationValues.push(x);
+
+            if (traceSteps()) {
+                int row = trace.addRow();
+                trace.set(row, X, x);
+                trace.set(row, GX, gx);
+                trace.set(row, ERROR, error);
+                trace.set(row, KIND, PLAIN_STEP);
+            }
+
+            x = gx;
+            if (error < tolerance) {
+                if (traceSteps()) {
+                    trace.note("Convergence achieved!");
+                }
+                return RootFindingEngine.Status.CONVERGED;
+            }
+            return RootFindingEngine.Status.RUNNING;
+        }
+
+        @Override
+        public double getRoot() {
             return x;
         }
+    }
+    
+    private class SteffensenStep implements RootFinder {
+        private double x;
 
-        double gx = f(x);
-        double error = Math.abs(gx - x);
-        iterationValues.push(x);
+        SteffensenStep(double initialGuess) {
+            this.x = initialGuess;
+        }
 
-        msgSoln.add(String.format("Iteration %d:", iteration));
-        msgSoln.add(String.format("  x%d = %s", iteration, formatNumber(x)));
-        msgSoln.add(String.format("  g(x%d) = %s = %s", 
-            iteration, getFunctionEvaluationString(x), formatNumber(gx)));
-        msgSoln.add(String.format("  Error = |g(x) - x| = |%s - %s| = %s", 
-            formatNumber(gx), formatNumber(x), formatNumber(error)));
-        msgSoln.add("");
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            double gx = f(x);
+            iterationValues.push(x);
+
+            int row = -1;
+            if (traceSteps()) {
+                row = trace.addRow();
+                trace.set(row, X, x);
+                trace.set(row, GX, gx);
+                trace.set(row, ERROR, Math.abs(gx - x));
+                trace.set(row, KIND, PLAIN_STEP);
+            }
+
+            //? Already within tolerance: the second evaluation would be wasted
+            if (Math.abs(gx - x) < tolerance) {
+                x = gx;
+                return converged();
+            }
+
+            double ggx = f(gx);
+            double denominator = ggx - 2 * gx + x;
+            boolean skipped = denominator == 0 || !Double.isFinite(denominator);
+            double next;
+            if (skipped) {
+                //? The iterates are collinear (or overflowed); fall back to the plain iterate
+                next = ggx;
+            } else {
+                next = x - (gx - x) * (gx - x) / denominator;
+            }
+            double error = Math.abs(next - x);
+
+            if (row >= 0) {
+                trace.set(row, GGX, ggx);
+                trace.set(row, ACCELERATED, next);
+                trace.set(row, ERROR, error);
+                trace.set(row, KIND, skipped ? AITKEN_SKIPPED : AITKEN_STEP);
+            }
+
+            x = next;
+            if (error < tolerance) {
+                return converged();
+            }
+            return RootFindingEngine.Status.RUNNING;
+        }
 
-        if (error < tolerance) {
-            msgSoln.add("Convergence achieved!");
-            return gx;
+        private RootFindingEngine.Status converged() {
+            if (traceSteps()) {
+                trace.note("Convergence achieved!");
+            }
+            return RootFindingEngine.Status.CONVERGED;
         }
 
-        return fixedPointRecursive(gx, iteration + 1);
+        @Override
+        public double getRoot() {
+            return x;
+        }
+    }
+    
+    private void renderRow(IterationTrace trace, int row, Consumer<String> out) {
+        int iteration = row + 1;
+        double x = trace.get(row, X);
+        double gx = trace.get(row, GX);
+        out.accept(String.format("Iteration %d:", iteration));
+        out.accept(String.format("  x%d = %s", iteration, formatNumber(x)));
+        out.accept(String.format("  g(x%d) = %s = %s", 
+            iteration, getFunctionEvaluationString(x), formatNumber(gx)));
+        int kind = (int) trace.get(row, KIND);
+        if (kind == PLAIN_STEP) {
+            out.accept(String.format("  Error = |g(x) - x| = |%s - %s| = %s", 
+                formatNumber(gx), formatNumber(x), formatNumber(trace.get(row, ERROR))));
+        } else {
+            double ggx = trace.get(row, GGX);
+            double next = trace.get(row, ACCELERATED);
+            out.accept(String.format("  g(g(x%d)) = %s = %s", 
+                iteration, getFunctionEvaluationString(gx), formatNumber(ggx)));
+            if (kind == AITKEN_STEP) {
+                out.accept(String.format("  Aitken: x - (g(x) - x)^2 / (g(g(x)) - 2g(x) + x) = %s - (%s - %s)^2 / (%s - 2*%s + %s) = %s", 
+                    formatNumber(x), formatNumber(gx), formatNumber(x), 
+                    formatNumber(ggx), formatNumber(gx), formatNumber(x), formatNumber(next)));
+            } else {
+                out.accept(String.format("  Aitken denominator is zero; continuing with g(g(x)) = %s", formatNumber(next)));
+            }
+            out.accept(String.format("  Error = |x%d - x%d| = |%s - %s| = %s", 
+                iteration + 1, iteration, formatNumber(next), formatNumber(x), formatNumber(trace.get(row, ERROR))));
+        }
+        out.accept("");
     }
     
     public void printSolution(boolean success) {
@@ -188,7 +503,7 @@ public class Fixed_Point {
 
         if (success) {
             System.out.println("Solution Steps:");
-            for (String step : msgSoln) {
+            for (String step : getSolutionSteps()) {
                 System.out.println(step);
             }
             
@@ -198,7 +513,7 @@ public class Fixed_Point {
             }
         } else {
             System.out.println("Solution failed:");
-            for (String error : msgSoln) {
+            for (String error : getSolutionSteps()) {
                 System.out.println(error);
             }
         }
@@ -227,5 +542,12 @@ public class Fixed_Point {
         Fixed_Point solver3 = new Fixed_Point("x");
         boolean success3 = solver3.solve("cos(2*x)", 0.5, 0.00001);
         solver3.printSolution(success3);
+
+        System.out.println("\n--------------------------------\n");
+        
+        // 4. Steffensen acceleration on the same function
+        Fixed_Point solver4 = new Fixed_Point("x");
+        boolean success4 = solver4.solve("cos(2*x)", 0.5, 0.00001, Mode.STEFFENSEN);
+        solver4.printSolution(success4);
     }
 }
\ No newline at end of file
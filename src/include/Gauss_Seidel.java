@@ -4,12 +4,16 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
 
+import include.utils.TraceLevel;
+
 public class Gauss_Seidel {
     private double[][] coefficients;
     private double[] constants;
     private List<String> solutionSteps;
     private List<String> answers;
     private List<double[]> iterationValues;
+    private int iterationCount;
+    private TraceLevel traceLevel;
     private static final int MAX_ITERATIONS = 1000;
     private double tolerance;
     private DecimalFormat decimalFormat;
@@ -24,6 +28,7 @@ public class Gauss_Seidel {
         this.answers = new ArrayList<>();
         this.iterationValues = new ArrayList<>();
         this.tolerance = tolerance;
+        this.traceLevel = TraceLevel.FULL;
     }
 
     public List<String> getSolutionSteps() {
@@ -34,6 +39,27 @@ public class Gauss_Seidel {
         return answers;
     }
 
+    public int getIterationCount() {
+        return iterationCount;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting and iteration history; solve() still returns the solution
+        this.traceLevel = traceLevel;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
     private void setTolerance(double tolerance) {
         this.tolerance = tolerance;
         updateDecimalFormat();
@@ -114,7 +140,9 @@ public class Gauss_Seidel {
                 }
             }
             if (!found) {
-                solutionSteps.add("Warning: Could not make matrix diagonally dominant. Results may not converge.");
+                if (traceAnswers()) {
+                    solutionSteps.add("Warning: Could not make matrix diagonally dominant. Results may not converge.");
+                }
                 return;
             }
         }
@@ -193,14 +221,19 @@ public class Gauss_Seidel {
         this.solutionSteps.clear();
         this.answers.clear();
         this.iterationValues.clear();
+        this.iterationCount = 0;
         setTolerance(tolerance);
 
-        printSystem();
+        if (traceSteps()) {
+            printSystem();
+        }
         // makeDiagonallyDominant();
         diagonallyDominant();
 
-        solutionSteps.add("\nStarting Gauss-Seidel Iteration:");
-        solutionSteps.add("Using tolerance: " + formatNumber(tolerance));
+        if (traceSteps()) {
+            solutionSteps.add("\nStarting Gauss-Seidel Iteration:");
+            solutionSteps.add("Using tolerance: " + formatNumber(tolerance));
+        }
 
         int n = this.coefficients.length;
         double[] current = new double[n];
@@ -209,36 +242,37 @@ public class Gauss_Seidel {
 
         for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
             System.arraycopy(current, 0, previous, 0, n);
-            solutionSteps.add("\nIteration " + (iteration + 1) + ":");
+            iterationCount = iteration + 1;
+            if (traceSteps()) {
+                solutionSteps.add("\nIteration " + (iteration + 1) + ":");
+            }
 
             for (int i = 0; i < n; i++) {
                 double sum = this.constants[i];
-                StringBuilder formula = new StringBuilder("x" + (i + 1) + " = (" +
-                        formatNumber(this.constants[i]) + " - (");
-
                 for (int j = 0; j < n; j++) {
                     if (j != i) {
                         sum -= this.coefficients[i][j] * current[j];
-                        formula.append(formatNumber(this.coefficients[i][j]))
-                                .append("*x").append(j + 1)
-                                .append(" [").append(formatNumber(current[j])).append("]");
-
-                        if (j < n - 1 && j != i - 1) {
-                            formula.append(" + ");
-                        }
                     }
                 }
-
-                formula.append(")) / ").append(formatNumber(this.coefficients[i][i]));
-                current[i] = sum / this.coefficients[i][i];
-                formula.append(" = ").append(formatNumber(current[i]));
-                solutionSteps.add(formula.toString());
+                double value = sum / this.coefficients[i][i];
+                if (traceSteps()) {
+                    //? The trace shows the values this row was computed from, before the in-place update
+                    solutionSteps.add(formatUpdate(i, this.constants[i], current, value));
+                }
+                current[i] = value;
             }
 
-            iterationValues.add(Arrays.copyOf(current, current.length));
-            solutionSteps.add(formatIteration(iteration, current));
+            if (traceAnswers()) {
+                iterationValues.add(Arrays.copyOf(current, current.length));
+            }
+            if (traceSteps()) {
+                solutionSteps.add(formatIteration(iteration, current));
+            }
 
             if (hasConverged(current, previous)) {
+                if (!traceAnswers()) {
+                    return current;
+                }
                 answers.add("Solution converged after " + (iteration + 1) + " iterations");
                 answers.add("Final tolerance: " + formatNumber(tolerance));
 
@@ -251,7 +285,9 @@ public class Gauss_Seidel {
             }
         }
 
-        answers.add("Warning: Maximum iterations (" + MAX_ITERATIONS + ") reached without convergence");
+        if (traceAnswers()) {
+            answers.add("Warning: Maximum iterations (" + MAX_ITERATIONS + ") reached without convergence");
+        }
         return current;
     }
 
@@ -264,6 +300,28 @@ public class Gauss_Seidel {
         return true;
     }
 
+    private String formatUpdate(int i, double constant, double[] values, double result) {
+        int n = values.length;
+        StringBuilder formula = new StringBuilder("x" + (i + 1) + " = (" +
+                formatNumber(constant) + " - (");
+
+        for (int j = 0; j < n; j++) {
+            if (j != i) {
+                formula.append(formatNumber(this.coefficients[i][j]))
+                        .append("*x").append(j + 1)
+                        .append(" [").append(formatNumber(values[j])).append("]");
+
+                if (j < n - 1 && j != i - 1) {
+                    formula.append(" + ");
+                }
+            }
+        }
+
+        formula.append(")) / ").append(formatNumber(this.coefficients[i][i]));
+        formula.append(" = ").append(formatNumber(result));
+        return formula.toString();
+    }
+
     private String formatIteration(int iteration, double[] values) {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("Iteration %2d: [", iteration + 1));
@@ -4,11 +4,30 @@ import java.util.ArrayList;
 import java.util.List;
 import java.text.DecimalFormat;
 import include.utils.Fraction;
+import include.utils.LUCache;
+import include.utils.LUDecomposition;
+import include.utils.TraceLevel;
 
 public class Gaussian_Elimination {
     
+    public enum Mode {
+        //? LU factorization on primitive doubles with partial pivoting; fractions only for display
+        NUMERIC,
+
+        //? Every entry is a Fraction; exact for small integer systems, slow beyond a few dozen rows
+        EXACT
+    }
+
+    //* Largest denominator shown when a numeric result is written as a fraction
+    private static final int MAX_DENOMINATOR = 100000;
+
     private List<String> msgSoln;
     private List<String> answers; 
+    private double[] solution;
+    private double[][] solutions;
+    private TraceLevel traceLevel;
+    private Mode mode;
+    private boolean caching;
     
     public static void main(String[] args) {
         //TODO: Example usage
@@ -35,6 +54,9 @@ public class Gaussian_Elimination {
          */
         this.msgSoln = new ArrayList<>();
         this.answers = new ArrayList<>();
+        this.traceLevel = TraceLevel.FULL;
+        this.mode = Mode.NUMERIC;
+        this.caching = true;
     }
     
     public List<String> getSolutionSteps() {
@@ -53,6 +75,66 @@ public class Gaussian_Elimination {
         return answers;
     }
     
+    public double[] getSolution() {
+        /*
+         * Method to retrieve the numeric solution of the last successful solve
+         * @return The solution vector, or null if the last solve failed or had a block of right-hand sides
+         */
+        return solution;
+    }
+    
+    public double[][] getSolutions() {
+        /*
+         * Method to retrieve the numeric solutions of the last successful solve
+         * @return X, n x k, column c solving the system for right-hand side c; null if the last solve failed
+         */
+        return solutions;
+    }
+    
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+    
+    public void setTraceLevel(TraceLevel traceLevel) {
+        /*
+         * Method to choose how much of the solution is written out
+         * @param traceLevel OFF computes only getSolution(), SUMMARY adds the answers, FULL adds every row operation
+         */
+        this.traceLevel = traceLevel;
+    }
+    
+    public Mode getMode() {
+        return mode;
+    }
+    
+    public void setMode(Mode mode) {
+        /*
+         * Method to choose the arithmetic
+         * @param mode NUMERIC (the default) for speed at any size, EXACT for Fraction arithmetic
+         */
+        this.mode = mode;
+    }
+    
+    public boolean isCaching() {
+        return caching;
+    }
+    
+    public void setCaching(boolean caching) {
+        /*
+         * Method to choose whether NUMERIC solves share factorizations through LUCache
+         * @param caching false for one-off systems, so A is neither copied as a key nor kept alive
+         */
+        this.caching = caching;
+    }
+    
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+    
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+    
     private boolean isSquareMatrix(double[][] matrix) {
         /*
          * Method to check if the matrix is square
@@ -69,72 +151,104 @@ public class Gaussian_Elimination {
         return true;
     }
     
-    private boolean isCompatibleMatrix(double[][] matrixA, double[] matrixB) {
+    private boolean isCompatibleMatrix(double[][] matrixA, double[][] matrixB) {
         /*
-         * Method to check if the constant matrix is compatible with the coefficient matrix
+         * Method to check that every row of a block of right-hand sides matches the coefficient matrix
          * @param matrixA The coefficient matrix
-         * @param matrixB The constant matrix
-         * @return true if the matrices are compatible, false otherwise
+         * @param matrixB The constant matrices, one column per system
+         * @return true if B has one row per equation and the same number of columns in each
          */
-        return matrixB.length == matrixA.length;
+        if (matrixB.length != matrixA.length || matrixB[0].length == 0) {
+            return false;
+        }
+        for (double[] row : matrixB) {
+            if (row.length != matrixB[0].length) {
+                return false;
+            }
+        }
+        return true;
     }
     
     private void backwardsSubstitution(Fraction[][] matrix, int size) {
         /*
          * Method to perform backward substitution to find the solution
-         * @param matrix The augmented matrix after forward elimination
+         * @param matrix The augmented matrix after forward elimination, one constant column per system
          * @param size The size of the matrix
          * @return void
          */
 
-        Fraction[] x = new Fraction[size];
-        DecimalFormat df = new DecimalFormat("0.00##"); 
+        int columns = matrix[0].length - size;
+        Fraction[][] x = new Fraction[size][columns];
         
-        x[size - 1] = matrix[size - 1][size].divide(matrix[size - 1][size - 1]);
+        for (int c = 0; c < columns; c++) {
+            x[size - 1][c] = matrix[size - 1][size + c].divide(matrix[size - 1][size - 1]);
+            
+            for (int i = size - 2; i >= 0; i--) {
+                Fraction sum = matrix[i][size + c];
+                for (int j = i + 1; j < size; j++) {
+                    sum = sum.subtract(matrix[i][j].multiply(x[j][c]));
+                }
+                x[i][c] = sum.divide(matrix[i][i]);
+            }
+        }
         
-        for (int i = size - 2; i >= 0; i--) {
-            Fraction sum = matrix[i][size];
-            for (int j = i + 1; j < size; j++) {
-                sum = sum.subtract(matrix[i][j].multiply(x[j]));
+        solutions = new double[size][columns];
+        for (int i = 0; i < size; i++) {
+            for (int c = 0; c < columns; c++) {
+                solutions[i][c] = x[i][c].doubleValue();
             }
-            x[i] = sum.divide(matrix[i][i]);
         }
         
         //? Store answers in both decimal and fraction form in Gaussian_Elimination class
-        answers.add("\nDecimal Form");
-        for (int i = 0; i < x.length; i++) {
-            answers.add("var " + (i + 1) + ": " + df.format(x[i].doubleValue()));
+        if (!traceAnswers()) {
+            return;
         }
         
-        answers.add("\nFraction Form");
-        for (int i = 0; i < x.length; i++) {
-            answers.add("x_" + (i + 1) + ": " + x[i].toString());
+        DecimalFormat df = new DecimalFormat("0.00##"); 
+        for (int c = 0; c < columns; c++) {
+            if (columns > 1) {
+                answers.add("\nRight-hand side " + (c + 1) + ":");
+            }
+            answers.add("\nDecimal Form");
+            for (int i = 0; i < size; i++) {
+                answers.add("var " + (i + 1) + ": " + df.format(x[i][c].doubleValue()));
+            }
+            
+            answers.add("\nFraction Form");
+            for (int i = 0; i < size; i++) {
+                answers.add("x_" + (i + 1) + ": " + x[i][c].toString());
+            }
         }
         
     }
     
-    private Fraction[][] forwardElimination(double[][] matrixA, double[] matrixB) {
+    private Fraction[][] forwardElimination(double[][] matrixA, double[][] matrixB) {
         /*
          * Method to perform forward elimination on the augmented matrix
          * @param matrixA The coefficient matrix
-         * @param matrixB The constant matrix
+         * @param matrixB The constant matrices, one column per system
          * @return The augmented matrix after forward elimination in Fraction form
          */
 
         int n = matrixA.length;
-        Fraction[][] augmentedMatrix = new Fraction[n][n + 1];
+        int columns = matrixB[0].length;
+        Fraction[][] augmentedMatrix = new Fraction[n][n + columns];
         
         //? Initialize augmented matrix with Fractions
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < n; j++) {
                 augmentedMatrix[i][j] = new Fraction(matrixA[i][j]);
             }
-            augmentedMatrix[i][n] = new Fraction(matrixB[i]);
+            for (int c = 0; c < columns; c++) {
+                augmentedMatrix[i][n + c] = new Fraction(matrixB[i][c]);
+            }
         }
         
-        msgSoln.add("Augmented Matrix (Initial): ");
-        msgSoln.add(matrixToString(augmentedMatrix));
-        msgSoln.add(" ");
+        if (traceSteps()) {
+            msgSoln.add("Augmented Matrix (Initial): ");
+            msgSoln.add(matrixToString(augmentedMatrix));
+            msgSoln.add(" ");
+        }
         
         //? Partial pivoting
         for (int i = 0; i < n; i++) {
@@ -152,38 +266,158 @@ public class Gaussian_Elimination {
                 augmentedMatrix[i] = augmentedMatrix[maxRow];
                 augmentedMatrix[maxRow] = temp;
                 
-                msgSoln.add("Swapped rows " + i + " and " + maxRow + ":");
-                msgSoln.add(matrixToString(augmentedMatrix));
-                msgSoln.add(" ");
+                if (traceSteps()) {
+                    msgSoln.add("Swapped rows " + i + " and " + maxRow + ":");
+                    msgSoln.add(matrixToString(augmentedMatrix));
+                    msgSoln.add(" ");
+                }
             }
         }
         
-        msgSoln.add("Solution: ");
+        if (traceSteps()) {
+            msgSoln.add("Solution: ");
+        }
         
         //? Forward elimination
         for (int i = 0; i < n; i++) {
             if (augmentedMatrix[i][i].doubleValue() == 0.0) {
-                msgSoln.add("0 division Error");
+                if (traceAnswers()) {
+                    msgSoln.add("0 division Error");
+                }
                 return null;
             }
             
             for (int j = i + 1; j < n; j++) {
                 Fraction scalingFactor = augmentedMatrix[j][i].divide(augmentedMatrix[i][i]);
                 
-                for (int k = i; k < n + 1; k++) {
+                for (int k = i; k < n + columns; k++) {
                     augmentedMatrix[j][k] = augmentedMatrix[j][k].subtract(
                         scalingFactor.multiply(augmentedMatrix[i][k]));
                 }
                 
-                msgSoln.add("Row " + (j + 1) + " updated by subtracting " + scalingFactor + " * Row " + (i + 1) + ":");
-                msgSoln.add(matrixToString(augmentedMatrix));
-                msgSoln.add(" ");
+                if (traceSteps()) {
+                    msgSoln.add("Row " + (j + 1) + " updated by subtracting " + scalingFactor + " * Row " + (i + 1) + ":");
+                    msgSoln.add(matrixToString(augmentedMatrix));
+                    msgSoln.add(" ");
+                }
             }
         }
         
         return augmentedMatrix;
     }
     
+    private boolean solveNumeric(double[][] matrixA, double[][] matrixB) {
+        /*
+         * Method to solve by LU factorization with partial pivoting on |a_ik|
+         * @param matrixA The coefficient matrix
+         * @param matrixB The constant matrices, one column per system
+         * @return true if the matrix is non-singular
+         */
+        //? A matrix solved before reuses its factorization; the trace is replayed from it
+        LUDecomposition lu = caching ? LUCache.get(matrixA) : new LUDecomposition(matrixA);
+        if (traceSteps()) {
+            lu.replay(new TraceListener(matrixA, matrixB));
+        }
+        if (lu.isSingular()) {
+            if (traceAnswers()) {
+                msgSoln.add("0 division Error");
+            }
+            return false;
+        }
+        solutions = lu.solve(matrixB);
+        
+        if (!traceAnswers()) {
+            return true;
+        }
+        
+        int columns = matrixB[0].length;
+        DecimalFormat df = new DecimalFormat("0.00##"); 
+        for (int c = 0; c < columns; c++) {
+            if (columns > 1) {
+                answers.add("\nRight-hand side " + (c + 1) + ":");
+            }
+            answers.add("\nDecimal Form");
+            for (int i = 0; i < solutions.length; i++) {
+                answers.add("var " + (i + 1) + ": " + df.format(solutions[i][c]));
+            }
+            
+            answers.add("\nFraction Form");
+            for (int i = 0; i < solutions.length; i++) {
+                answers.add("x_" + (i + 1) + ": " + formatEntry(solutions[i][c]));
+            }
+        }
+        return true;
+    }
+    
+    private class TraceListener implements LUDecomposition.Listener {
+        //? Replays the factorization's row operations on the augmented matrix for the trace
+        private final double[][] augmented;
+        private boolean eliminating;
+        
+        TraceListener(double[][] matrixA, double[][] matrixB) {
+            int n = matrixA.length;
+            int columns = matrixB[0].length;
+            augmented = new double[n][n + columns];
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(matrixA[i], 0, augmented[i], 0, n);
+                System.arraycopy(matrixB[i], 0, augmented[i], n, columns);
+            }
+            msgSoln.add("Augmented Matrix (Initial): ");
+            msgSoln.add(matrixToString(augmented));
+            msgSoln.add(" ");
+        }
+        
+        @Override
+        public void rowsSwapped(int first, int second) {
+            double[] temp = augmented[first];
+            augmented[first] = augmented[second];
+            augmented[second] = temp;
+            msgSoln.add("Swapped rows " + first + " and " + second + ":");
+            msgSoln.add(matrixToString(augmented));
+            msgSoln.add(" ");
+        }
+        
+        @Override
+        public void rowEliminated(int row, int pivotRow, double factor) {
+            if (!eliminating) {
+                msgSoln.add("Solution: ");
+                eliminating = true;
+            }
+            for (int k = pivotRow; k < augmented[row].length; k++) {
+                augmented[row][k] = k == pivotRow ? 0 : augmented[row][k] - factor * augmented[pivotRow][k];
+            }
+            msgSoln.add("Row " + (row + 1) + " updated by subtracting " + formatEntry(factor) + " * Row " + (pivotRow + 1) + ":");
+            msgSoln.add(matrixToString(augmented));
+            msgSoln.add(" ");
+        }
+    }
+    
+    private String formatEntry(double value) {
+        /*
+         * Method to show a double as a fraction when one with a small denominator matches it
+         * @param value The number to show
+         * @return e.g. "11/3", or the decimal if no such fraction is close
+         */
+        if (Double.isFinite(value) && Math.abs(value) < Integer.MAX_VALUE) {
+            Fraction fraction = Fraction.approximate(value, MAX_DENOMINATOR);
+            if (Math.abs(fraction.doubleValue() - value) <= 1e-9 * Math.max(1, Math.abs(value))) {
+                return fraction.toString();
+            }
+        }
+        return new DecimalFormat("0.0#####").format(value);
+    }
+    
+    private String matrixToString(double[][] matrix) {
+        StringBuilder sb = new StringBuilder();
+        for (double[] row : matrix) {
+            for (double entry : row) {
+                sb.append(formatEntry(entry)).append("\t");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+    
     private String matrixToString(Fraction[][] matrix) {
         /*
          * Method to convert the matrix to a string representation
@@ -207,27 +441,93 @@ public class Gaussian_Elimination {
          * @param matrixB The constant matrix
          * @return true if the solution is successful, false otherwise
          */
+        double[][] column = new double[matrixB.length][];
+        for (int i = 0; i < matrixB.length; i++) {
+            column[i] = new double[]{matrixB[i]};
+        }
+        if (!solve(matrixA, column)) {
+            return false;
+        }
+        
+        solution = new double[solutions.length];
+        for (int i = 0; i < solution.length; i++) {
+            solution[i] = solutions[i][0];
+        }
+        return true;
+    }
+    
+    public boolean solve(double[][] matrixA, double[][] matrixB) {
+        /*
+         * Method to solve AX = B for several right-hand sides with a single elimination
+         * @param matrixA The coefficient matrix
+         * @param matrixB The constant matrices as n x k, column c holding the constants of system c
+         * @return true if the solution is successful, false otherwise; getSolutions() then holds X
+         */
         msgSoln.clear();
         answers.clear();
+        solution = null;
+        solutions = null;
         
         //* Validate matrices
         if (!isSquareMatrix(matrixA)) {
-            msgSoln.add("Error: Coefficient matrix is not square.");
+            if (traceAnswers()) {
+                msgSoln.add("Error: Coefficient matrix is not square.");
+            }
             return false;
         }
         
         if (!isCompatibleMatrix(matrixA, matrixB)) {
-            msgSoln.add("Error: Constant matrix is not compatible with coefficient matrix.");
+            if (traceAnswers()) {
+                msgSoln.add("Error: Constant matrix is not compatible with coefficient matrix.");
+            }
             return false;
         }
         
+        return eliminate(matrixA, matrixB);
+    }
+    
+    public boolean solve(double[][] matrixA, double[] matrixB, int columns) {
+        /*
+         * Method to solve AX = B with the right-hand sides packed as one flat column-major block
+         * @param matrixA The coefficient matrix
+         * @param matrixB The k constant matrices one after another, column c in matrixB[c*n .. c*n + n)
+         * @param columns k
+         * @return true if the solution is successful, false otherwise; getSolutions() then holds X
+         */
+        int n = matrixA.length;
+        if (columns < 1 || matrixB.length != (long) n * columns) {
+            msgSoln.clear();
+            answers.clear();
+            solution = null;
+            solutions = null;
+            if (traceAnswers()) {
+                msgSoln.add("Error: Constant matrix is not compatible with coefficient matrix.");
+            }
+            return false;
+        }
+        
+        double[][] block = new double[n][columns];
+        for (int c = 0; c < columns; c++) {
+            for (int i = 0; i < n; i++) {
+                block[i][c] = matrixB[c * n + i];
+            }
+        }
+        return solve(matrixA, block);
+    }
+    
+    private boolean eliminate(double[][] matrixA, double[][] matrixB) {
+        //* Runs the chosen arithmetic on validated input; the right-hand sides share every row operation
+        if (mode == Mode.NUMERIC) {
+            return solveNumeric(matrixA, matrixB);
+        }
+        
         Fraction[][] augMatrix = forwardElimination(matrixA, matrixB);
         
         if (augMatrix == null) {
             return false;
         }
         
-        backwardsSubstitution(augMatrix, augMatrix[0].length - 1);
+        backwardsSubstitution(augMatrix, matrixA.length);
         return true;
     }
     
@@ -0,0 +1,604 @@
+package include;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.*;
+import java.util.function.Consumer;
+
+import include.utils.Differentiator;
+import include.utils.ExpressionCache;
+import include.utils.Interval;
+import include.utils.IntervalEvaluator;
+import include.utils.IterationTrace;
+import include.utils.RootFinder;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
+
+public class Interval_Newton {
+    //? Finds every root in [a, b] with guaranteed enclosures. Each subinterval X is bounded with
+    //? interval arithmetic: if f(X) excludes zero, X holds no root and is dropped whole.
+    //? Otherwise the interval Newton operator
+    //?     N(X) = m - f(m) / f'(X),  m the midpoint of X
+    //? contains every root in X, so X shrinks to X ∩ N(X); when N(X) lies strictly inside X
+    //? the root is proven to exist and be unique. If f'(X) contains zero the division splits
+    //? N(X) around a gap, which still removes the middle of X. Subintervals no wider than the
+    //? tolerance are reported as enclosures, unless f(X) is still unbounded or f may jump on
+    //? them: a pole or a discontinuity lets f(X) contain zero at any width without a root.
+
+    //* Columns of the iteration trace
+    private static final int LO = 0;
+    private static final int HI = 1;
+    private static final int F_LO = 2;
+    private static final int F_HI = 3;
+    private static final int ACTION = 4;
+    private static final int NEW_LO = 5;
+    private static final int NEW_HI = 6;
+
+    //* What happened to a subinterval
+    private static final int DISCARDED = 0;
+    private static final int UNDEFINED = 1;
+    private static final int CONTRACTED = 2;
+    private static final int SPLIT = 3;
+    private static final int BISECTED = 4;
+    private static final int ENCLOSED = 5;
+    private static final int EXCLUDED = 6;
+    private static final int SINGULAR = 7;
+
+    private List<String> msgSoln;
+    private List<String> answers;
+    private String functionExpression;
+    private IntervalEvaluator evaluator;
+    private RootFindingEngine engine;
+    private final IterationTrace trace;
+    private RootFindingEngine.Status status;
+    private TraceLevel traceLevel;
+    private List<Interval> enclosures;
+    private List<Boolean> unique;
+    private List<Interval> discontinuities;
+    private double root;
+    private double tolerance;
+    private DecimalFormat decimalFormat;
+    private int maxIterations;
+    private String variable;
+
+    // Default constructor with default variable "x"
+    public Interval_Newton() {
+        this(0.0001, 1000, "x");
+    }
+
+    // Constructor with tolerance only
+    public Interval_Newton(double tolerance) {
+        this(tolerance, 1000, "x");
+    }
+
+    // Constructor with variable name
+    public Interval_Newton(String var) {
+        this(0.0001, 1000, var);
+    }
+
+    // Full constructor with all parameters
+    public Interval_Newton(double tolerance, int maxIterations, String var) {
+        this.msgSoln = new ArrayList<>();
+        this.trace = new IterationTrace(7);
+        this.answers = new ArrayList<>();
+        setTolerance(tolerance);
+        this.maxIterations = maxIterations;
+        this.variable = var;
+        this.traceLevel = TraceLevel.FULL;
+        this.enclosures = new ArrayList<>();
+        this.unique = new ArrayList<>();
+        this.discontinuities = new ArrayList<>();
+        this.root = Double.NaN;
+    }
+
+    public List<String> getSolutionSteps() {
+        renderTrace();
+        return msgSoln;
+    }
+
+    public List<String> getAnswers() {
+        return answers;
+    }
+
+    private void renderTrace() {
+        //? Steps are recorded as numbers during the solve and only formatted on first access
+        if (trace.isPending()) {
+            msgSoln.clear();
+            trace.render(this::renderRow, msgSoln::add);
+        }
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        //? Render a pending trace with the format it was recorded under
+        renderTrace();
+        this.tolerance = tolerance;
+        updateDecimalFormat();
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        //? Each iteration processes one subinterval
+        this.maxIterations = maxIterations;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getEnclosures()
+        this.traceLevel = traceLevel;
+    }
+
+    public double getRoot() {
+        //* Midpoint of the leftmost enclosure; NaN until a solve finds one
+        return root;
+    }
+
+    public List<Interval> getEnclosures() {
+        //* Intervals of width at most the tolerance, in increasing order; every root in [a, b] lies in
+        //* one of these or of getDiscontinuities()
+        return Collections.unmodifiableList(enclosures);
+    }
+
+    public List<Interval> getDiscontinuities() {
+        //* Intervals of width at most the tolerance where f(X) is unbounded or f may jump: a pole or
+        //* discontinuity, not a root, unless f happens to vanish there too
+        return Collections.unmodifiableList(discontinuities);
+    }
+
+    public boolean isUnique(int index) {
+        //* Whether enclosure index was proven to hold exactly one root; others may hold several
+        return unique.get(index);
+    }
+
+    public int getIterationCount() {
+        return engine == null ? 0 : engine.getIterations();
+    }
+
+    public RootFindingEngine.Status getStatus() {
+        //* Why the last solve stopped iterating; null if it failed before the first iteration
+        return status;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
+    private void updateDecimalFormat() {
+        int decimalPlaces = Math.max(1, (int) Math.ceil(-Math.log10(tolerance)));
+
+        StringBuilder pattern = new StringBuilder("0");
+        if (decimalPlaces > 0) {
+            pattern.append(".");
+            for (int i = 0; i < decimalPlaces; i++) {
+                pattern.append("0");
+            }
+        }
+
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+        symbols.setDecimalSeparator('.');
+
+        this.decimalFormat = new DecimalFormat(pattern.toString());
+        this.decimalFormat.setDecimalFormatSymbols(symbols);
+    }
+
+    private String formatNumber(double value) {
+        return decimalFormat.format(value);
+    }
+
+    private String formatInterval(double lo, double hi) {
+        return String.format("[%s, %s]", formatNumber(lo), formatNumber(hi));
+    }
+
+    private IntervalEvaluator compile() throws IllegalArgumentException {
+        try {
+            //? Folding constants first keeps exponents like 1/2 exact points
+            return new IntervalEvaluator(Differentiator.simplify(ExpressionCache.getTree(functionExpression, variable)), variable);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+
+    public boolean solve(String function, double a, double b) {
+        return solve(function, a, b, this.tolerance);
+    }
+
+    public boolean solve(String function, double a, double b, double tolerance) {
+        msgSoln.clear();
+        trace.clear();
+        answers.clear();
+        enclosures.clear();
+        unique.clear();
+        discontinuities.clear();
+        this.functionExpression = function;
+        this.engine = null;
+        this.status = null;
+        this.root = Double.NaN;
+        setTolerance(tolerance);
+
+        if (traceSteps()) {
+            trace.note("Using tolerance: " + formatNumber(tolerance));
+            trace.note("Maximum iterations: " + maxIterations);
+        }
+
+        try {
+            if (!(a < b) || Double.isInfinite(a) || Double.isInfinite(b)) {
+                throw new IllegalArgumentException("The interval [a, b] must be finite with a < b.");
+            }
+            this.evaluator = compile();
+            this.engine = new RootFindingEngine(maxIterations, RootFindingEngine.DEFAULT_MAX_EVALUATIONS);
+
+            if (traceSteps()) {
+                trace.note("Searching " + formatInterval(a, b));
+                trace.note("");
+            }
+
+            IntervalNewtonStep step = new IntervalNewtonStep(new Interval(a, b));
+            status = engine.run(step);
+            if (traceAnswers()) {
+                if (status == RootFindingEngine.Status.MAX_ITERATIONS) {
+                    trace.note(String.format("Maximum iterations reached; %d subinterval(s) left unsearched.", step.pending.size()));
+                }
+            }
+            mergeEnclosures(step.found, step.foundUnique, step.foundSingular);
+
+            if (enclosures.isEmpty()) {
+                if (traceAnswers()) {
+                    for (Interval x : discontinuities) {
+                        trace.note("Possible pole or discontinuity in " + formatInterval(x.getLo(), x.getHi()));
+                    }
+                    if (!discontinuities.isEmpty()) {
+                        trace.note("No root enclosed: f(X) only contains 0 where it is unbounded or jumps.");
+                    } else {
+                        trace.note(status == RootFindingEngine.Status.CONVERGED
+                            ? "No root in " + formatInterval(a, b) + ": every subinterval was excluded."
+                            : "No root enclosed before the search stopped.");
+                    }
+                }
+                return false;
+            }
+            root = enclosures.get(0).midpoint();
+
+            if (traceAnswers()) {
+                for (int i = 0; i < enclosures.size(); i++) {
+                    Interval x = enclosures.get(i);
+                    answers.add(String.format("Root %d in %s (%s)", i + 1, formatInterval(x.getLo(), x.getHi()),
+                        unique.get(i) ? "verified unique" : "not verified"));
+                }
+                for (Interval x : discontinuities) {
+                    answers.add("Possible pole or discontinuity in " + formatInterval(x.getLo(), x.getHi()));
+                }
+                answers.add("Root found: " + formatNumber(root));
+                answers.add("Number of iterations: " + getIterationCount());
+                answers.add("Final tolerance: " + formatNumber(tolerance));
+            }
+
+            return true;
+        } catch (IllegalArgumentException e) {
+            if (traceAnswers()) {
+                trace.note("Error: " + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private void mergeEnclosures(List<Interval> found, List<Boolean> foundUnique, List<Boolean> foundSingular) {
+        //? Subintervals share endpoints, so a root on a shared endpoint may be reported twice.
+        //? A root touching a pole or jump cannot be told apart from it and stays a discontinuity.
+        Integer[] order = new Integer[found.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> found.get(i).getLo()));
+        List<Interval> merged = new ArrayList<>();
+        List<Boolean> mergedUnique = new ArrayList<>();
+        List<Boolean> mergedSingular = new ArrayList<>();
+        for (int i : order) {
+            Interval x = found.get(i);
+            int last = merged.size() - 1;
+            if (last >= 0 && x.getLo() <= merged.get(last).getHi()) {
+                merged.set(last, merged.get(last).hull(x));
+                mergedUnique.set(last, false);
+                mergedSingular.set(last, mergedSingular.get(last) || foundSingular.get(i));
+            } else {
+                merged.add(x);
+                mergedUnique.add(foundUnique.get(i));
+                mergedSingular.add(foundSingular.get(i));
+            }
+        }
+        for (int i = 0; i < merged.size(); i++) {
+            if (mergedSingular.get(i)) {
+                discontinuities.add(merged.get(i));
+            } else {
+                enclosures.add(merged.get(i));
+                unique.add(mergedUnique.get(i));
+            }
+        }
+    }
+
+    private class IntervalNewtonStep implements RootFinder {
+        //* Subintervals still to search, leftmost on top, with whether each holds a proven unique root
+        private final Deque<Interval> pending;
+        private final Deque<Boolean> pendingUnique;
+        private final List<Interval> found;
+        private final List<Boolean> foundUnique;
+        //* Whether each found box had an unbounded f(X) or a possible jump
+        private final List<Boolean> foundSingular;
+
+        IntervalNewtonStep(Interval start) {
+            this.pending = new ArrayDeque<>();
+            this.pendingUnique = new ArrayDeque<>();
+            this.found = new ArrayList<>();
+            this.foundUnique = new ArrayList<>();
+            this.foundSingular = new ArrayList<>();
+            pending.push(start);
+            pendingUnique.push(false);
+        }
+
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            Interval x = pending.pop();
+            boolean proven = pendingUnique.pop();
+            int row = -1;
+            if (traceSteps()) {
+                row = trace.addRow();
+                trace.set(row, LO, x.getLo());
+                trace.set(row, HI, x.getHi());
+            }
+
+            Interval fx;
+            try {
+                fx = evaluator.evaluate(x);
+            } catch (ArithmeticException e) {
+                //? f does not exist anywhere on x, so it has no root there
+                record(row, UNDEFINED, x, null);
+                return next();
+            }
+            Interval dfx = evaluator.getDerivative();
+            if (row >= 0) {
+                trace.set(row, F_LO, fx.getLo());
+                trace.set(row, F_HI, fx.getHi());
+            }
+
+            if (!fx.containsZero()) {
+                record(row, DISCARDED, x, null);
+                return next();
+            }
+            if (x.width() <= tolerance) {
+                boolean singular = Double.isInfinite(fx.width()) || !evaluator.isContinuous();
+                found.add(x);
+                foundUnique.add(proven && !singular);
+                foundSingular.add(singular);
+                record(row, singular ? SINGULAR : ENCLOSED, x, null);
+                return next();
+            }
+
+            double m = x.midpoint();
+            Interval fm;
+            try {
+                fm = evaluator.evaluate(m);
+            } catch (ArithmeticException e) {
+                fm = Interval.ENTIRE;
+            }
+
+            //? The mean value form behind N(X) needs f continuous on X; a pole or jump shows up as
+            //? an unbounded f(X), and then X is only bisected
+            boolean bounded = !Double.isInfinite(fx.width()) && !Double.isInfinite(fm.width());
+            if (bounded && !dfx.containsZero()) {
+                //? N(X) = m - f(m)/f'(X); every root in x is also in N(X)
+                Interval n = Interval.point(m).subtract(fm.divide(dfx));
+                Interval contracted = x.intersect(n);
+                if (contracted == null) {
+                    record(row, EXCLUDED, x, null);
+                    return next();
+                }
+                proven = proven || n.isInteriorOf(x);
+                if (contracted.width() <= x.width() / 2) {
+                    record(row, CONTRACTED, contracted, null);
+                    push(contracted, proven);
+                    return next();
+                }
+                //? Slow contraction: halve what is left
+                record(row, BISECTED, contracted, null);
+                bisect(contracted);
+                return next();
+            }
+
+            if (bounded && !fm.containsZero()) {
+                //? f'(X) contains zero: f(m)/f'(X) is two half-lines, N(X) has a gap around m
+                Interval[] pieces = split(x, m, fm, dfx);
+                record(row, SPLIT, pieces[0], pieces[1]);
+                if (pieces[1] != null) {
+                    push(pieces[1], false);
+                }
+                if (pieces[0] != null) {
+                    push(pieces[0], false);
+                }
+                return next();
+            }
+
+            record(row, BISECTED, x, null);
+            bisect(x);
+            return next();
+        }
+
+        private Interval[] split(Interval x, double m, Interval fm, Interval dfx) {
+            /*
+             * Method to apply the extended interval Newton operator
+             * @return The parts of x left of and right of the gap, either null if empty
+             */
+            Interval pm = Interval.point(m);
+            //? For f(m) > 0 the root is where m - x = f(m)/f'(xi): left uses the positive slopes,
+            //? right the negative ones; for f(m) < 0 the roles swap
+            double slopeLeft = fm.getLo() > 0 ? dfx.getHi() : dfx.getLo();
+            double slopeRight = fm.getLo() > 0 ? dfx.getLo() : dfx.getHi();
+            double value = fm.getLo() > 0 ? fm.getLo() : fm.getHi();
+
+            Interval left = null;
+            if (slopeLeft != 0) {
+                double bound = pm.subtract(Interval.point(value).divide(Interval.point(slopeLeft))).getHi();
+                left = x.intersect(new Interval(Double.NEGATIVE_INFINITY, bound));
+            }
+            Interval right = null;
+            if (slopeRight != 0) {
+                double bound = pm.subtract(Interval.point(value).divide(Interval.point(slopeRight))).getLo();
+                right = x.intersect(new Interval(bound, Double.POSITIVE_INFINITY));
+            }
+            return new Interval[] {left, right};
+        }
+
+        private void bisect(Interval x) {
+            double m = x.midpoint();
+            //? Split off an exact root at the midpoint so it is not reported on both sides
+            try {
+                if (evaluator.evaluate(m).containsZero()) {
+                    m = x.getLo() + x.width() * 0.53125;
+                }
+            } catch (ArithmeticException e) {
+                //? Undefined at m: any split point works
+            }
+            push(new Interval(m, x.getHi()), false);
+            push(new Interval(x.getLo(), m), false);
+        }
+
+        private void push(Interval x, boolean proven) {
+            pending.push(x);
+            pendingUnique.push(proven);
+        }
+
+        private RootFindingEngine.Status next() {
+            return pending.isEmpty() ? RootFindingEngine.Status.CONVERGED : RootFindingEngine.Status.RUNNING;
+        }
+
+        private void record(int row, int action, Interval first, Interval second) {
+            if (row < 0) {
+                return;
+            }
+            trace.set(row, ACTION, action);
+            trace.set(row, NEW_LO, first == null ? Double.NaN : first.getLo());
+            trace.set(row, NEW_HI, first == null ? Double.NaN : first.getHi());
+            if (action == SPLIT) {
+                //? The right piece is shown in the F columns, which the split no longer needs
+                trace.set(row, F_LO, second == null ? Double.NaN : second.getLo());
+                trace.set(row, F_HI, second == null ? Double.NaN : second.getHi());
+            }
+        }
+
+        @Override
+        public double getRoot() {
+            for (int i = 0; i < found.size(); i++) {
+                if (!foundSingular.get(i)) {
+                    return found.get(i).midpoint();
+                }
+            }
+            return Double.NaN;
+        }
+    }
+
+    private void renderRow(IterationTrace trace, int row, Consumer<String> out) {
+        double lo = trace.get(row, LO);
+        double hi = trace.get(row, HI);
+        int action = (int) trace.get(row, ACTION);
+        out.accept(String.format("Iteration %d:", row + 1));
+        out.accept(String.format("  X = %s", formatInterval(lo, hi)));
+        if (action == UNDEFINED) {
+            out.accept("  f is undefined on X: discarded");
+            out.accept("");
+            return;
+        }
+        if (action != SPLIT) {
+            out.accept(String.format("  f(X) = %s", formatInterval(trace.get(row, F_LO), trace.get(row, F_HI))));
+        }
+        switch (action) {
+            case DISCARDED:
+                out.accept("  0 is not in f(X): no root, discarded");
+                break;
+            case EXCLUDED:
+                out.accept("  X ∩ N(X) is empty: no root, discarded");
+                break;
+            case CONTRACTED:
+                out.accept(String.format("  X ∩ N(X) = %s", formatInterval(trace.get(row, NEW_LO), trace.get(row, NEW_HI))));
+                break;
+            case SPLIT: {
+                List<String> parts = new ArrayList<>();
+                if (!Double.isNaN(trace.get(row, NEW_LO))) {
+                    parts.add(formatInterval(trace.get(row, NEW_LO), trace.get(row, NEW_HI)));
+                }
+                if (!Double.isNaN(trace.get(row, F_LO))) {
+                    parts.add(formatInterval(trace.get(row, F_LO), trace.get(row, F_HI)));
+                }
+                out.accept("  f'(X) contains 0; X ∩ N(X) = " + (parts.isEmpty() ? "empty" : String.join(" ∪ ", parts)));
+                break;
+            }
+            case BISECTED:
+                out.accept(String.format("  Bisecting %s", formatInterval(trace.get(row, NEW_LO), trace.get(row, NEW_HI))));
+                break;
+            case SINGULAR:
+                out.accept("  Width within tolerance: f(X) is unbounded or jumps, possible pole or discontinuity");
+                break;
+            default:
+                out.accept("  Width within tolerance: root enclosed");
+                break;
+        }
+        out.accept("");
+    }
+
+    public void printSolution(boolean success) {
+        System.out.println(functionExpression);
+        System.out.println(tolerance);
+        System.out.println();
+
+        if (success) {
+            System.out.println("Solution Steps:");
+            for (String step : getSolutionSteps()) {
+                System.out.println(step);
+            }
+
+            System.out.println("\nFinal Answers:");
+            for (String answer : answers) {
+                System.out.println(answer);
+            }
+        } else {
+            System.out.println("Solution failed:");
+            for (String error : getSolutionSteps()) {
+                System.out.println(error);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        // Example usages:
+
+        // 1. The Bisection example, with the root enclosed and proven unique
+        Interval_Newton solver1 = new Interval_Newton();
+        boolean success1 = solver1.solve("x^3 - 4cos(x)", 1.0, 2.0);
+        solver1.printSolution(success1);
+
+        System.out.println("\n--------------------------------\n");
+
+        // 2. Every root of sin(x) on [-10, 10]
+        Interval_Newton solver2 = new Interval_Newton(0.000001);
+        solver2.setTraceLevel(TraceLevel.SUMMARY);
+        boolean success2 = solver2.solve("sin(x)", -10, 10);
+        solver2.printSolution(success2);
+
+        System.out.println("\n--------------------------------\n");
+
+        // 3. No sign change and no root: the whole interval is excluded
+        Interval_Newton solver3 = new Interval_Newton();
+        boolean success3 = solver3.solve("x^2 + 1", -2, 2);
+        solver3.printSolution(success3);
+    }
+}
@@ -4,12 +4,16 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
 
+import include.utils.TraceLevel;
+
 public class Jacobi {
     private double[][] coefficients;
     private double[] constants;
     private List<String> solutionSteps;
     private List<String> answers;
     private List<double[]> iterationValues;
+    private int iterationCount;
+    private TraceLevel traceLevel;
     private static final int MAX_ITERATIONS = 1000;
     private double tolerance;
     private DecimalFormat decimalFormat;
@@ -24,6 +28,7 @@ public class Jacobi {
         this.answers = new ArrayList<>();
         this.iterationValues = new ArrayList<>();
         this.tolerance = tolerance;
+        this.traceLevel = TraceLevel.FULL;
         updateDecimalFormat();
     }
 
@@ -35,6 +40,27 @@ public class Jacobi {
         return answers;
     }
 
+    public int getIterationCount() {
+        return iterationCount;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting and iteration history; solve() still returns the solution
+        this.traceLevel = traceLevel;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
     private void setTolerance(double tolerance) {
         this.tolerance = tolerance;
         updateDecimalFormat();
@@ -168,7 +194,9 @@ public class Jacobi {
                 }
             }
             if (!found) {
-                solutionSteps.add("Warning: Could not make matrix diagonally dominant. Results may not converge.");
+                if (traceAnswers()) {
+                    solutionSteps.add("Warning: Could not make matrix diagonally dominant. Results may not converge.");
+                }
                 return;
             }
         }
@@ -192,9 +220,12 @@ public class Jacobi {
         this.solutionSteps.clear();
         this.answers.clear();
         this.iterationValues.clear();
+        this.iterationCount = 0;
         setTolerance(tolerance);
 
-        printSystem();
+        if (traceSteps()) {
+            printSystem();
+        }
         // makeDiagonallyDominant();
         diagonallyDominant();
 
@@ -208,8 +239,10 @@ public class Jacobi {
         // for (double d : constants) {
         //     System.out.println(d);
         // }
-        solutionSteps.add("\nStarting Jacobi Iteration:");
-        solutionSteps.add("Using tolerance: " + formatNumber(tolerance));
+        if (traceSteps()) {
+            solutionSteps.add("\nStarting Jacobi Iteration:");
+            solutionSteps.add("Using tolerance: " + formatNumber(tolerance));
+        }
 
         int n = this.coefficients.length;
         double[] current = new double[n];
@@ -218,38 +251,37 @@ public class Jacobi {
 
         for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
             System.arraycopy(current, 0, previous, 0, n);
-            solutionSteps.add("\nIteration " + (iteration + 1) + ":");
+            iterationCount = iteration + 1;
+            if (traceSteps()) {
+                solutionSteps.add("\nIteration " + (iteration + 1) + ":");
+            }
 
             double[] next = new double[n];
             for (int i = 0; i < n; i++) {
                 double sum = this.constants[i];
-                StringBuilder formula = new StringBuilder("x" + (i + 1) + " = (" +
-                        formatNumber(constants[i]) + " - (");
-
                 for (int j = 0; j < n; j++) {
                     if (j != i) {
                         sum -= this.coefficients[i][j] * previous[j];
-                        formula.append(formatNumber(this.coefficients[i][j]))
-                                .append("*x").append(j + 1)
-                                .append(" [").append(formatNumber(previous[j])).append("]");
-
-                        if (j < n - 1 && j != i - 1) {
-                            formula.append(" + ");
-                        }
                     }
                 }
-
-                formula.append(")) / ").append(formatNumber(this.coefficients[i][i]));
                 next[i] = sum / this.coefficients[i][i];
-                formula.append(" = ").append(formatNumber(next[i]));
-                solutionSteps.add(formula.toString());
+                if (traceSteps()) {
+                    solutionSteps.add(formatUpdate(i, constants[i], previous, next[i]));
+                }
             }
 
             current = next;
-            iterationValues.add(Arrays.copyOf(current, current.length));
-            solutionSteps.add(formatIteration(iteration, current));
+            if (traceAnswers()) {
+                iterationValues.add(Arrays.copyOf(current, current.length));
+            }
+            if (traceSteps()) {
+                solutionSteps.add(formatIteration(iteration, current));
+            }
 
             if (hasConverged(current, previous)) {
+                if (!traceAnswers()) {
+                    return current;
+                }
                 answers.add("Solution converged after " + (iteration + 1) + " iterations");
                 answers.add("Final tolerance: " + formatNumber(tolerance));
 
@@ -262,7 +294,9 @@ public class Jacobi {
             }
         }
 
-        answers.add("Warning: Maximum iterations (" + MAX_ITERATIONS + ") reached without convergence");
+        if (traceAnswers()) {
+            answers.add("Warning: Maximum iterations (" + MAX_ITERATIONS + ") reached without convergence");
+        }
         return current;
     }
 
@@ -275,6 +309,28 @@ public class Jacobi {
         return true;
     }
 
+    private String formatUpdate(int i, double constant, double[] values, double result) {
+        int n = values.length;
+        StringBuilder formula = new StringBuilder("x" + (i + 1) + " = (" +
+                formatNumber(constant) + " - (");
+
+        for (int j = 0; j < n; j++) {
+            if (j != i) {
+                formula.append(formatNumber(this.coefficients[i][j]))
+                        .append("*x").append(j + 1)
+                        .append(" [").append(formatNumber(values[j])).append("]");
+
+                if (j < n - 1 && j != i - 1) {
+                    formula.append(" + ");
+                }
+            }
+        }
+
+        formula.append(")) / ").append(formatNumber(this.coefficients[i][i]));
+        formula.append(" = ").append(formatNumber(result));
+        return formula.toString();
+    }
+
     private String formatIteration(int iteration, double[] values) {
         StringBuilder sb = new StringBuilder();
         sb.append(String.format("Values: ["));
@@ -3,19 +3,68 @@ package include;
 import java.util.*;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
+import java.util.function.Consumer;
+
+import include.utils.CompiledFunction;
+import include.utils.ConvergenceMonitor;
+import include.utils.DerivativeMode;
+import include.utils.DualEvaluator;
+import include.utils.ExpressionBackend;
+import include.utils.ExpressionCache;
+import include.utils.IterationTrace;
+import include.utils.Polynomial;
+import include.utils.RootFinder;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
 
 public class Newton_Raphson {
+    //* Columns of the iteration trace
+    private static final int X = 0;
+    private static final int FX = 1;
+    private static final int DFX = 2;
+    private static final int X_NEW = 3;
+    private static final int COMPLETE = 4;
+    private static final int KIND = 5;
+    private static final int BRACKET_LO = 6;
+    private static final int BRACKET_HI = 7;
+
+    //* Values of the KIND column: the Newton step taken, or why a bisection step replaced it
+    private static final int NEWTON_STEP = 0;
+    private static final int LEFT_BRACKET = 1;
+    private static final int SLOW_DECREASE = 2;
+    private static final int FLAT_DERIVATIVE = 3;
+
+    //* A safeguarded Newton step must at least halve |f| to be followed by another one
+    private static final double SUFFICIENT_DECREASE = 0.5;
+
+    //* Outward doublings tried when looking for a sign change around a stalled iterate
+    private static final int MAX_BRACKET_EXPANSIONS = 40;
+
     private List<String> msgSoln;
     private List<String> answers;
     private Queue<Double> iterationValues;
     private String functionExpression;
+    private CompiledFunction function;
+    private CompiledFunction derivativeFunction;
+    private DualEvaluator dualEvaluator;
+    private CompiledFunction hornerEvaluator;
+    private final double[] hornerDerivative = new double[1];
+    private String derivativeExpression;
+    private ExpressionBackend backend;
+    private RootFindingEngine engine;
+    private final IterationTrace trace;
+    private RootFindingEngine.Status status;
+    private TraceLevel traceLevel;
+    private double root;
+    private DerivativeMode derivativeMode;
     private double tolerance;
     private DecimalFormat decimalFormat;
     private DecimalFormat fixedFormat;
     private int maxIterations;
+    private int maxEvaluations;
     private double derivativeStepSize;
+    private boolean safeguarded;
+    private int bisectionSteps;
     private String variable;
 
     // Default constructor with default variable "x"
@@ -46,6 +95,7 @@ public class Newton_Raphson {
     // Full constructor with all parameters
     public Newton_Raphson(double tolerance, int maxIterations, double derivativeStepSize, String var) {
         this.msgSoln = new LinkedList<>();
+        this.trace = new IterationTrace(8);
         this.answers = new LinkedList<>();
         this.iterationValues = new LinkedList<>();
         this.fixedFormat = new DecimalFormat("0.000");
@@ -56,12 +106,18 @@ public class Newton_Raphson {
         this.maxIterations = maxIterations;
         this.derivativeStepSize = derivativeStepSize;
         this.variable = var;
+        this.backend = ExpressionBackend.BYTECODE;
+        this.maxEvaluations = RootFindingEngine.DEFAULT_MAX_EVALUATIONS;
+        this.traceLevel = TraceLevel.FULL;
+        this.root = Double.NaN;
+        this.derivativeMode = DerivativeMode.SYMBOLIC;
     }
 
     // [Rest of the methods remain exactly the same as in the previous implementation]
     // Only the constructors have been modified to match the Fixed_Point pattern
 
     public List<String> getSolutionSteps() {
+        renderTrace();
         return msgSoln;
     }
 
@@ -73,15 +129,104 @@ public class Newton_Raphson {
         return iterationValues;
     }
 
+    private void renderTrace() {
+        //? Steps are recorded as numbers during the solve and only formatted on first access
+        if (trace.isPending()) {
+            msgSoln.clear();
+            trace.render(this::renderRow, msgSoln::add);
+        }
+    }
+
     public double getTolerance() {
         return tolerance;
     }
 
     public void setTolerance(double tolerance) {
+        //? Render a pending trace with the format it was recorded under
+        renderTrace();
         this.tolerance = tolerance;
         updateDecimalFormat();
     }
 
+    public ExpressionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExpressionBackend backend) {
+        //? BYTECODE compiles the function to JVM code; EXP4J keeps the interpreter
+        this.backend = backend;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public void setMaxEvaluations(int maxEvaluations) {
+        //? Hard cap on function evaluations per solve, checked between iterations
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getRoot()
+        this.traceLevel = traceLevel;
+    }
+
+    public double getRoot() {
+        //* NaN until a solve succeeds
+        return root;
+    }
+
+    public int getIterationCount() {
+        return engine == null ? 0 : engine.getIterations();
+    }
+
+    public int getEvaluationCount() {
+        //* Function evaluations actually performed by the last solve; repeated points are memoized
+        return engine == null ? 0 : engine.getEvaluations();
+    }
+
+    public RootFindingEngine.Status getStatus() {
+        //* Why the last solve stopped iterating; null if it failed before the first iteration
+        return status;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
+    public DerivativeMode getDerivativeMode() {
+        return derivativeMode;
+    }
+
+    public void setDerivativeMode(DerivativeMode derivativeMode) {
+        //? SYMBOLIC costs one f and one f' evaluation per step; FINITE_DIFFERENCE costs three f evaluations;
+        //? AUTOMATIC gets f and f' together from one dual-number pass
+        this.derivativeMode = derivativeMode;
+    }
+
+    public boolean isSafeguarded() {
+        return safeguarded;
+    }
+
+    public void setSafeguarded(boolean safeguarded) {
+        //? true keeps a sign-change bracket once one is seen (or searched for when Newton stalls) and
+        //? replaces any Newton step that leaves it or fails to halve |f| with a bisection step
+        this.safeguarded = safeguarded;
+    }
+
+    public int getBisectionStepCount() {
+        //* Newton steps the safeguard replaced with bisection in the last solve
+        return bisectionSteps;
+    }
+
     private void updateDecimalFormat() {
         int decimalPlaces = Math.max(1, (int) Math.ceil(-Math.log10(tolerance)));
         
@@ -115,20 +260,102 @@ public class Newton_Raphson {
         return functionExpression.replaceAll(variable, formatFixed(x));
     }
     
+    private CompiledFunction compile() throws IllegalArgumentException {
+        try {
+            return ExpressionCache.getFunction(functionExpression, variable, backend);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+    
     private double f(double x) throws IllegalArgumentException {
         try {
-            Expression e = new ExpressionBuilder(functionExpression)
-                .variables(variable)
-                .build()
-                .setVariable(variable, x);
-            return e.evaluate();
+            return engine.evaluate(x);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+
+    private double iterate(RootFinder finder) {
+        status = engine.run(finder);
+        if (traceAnswers()) {
+            if (status == RootFindingEngine.Status.MAX_ITERATIONS) {
+                trace.note("Maximum iterations reached without convergence.");
+            } else if (status == RootFindingEngine.Status.MAX_EVALUATIONS) {
+                trace.note("Maximum function evaluations reached without convergence.");
+            } else if (engine.getStopReason() != null) {
+                trace.note("Stopped early: " + engine.getStopReason() + ".");
+            }
+        }
+        return finder.getRoot();
+    }
+
+    private CompiledFunction createHornerEvaluator() {
+        //? Polynomials get p and p' from one Horner pass whenever an exact derivative is asked for
+        if (!(function instanceof Polynomial) || derivativeMode == DerivativeMode.FINITE_DIFFERENCE) {
+            return null;
+        }
+        Polynomial polynomial = (Polynomial) function;
+        return x -> polynomial.evaluate(x, hornerDerivative);
+    }
+
+    private CompiledFunction compileDerivative() {
+        //? Expressions the differentiator cannot handle fall back to central differences
+        if (derivativeMode != DerivativeMode.SYMBOLIC) {
+            return null;
+        }
+        if (hornerEvaluator != null) {
+            //* Only the derivative's text is needed, for the trace
+            if (traceSteps()) {
+                derivativeExpression = ExpressionCache.getDerivativeTree(functionExpression, variable).toString();
+            }
+            return null;
+        }
+        try {
+            if (traceSteps()) {
+                derivativeExpression = ExpressionCache.getDerivativeTree(functionExpression, variable).toString();
+            }
+            return ExpressionCache.getDerivative(functionExpression, variable);
+        } catch (IllegalArgumentException e) {
+            if (traceAnswers()) {
+                trace.note("Symbolic derivative unavailable (" + e.getMessage() + "), using central differences.");
+            }
+            return null;
+        }
+    }
+
+    private DualEvaluator createDualEvaluator() {
+        //? Expressions the parser cannot handle fall back to central differences
+        if (derivativeMode != DerivativeMode.AUTOMATIC) {
+            return null;
+        }
+        try {
+            return new DualEvaluator(ExpressionCache.getTree(functionExpression, variable), variable);
+        } catch (IllegalArgumentException e) {
+            if (traceAnswers()) {
+                trace.note("Automatic derivative unavailable (" + e.getMessage() + "), using central differences.");
+            }
+            return null;
+        }
+    }
+
+    private double dual(double x) throws IllegalArgumentException {
+        try {
+            return engine.evaluate(dualEvaluator, x);
         } catch (Exception e) {
             throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
         }
     }
 
+    private double horner(double x) {
+        return engine.evaluate(hornerEvaluator, x);
+    }
+
     private double derivative(double x) throws IllegalArgumentException {
         try {
+            if (derivativeFunction != null) {
+                return engine.evaluate(derivativeFunction, x);
+            }
             double fxh = f(x + derivativeStepSize);
             double fx = f(x - derivativeStepSize);
             return (fxh - fx) / (2 * derivativeStepSize);
@@ -142,66 +369,357 @@ public class Newton_Raphson {
     }
 
     public boolean solve(String function, double initialGuess, double tolerance) {
+        return solve(function, initialGuess, Double.NaN, tolerance);
+    }
+
+    public boolean solveBracketed(String function, double a, double b) {
+        return solveBracketed(function, a, b, this.tolerance);
+    }
+
+    public boolean solveBracketed(String function, double a, double b, double tolerance) {
+        /*
+         * Method for safeguarded Newton-Raphson inside a known bracket, whatever setSafeguarded says
+         * @param a One end of the bracket
+         * @param b The other end; f(a) and f(b) must have opposite signs
+         * @return true if a root was found
+         */
+        return solve(function, a, b, tolerance);
+    }
+
+    private boolean solve(String function, double start, double end, double tolerance) {
+        //? end is NaN for a plain start point, otherwise [start, end] is the caller's bracket
+        boolean bracketed = !Double.isNaN(end);
         msgSoln.clear();
+        trace.clear();
         answers.clear();
         iterationValues.clear();
         this.functionExpression = function;
+        this.engine = null;
+        this.status = null;
+        this.root = Double.NaN;
+        this.bisectionSteps = 0;
         setTolerance(tolerance);
 
-        msgSoln.add("Using tolerance: " + formatNumber(tolerance));
-        msgSoln.add("Maximum iterations: " + maxIterations);
-        msgSoln.add("Derivative step size: " + derivativeStepSize);
+        if (traceSteps()) {
+            trace.note("Using tolerance: " + formatNumber(tolerance));
+            trace.note("Maximum iterations: " + maxIterations);
+        }
         
         try {
-            msgSoln.add("Starting Newton-Raphson method with initial guess: " + formatNumber(initialGuess));
-            msgSoln.add("");
+            this.function = compile();
+            this.engine = new RootFindingEngine(maxIterations, maxEvaluations, this.function);
+            this.hornerEvaluator = createHornerEvaluator();
+            this.derivativeFunction = compileDerivative();
+            this.dualEvaluator = hornerEvaluator == null ? createDualEvaluator() : null;
+            if (traceSteps()) {
+                if (derivativeFunction != null || (hornerEvaluator != null && derivativeMode == DerivativeMode.SYMBOLIC)) {
+                    trace.note("Derivative: f'(" + variable + ") = " + derivativeExpression);
+                } else if (hornerEvaluator != null) {
+                    trace.note("Derivative: Horner's scheme on the polynomial coefficients");
+                } else if (dualEvaluator != null) {
+                    trace.note("Derivative: automatic differentiation (dual numbers)");
+                } else {
+                    trace.note("Derivative step size: " + derivativeStepSize);
+                }
+            }
+
+            NewtonStep step;
+            if (bracketed) {
+                double lo = Math.min(start, end);
+                double hi = Math.max(start, end);
+                double flo = f(lo);
+                double fhi = f(hi);
+                if (traceSteps()) {
+                    trace.note(String.format("f(%s) = %s, f(%s) = %s",
+                        formatNumber(lo), formatNumber(flo), formatNumber(hi), formatNumber(fhi)));
+                }
+                if (flo * fhi > 0) {
+                    if (traceAnswers()) {
+                        trace.note("Safeguarded Newton-Raphson cannot start. f(a) and f(b) must have opposite signs.");
+                    }
+                    return false;
+                }
+                step = new NewtonStep(lo, hi, flo);
+                if (traceSteps()) {
+                    trace.note("Starting safeguarded Newton-Raphson method from the midpoint of [" 
+                        + formatNumber(lo) + ", " + formatNumber(hi) + "]");
+                    trace.note("");
+                }
+            } else {
+                step = new NewtonStep(start, safeguarded);
+                if (traceSteps()) {
+                    trace.note("Starting " + (safeguarded ? "safeguarded " : "") 
+                        + "Newton-Raphson method with initial guess: " + formatNumber(start));
+                    trace.note("");
+                }
+            }
 
-            double root = newtonRaphsonRecursive(initialGuess, 1);
+            if (!step.safeguarded) {
+                //? A safeguarded step stays inside its bracket, so only plain Newton is watched
+                engine.setMonitor(new ConvergenceMonitor(tolerance));
+            }
+            root = iterate(step);
+            if (engine.getStopReason() != null) {
+                root = Double.NaN;
+                return false;
+            }
 
-            answers.add("Root found: " + formatNumber(root));
-            answers.add("Number of iterations: " + iterationValues.size());
-            answers.add("Final tolerance: " + formatNumber(tolerance));
+            if (traceAnswers()) {
+                answers.add("Root found: " + formatNumber(root));
+                answers.add("Number of iterations: " + iterationValues.size());
+                if (step.safeguarded) {
+                    answers.add("Bisection steps: " + bisectionSteps);
+                }
+                answers.add("Final tolerance: " + formatNumber(tolerance));
+            }
             
             return true;
         } catch (IllegalArgumentException e) {
-            msgSoln.add("Error: " + e.getMessage());
+            if (traceAnswers()) {
+                trace.note("Error: " + e.getMessage());
+            }
             return false;
         }
     }
     
-    private double newtonRaphsonRecursive(double x, int iteration) {
-        if (iteration > maxIterations) {
-            msgSoln.add("Maximum iterations reached without convergence.");
-            return x;
+    private class NewtonStep implements RootFinder {
+        private double x;
+
+        //* Safeguard state: [lo, hi] brackets a sign change once bracketed is set
+        private final boolean safeguarded;
+        private boolean bracketed;
+        private double lo;
+        private double hi;
+        private double flo;
+        private double previousX;
+        private double previousF;
+        private boolean previousWasNewton;
+
+        NewtonStep(double initialGuess, boolean safeguarded) {
+            this.x = initialGuess;
+            this.safeguarded = safeguarded;
+            this.previousF = Double.NaN;
         }
 
-        double fx = f(x);
-        double dfx = derivative(x);
-        iterationValues.add(x);
+        NewtonStep(double lo, double hi, double flo) {
+            this(lo + (hi - lo) / 2, true);
+            this.bracketed = true;
+            this.lo = lo;
+            this.hi = hi;
+            this.flo = flo;
+        }
 
-        msgSoln.add(String.format("Iteration %d:", iteration));
-        msgSoln.add(String.format("  x%d = %s", iteration, formatNumber(x)));
-        msgSoln.add(String.format("  f(x%d) = %s = %s", 
-            iteration, getFunctionEvaluationString(x), formatNumber(fx)));
-        msgSoln.add(String.format("  f'(x%d) = [f(x+h)-f(x-h)]/(2h) = %s", 
-            iteration, formatNumber(dfx)));
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            double fx;
+            double dfx;
+            if (hornerEvaluator != null) {
+                fx = horner(x);
+                dfx = hornerDerivative[0];
+            } else if (dualEvaluator != null) {
+                fx = dual(x);
+                dfx = dualEvaluator.getFirstDerivative();
+            } else {
+                fx = f(x);
+                dfx = derivative(x);
+            }
+            iterationValues.add(x);
+
+            if (traceSteps()) {
+                //? A row stays incomplete if the step stops on a vanishing derivative
+                int row = trace.addRow();
+                trace.set(row, X, x);
+                trace.set(row, FX, fx);
+                trace.set(row, DFX, dfx);
+                trace.set(row, COMPLETE, 0);
+                trace.set(row, KIND, NEWTON_STEP);
+                trace.set(row, BRACKET_LO, Double.NaN);
+            }
 
-        if (Math.abs(dfx) < 1e-10) {
-            msgSoln.add("Error: Derivative too small (near zero), division by zero risk.");
-            return x;
+            if (safeguarded) {
+                return safeguardedStep(fx, dfx);
+            }
+
+            if (Math.abs(dfx) < 1e-10) {
+                if (traceAnswers()) {
+                    trace.note("Error: Derivative too small (near zero), division by zero risk.");
+                }
+                return RootFindingEngine.Status.STOPPED;
+            }
+
+            double xNew = x - fx / dfx;
+            if (traceSteps()) {
+                int row = trace.getRowCount() - 1;
+                trace.set(row, X_NEW, xNew);
+                trace.set(row, COMPLETE, 1);
+            }
+
+            boolean converged = Math.abs(xNew - x) < tolerance;
+            x = xNew;
+            if (converged) {
+                if (traceSteps()) {
+                    trace.note("Convergence achieved!");
+                }
+                return RootFindingEngine.Status.CONVERGED;
+            }
+            return RootFindingEngine.Status.RUNNING;
         }
 
-        double xNew = x - fx / dfx;
-        msgSoln.add(String.format("  x%d = x - f(x)/f'(x) = %s - (%s)/(%s) = %s", 
-            iteration+1, formatNumber(x), formatNumber(fx), formatNumber(dfx), formatNumber(xNew)));
-        msgSoln.add("");
+        private RootFindingEngine.Status safeguardedStep(double fx, double dfx) {
+            if (fx == 0) {
+                recordStep(NEWTON_STEP, x);
+                if (traceSteps()) {
+                    trace.note("Convergence achieved!");
+                }
+                return RootFindingEngine.Status.CONVERGED;
+            }
+
+            //? Shrink the bracket to x, or open one at the first sign change between iterates
+            if (bracketed) {
+                if (Math.signum(fx) == Math.signum(flo)) {
+                    lo = x;
+                    flo = fx;
+                } else {
+                    hi = x;
+                }
+            } else if (!Double.isNaN(previousF) && Math.signum(fx) != Math.signum(previousF)) {
+                bracketed = true;
+                lo = Math.min(x, previousX);
+                hi = Math.max(x, previousX);
+                flo = lo == x ? fx : previousF;
+            }
 
-        if (Math.abs(xNew - x) < tolerance) {
-            msgSoln.add("Convergence achieved!");
-            return xNew;
+            double xNew = x - fx / dfx;
+            boolean usable = Math.abs(dfx) >= 1e-10 && Double.isFinite(xNew);
+            boolean slow = previousWasNewton && Math.abs(fx) > SUFFICIENT_DECREASE * Math.abs(previousF);
+            if (!bracketed && (!usable || slow)) {
+                searchBracket(fx);
+            }
+
+            int kind = NEWTON_STEP;
+            if (!bracketed) {
+                //? Stop instead of letting a stalled iteration run out the budget
+                if (!usable) {
+                    if (traceAnswers()) {
+                        trace.note("Error: Derivative too small (near zero) and no sign change found around x.");
+                    }
+                    return RootFindingEngine.Status.STOPPED;
+                }
+                if (slow) {
+                    if (traceAnswers()) {
+                        trace.note("Error: Newton steps stopped reducing |f| and no sign change found around x.");
+                    }
+                    return RootFindingEngine.Status.STOPPED;
+                }
+            } else if (!usable) {
+                kind = FLAT_DERIVATIVE;
+            } else if (!(xNew > lo && xNew < hi)) {
+                kind = LEFT_BRACKET;
+            } else if (slow) {
+                kind = SLOW_DECREASE;
+            }
+
+            boolean converged;
+            if (kind == NEWTON_STEP) {
+                converged = Math.abs(xNew - x) < tolerance;
+            } else {
+                //? Bisection's own test: the bracket half-width
+                bisectionSteps++;
+                xNew = lo + (hi - lo) / 2;
+                converged = (hi - lo) / 2 < tolerance;
+            }
+            recordStep(kind, xNew);
+
+            previousX = x;
+            previousF = fx;
+            previousWasNewton = kind == NEWTON_STEP;
+            x = xNew;
+            if (converged) {
+                if (traceSteps()) {
+                    trace.note("Convergence achieved!");
+                }
+                return RootFindingEngine.Status.CONVERGED;
+            }
+            return RootFindingEngine.Status.RUNNING;
+        }
+
+        private void searchBracket(double fx) {
+            //? Widen [x - h, x + h] by doubling until f changes sign against f(x)
+            double h = 0.01 * Math.max(1, Math.abs(x));
+            for (int k = 0; k < MAX_BRACKET_EXPANSIONS && Double.isFinite(h); k++, h *= 2) {
+                double a = x - h;
+                double fa = f(a);
+                if (Double.isFinite(fa) && Math.signum(fa) != Math.signum(fx)) {
+                    bracketed = true;
+                    lo = a;
+                    hi = x;
+                    flo = fa;
+                    return;
+                }
+                double b = x + h;
+                double fb = f(b);
+                if (Double.isFinite(fb) && Math.signum(fb) != Math.signum(fx)) {
+                    bracketed = true;
+                    lo = x;
+                    hi = b;
+                    flo = fx;
+                    return;
+                }
+            }
         }
 
-        return newtonRaphsonRecursive(xNew, iteration + 1);
+        private void recordStep(int kind, double xNew) {
+            if (traceSteps()) {
+                int row = trace.getRowCount() - 1;
+                trace.set(row, X_NEW, xNew);
+                trace.set(row, COMPLETE, 1);
+                trace.set(row, KIND, kind);
+                trace.set(row, BRACKET_LO, bracketed ? lo : Double.NaN);
+                trace.set(row, BRACKET_HI, hi);
+            }
+        }
+
+        @Override
+        public double getRoot() {
+            return x;
+        }
+    }
+    
+    private void renderRow(IterationTrace trace, int row, Consumer<String> out) {
+        int iteration = row + 1;
+        double x = trace.get(row, X);
+        double fx = trace.get(row, FX);
+        double dfx = trace.get(row, DFX);
+        out.accept(String.format("Iteration %d:", iteration));
+        out.accept(String.format("  x%d = %s", iteration, formatNumber(x)));
+        out.accept(String.format("  f(x%d) = %s = %s", 
+            iteration, getFunctionEvaluationString(x), formatNumber(fx)));
+        if (derivativeFunction != null || dualEvaluator != null || hornerEvaluator != null) {
+            out.accept(String.format("  f'(x%d) = %s", iteration, formatNumber(dfx)));
+        } else {
+            out.accept(String.format("  f'(x%d) = [f(x+h)-f(x-h)]/(2h) = %s", 
+                iteration, formatNumber(dfx)));
+        }
+        if (trace.get(row, COMPLETE) != 0) {
+            double lo = trace.get(row, BRACKET_LO);
+            double hi = trace.get(row, BRACKET_HI);
+            if (!Double.isNaN(lo)) {
+                out.accept(String.format("  Bracket: [%s, %s]", formatNumber(lo), formatNumber(hi)));
+            }
+            int kind = (int) trace.get(row, KIND);
+            if (kind == NEWTON_STEP) {
+                out.accept(String.format("  x%d = x - f(x)/f'(x) = %s - (%s)/(%s) = %s", 
+                    iteration+1, formatNumber(x), formatNumber(fx), formatNumber(dfx), formatNumber(trace.get(row, X_NEW))));
+            } else {
+                String reason = kind == LEFT_BRACKET ? "it leaves the bracket"
+                    : kind == SLOW_DECREASE ? "the last one did not halve |f|"
+                    : "the derivative is near zero";
+                out.accept("  Newton step rejected: " + reason);
+                out.accept(String.format("  x%d = (a + b)/2 = (%s + %s)/2 = %s",
+                    iteration+1, formatNumber(lo), formatNumber(hi), formatNumber(trace.get(row, X_NEW))));
+            }
+            out.accept("");
+        }
     }
     
     public void printSolution(boolean success) {
@@ -211,7 +729,7 @@ public class Newton_Raphson {
 
         if (success) {
             System.out.println("Solution Steps:");
-            for (String step : msgSoln) {
+            for (String step : getSolutionSteps()) {
                 System.out.println(step);
             }
             
@@ -221,7 +739,7 @@ public class Newton_Raphson {
             }
         } else {
             System.out.println("Solution failed:");
-            for (String error : msgSoln) {
+            for (String error : getSolutionSteps()) {
                 System.out.println(error);
             }
         }
@@ -255,5 +773,13 @@ public class Newton_Raphson {
         Newton_Raphson solver4 = new Newton_Raphson(0.00001, 50);
         boolean success4 = solver4.solve("x^3 - x - 1", 1.5);
         solver4.printSolution(success4);
+
+        System.out.println("\n--------------------------------\n");
+
+        // 5. A start where plain Newton cycles between 0 and 1; the safeguard brackets the root instead
+        Newton_Raphson solver5 = new Newton_Raphson();
+        solver5.setSafeguarded(true);
+        boolean success5 = solver5.solve("x^3 - 2*x + 2", 0);
+        solver5.printSolution(success5);
     }
 }
\ No newline at end of file
@@ -0,0 +1,310 @@
+package include;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import include.utils.DualEvaluator;
+import include.utils.ExpressionNode;
+import include.utils.ExpressionParser;
+import include.utils.RootFindingEngine;
+
+public class ParameterSweep {
+    //? Solves f(x; p) = 0 for every p on a grid. The expression is parsed once; each worker
+    //? flattens it into its own DualEvaluator, which yields f and df/dx in one pass with the
+    //? parameter bound as a constant. The grid is split into contiguous segments, one task
+    //? each, and inside a segment every solve starts from the previous root (or a linear
+    //? extrapolation of the last two), so a smooth root curve costs a couple of iterations
+    //? per point. Each segment's first point starts from the caller's initial guess.
+
+    public enum Method {
+        //? x - f/f' with the exact derivative from the dual evaluator
+        NEWTON_RAPHSON,
+
+        //? Derivative-free; the second start point is offset from the warm start
+        SECANT
+    }
+
+    private double tolerance;
+    private int maxIterations;
+    private Method method;
+    private boolean extrapolate;
+    private int segmentCount;
+    private ForkJoinPool pool;
+    private String variable;
+    private String parameter;
+
+    public ParameterSweep(String parameter) {
+        this(0.0001, "x", parameter);
+    }
+
+    public ParameterSweep(double tolerance, String var, String parameter) {
+        this.tolerance = tolerance;
+        this.variable = var;
+        this.parameter = parameter;
+        this.maxIterations = 1000;
+        this.method = Method.NEWTON_RAPHSON;
+        this.extrapolate = true;
+        this.segmentCount = Runtime.getRuntime().availableProcessors();
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public void setMethod(Method method) {
+        this.method = method;
+    }
+
+    public boolean isExtrapolate() {
+        return extrapolate;
+    }
+
+    public void setExtrapolate(boolean extrapolate) {
+        //? true starts from 2*r(i-1) - r(i-2) when both neighbours converged; false from r(i-1)
+        this.extrapolate = extrapolate;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public void setSegmentCount(int segmentCount) {
+        //? More segments run in parallel but mean more cold starts from the initial guess
+        if (segmentCount < 1) {
+            throw new IllegalArgumentException("Segment count must be at least 1.");
+        }
+        this.segmentCount = segmentCount;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public double[] sweep(String function, double from, double to, int count, double initialGuess,
+            RootFindingEngine.Status[] status) {
+        /*
+         * Method to solve over an evenly spaced parameter range
+         * @param function The expression in the variable and the parameter, e.g. "x^3 - p"
+         * @param from First parameter value
+         * @param to Last parameter value
+         * @param count Number of grid points, including both ends
+         * @param initialGuess Start point of each segment's first solve
+         * @param status Receives why each solve stopped (CONVERGED on success); at least count long
+         * @return The roots; NaN where the solve did not converge
+         */
+        if (count < 1) {
+            throw new IllegalArgumentException("Parameter count must be at least 1.");
+        }
+        double[] parameters = new double[count];
+        double step = count == 1 ? 0 : (to - from) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            parameters[i] = from + i * step;
+        }
+        if (count > 1) {
+            parameters[count - 1] = to;
+        }
+        double[] roots = new double[count];
+        sweep(function, parameters, initialGuess, roots, status);
+        return roots;
+    }
+
+    public void sweep(String function, double[] parameters, double initialGuess, double[] roots,
+            RootFindingEngine.Status[] status) {
+        /*
+         * Method to solve for every value in a parameter array, in place
+         * @param parameters Parameter values, ideally ordered so neighbouring roots are close
+         * @param roots Receives the root for parameters[i] at index i; NaN if not converged
+         * @param status Receives why each solve stopped
+         * @throws IllegalArgumentException if the expression cannot be parsed or the arrays are too short
+         */
+        if (roots.length < parameters.length || status.length < parameters.length) {
+            throw new IllegalArgumentException("Output arrays are shorter than the parameter array.");
+        }
+        ExpressionNode tree;
+        try {
+            tree = ExpressionParser.parse(function, variable, parameter);
+            //? Fail here, on the caller's thread, rather than once per segment
+            new DualEvaluator(tree, variable, parameter);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+
+        int n = parameters.length;
+        int segments = Math.max(1, Math.min(segmentCount, n));
+        List<Segment> tasks = new ArrayList<>(segments);
+        for (int s = 0; s < segments; s++) {
+            int start = (int) ((long) n * s / segments);
+            int end = (int) ((long) n * (s + 1) / segments);
+            tasks.add(new Segment(tree, parameters, initialGuess, roots, status, start, end));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+    }
+
+    private class Segment extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ExpressionNode tree;
+        private final double[] parameters;
+        private final double initialGuess;
+        private final double[] roots;
+        private final RootFindingEngine.Status[] status;
+        private final int start;
+        private final int end;
+        private DualEvaluator evaluator;
+
+        //* Estimate left by the last newton() or secant() call
+        private double root;
+
+        Segment(ExpressionNode tree, double[] parameters, double initialGuess, double[] roots,
+                RootFindingEngine.Status[] status, int start, int end) {
+            this.tree = tree;
+            this.parameters = parameters;
+            this.initialGuess = initialGuess;
+            this.roots = roots;
+            this.status = status;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            evaluator = new DualEvaluator(tree, variable, parameter);
+            //* Roots of the last two converged points, for warm starts
+            double previous = Double.NaN;
+            double beforePrevious = Double.NaN;
+            for (int i = start; i < end; i++) {
+                double guess;
+                if (Double.isNaN(previous)) {
+                    guess = initialGuess;
+                } else if (extrapolate && !Double.isNaN(beforePrevious)) {
+                    guess = 2 * previous - beforePrevious;
+                } else {
+                    guess = previous;
+                }
+
+                evaluator.setParameter(parameters[i]);
+                RootFindingEngine.Status result;
+                try {
+                    result = method == Method.SECANT ? secant(guess, previous) : newton(guess);
+                } catch (ArithmeticException e) {
+                    result = RootFindingEngine.Status.STOPPED;
+                }
+                status[i] = result;
+
+                if (result == RootFindingEngine.Status.CONVERGED) {
+                    roots[i] = root;
+                    beforePrevious = previous;
+                    previous = root;
+                } else {
+                    //? Restart the continuation after a failure instead of extrapolating from it
+                    roots[i] = Double.NaN;
+                    previous = Double.NaN;
+                    beforePrevious = Double.NaN;
+                }
+            }
+        }
+
+        private RootFindingEngine.Status newton(double x) {
+            //? Same steps and stopping rules as Newton_Raphson, without the trace
+            for (int iteration = 0; iteration < maxIterations; iteration++) {
+                double fx = evaluator.evaluate(x);
+                double dfx = evaluator.getFirstDerivative();
+                if (Math.abs(dfx) < 1e-10 || !Double.isFinite(fx)) {
+                    root = x;
+                    return RootFindingEngine.Status.STOPPED;
+                }
+                double xNew = x - fx / dfx;
+                if (Math.abs(xNew - x) < tolerance) {
+                    root = xNew;
+                    return RootFindingEngine.Status.CONVERGED;
+                }
+                x = xNew;
+            }
+            root = x;
+            return RootFindingEngine.Status.MAX_ITERATIONS;
+        }
+
+        private RootFindingEngine.Status secant(double x1, double previous) {
+            //? Second start point: the previous root if it differs, else a small relative offset
+            double x0 = !Double.isNaN(previous) && previous != x1
+                ? previous
+                : x1 + 1e-4 * Math.max(1, Math.abs(x1));
+            double f0 = evaluator.evaluate(x0);
+            double f1 = evaluator.evaluate(x1);
+            for (int iteration = 0; iteration < maxIterations; iteration++) {
+                if (f1 - f0 == 0 || !Double.isFinite(f1)) {
+                    root = x1;
+                    return RootFindingEngine.Status.STOPPED;
+                }
+                double x2 = x1 - f1 * (x1 - x0) / (f1 - f0);
+                if (Math.abs(x2 - x1) < tolerance) {
+                    root = x2;
+                    return RootFindingEngine.Status.CONVERGED;
+                }
+                x0 = x1;
+                f0 = f1;
+                x1 = x2;
+                f1 = evaluator.evaluate(x1);
+            }
+            root = x1;
+            return RootFindingEngine.Status.MAX_ITERATIONS;
+        }
+    }
+
+    public static void main(String[] args) {
+        //? Example usages:
+
+        // 1. Cube roots of p for p in [1, 1000]
+        ParameterSweep sweep = new ParameterSweep(1e-12, "x", "p");
+        int count = 1000000;
+        RootFindingEngine.Status[] status = new RootFindingEngine.Status[count];
+        double[] roots = sweep.sweep("x^3 - p", 1, 1000, count, 1.0, status);
+        int converged = 0;
+        for (RootFindingEngine.Status s : status) {
+            if (s == RootFindingEngine.Status.CONVERGED) {
+                converged++;
+            }
+        }
+        System.out.println("x^3 - p over " + count + " values of p: " + converged + " converged");
+        System.out.println("p = 1: x = " + roots[0] + ", p = 1000: x = " + roots[count - 1]);
+
+        System.out.println("\n--------------------------------\n");
+
+        // 2. Kepler's equation E - ecc*sin(E) = 1 for eccentricities in [0, 0.9], derivative-free
+        ParameterSweep kepler = new ParameterSweep(1e-10, "E", "ecc");
+        kepler.setMethod(Method.SECANT);
+        RootFindingEngine.Status[] keplerStatus = new RootFindingEngine.Status[10];
+        double[] anomalies = kepler.sweep("E - ecc*sin(E) - 1", 0, 0.9, 10, 1.0, keplerStatus);
+        for (int i = 0; i < anomalies.length; i++) {
+            System.out.printf("ecc = %.1f: E = %.10f (%s)%n", 0.1 * i, anomalies[i], keplerStatus[i]);
+        }
+    }
+}
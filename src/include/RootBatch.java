@@ -0,0 +1,363 @@
+package include;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import include.utils.ExpressionBackend;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
+
+public class RootBatch {
+    //? Runs many independent root-finding jobs concurrently. Each job gets its own solver
+    //? instance with tracing off, so the solvers' per-solve state is never shared; compiled
+    //? expressions are shared through ExpressionCache, so jobs with the same function text
+    //? compile it once. Jobs run one thread each, on virtual threads when the JVM has them
+    //? (looked up reflectively, Java 21+) and on a fixed platform pool otherwise, with at
+    //? most `concurrency` jobs in flight at a time.
+
+    public enum Method {
+        BISECTION,
+        FALSE_POSITION,
+        SECANT,
+        NEWTON_RAPHSON,
+        FIXED_POINT,
+        BRENT
+    }
+
+    public static final class Job {
+        //? Bracketing methods read [first, second] as the bracket, Secant as x0 and x1, and
+        //? Newton-Raphson and Fixed_Point use first as the initial guess and ignore second
+        private final Method method;
+        private final String function;
+        private final double first;
+        private final double second;
+        private final double tolerance;
+        private final String variable;
+
+        public Job(Method method, String function, double first, double second, double tolerance, String variable) {
+            if (method == null || function == null || variable == null) {
+                throw new IllegalArgumentException("Method, function and variable are required.");
+            }
+            this.method = method;
+            this.function = function;
+            this.first = first;
+            this.second = second;
+            this.tolerance = tolerance;
+            this.variable = variable;
+        }
+
+        public static Job bisection(String function, double a, double b, double tolerance) {
+            return new Job(Method.BISECTION, function, a, b, tolerance, "x");
+        }
+
+        public static Job falsePosition(String function, double a, double b, double tolerance) {
+            return new Job(Method.FALSE_POSITION, function, a, b, tolerance, "x");
+        }
+
+        public static Job brent(String function, double a, double b, double tolerance) {
+            return new Job(Method.BRENT, function, a, b, tolerance, "x");
+        }
+
+        public static Job secant(String function, double x0, double x1, double tolerance) {
+            return new Job(Method.SECANT, function, x0, x1, tolerance, "x");
+        }
+
+        public static Job newtonRaphson(String function, double initialGuess, double tolerance) {
+            return new Job(Method.NEWTON_RAPHSON, function, initialGuess, Double.NaN, tolerance, "x");
+        }
+
+        public static Job fixedPoint(String function, double initialGuess, double tolerance) {
+            return new Job(Method.FIXED_POINT, function, initialGuess, Double.NaN, tolerance, "x");
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public String getFunction() {
+            return function;
+        }
+
+        public double getFirst() {
+            return first;
+        }
+
+        public double getSecond() {
+            return second;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public String getVariable() {
+            return variable;
+        }
+    }
+
+    public static final class Result {
+        private final boolean success;
+        private final double root;
+        private final RootFindingEngine.Status status;
+        private final int iterations;
+        private final int evaluations;
+        private final String error;
+
+        Result(boolean success, double root, RootFindingEngine.Status status, int iterations, int evaluations, String error) {
+            this.success = success;
+            this.root = root;
+            this.status = status;
+            this.iterations = iterations;
+            this.evaluations = evaluations;
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public double getRoot() {
+            //* NaN if the job failed
+            return root;
+        }
+
+        public RootFindingEngine.Status getStatus() {
+            //* null if the job failed before its first iteration
+            return status;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public int getEvaluations() {
+            return evaluations;
+        }
+
+        public String getError() {
+            //* Message of an unexpected exception thrown by the job, otherwise null
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return success
+                ? String.format("root=%s status=%s iterations=%d evaluations=%d", root, status, iterations, evaluations)
+                : String.format("failed status=%s%s", status, error == null ? "" : " error=" + error);
+        }
+    }
+
+    private int concurrency;
+    private int maxIterations;
+    private ExpressionBackend backend;
+    private boolean useVirtualThreads;
+
+    public RootBatch() {
+        this(Math.max(64, 4 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    public RootBatch(int concurrency) {
+        setConcurrency(concurrency);
+        this.maxIterations = 1000;
+        this.backend = ExpressionBackend.BYTECODE;
+        this.useVirtualThreads = true;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        //? Upper bound on jobs in flight; also bounds the platform pool when virtual threads are unavailable
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1.");
+        }
+        this.concurrency = concurrency;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public ExpressionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExpressionBackend backend) {
+        this.backend = backend;
+    }
+
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        //? false forces the platform pool even on a JVM with virtual threads
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    public List<Result> solveAll(List<Job> jobs) {
+        return solveAll(jobs.iterator());
+    }
+
+    public List<Result> solveAll(Stream<Job> jobs) {
+        //* The stream is consumed lazily, at most `concurrency` jobs ahead of the slowest one
+        return solveAll(jobs.iterator());
+    }
+
+    public List<Result> solveAll(Iterator<Job> jobs) {
+        /*
+         * Method to run a batch of root-finding jobs
+         * @param jobs The jobs, in the order the results should come back
+         * @return One result per job, in job order
+         * @throws IllegalStateException if the calling thread is interrupted while waiting
+         */
+        Semaphore permits = new Semaphore(concurrency);
+        List<Future<Result>> futures = new ArrayList<>();
+        ExecutorService executor = createExecutor();
+        try {
+            while (jobs.hasNext()) {
+                Job job = jobs.next();
+                permits.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return solve(job);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<Result> results = new ArrayList<>(futures.size());
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch interrupted.");
+        } catch (ExecutionException e) {
+            //? solve() catches job failures itself, so this is an error such as OutOfMemoryError
+            throw new IllegalStateException("Batch job failed: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public Result solve(Job job) {
+        /*
+         * Method to run one job on the calling thread
+         * @param job The job to run
+         * @return Its result; failures are reported in the result, never thrown
+         */
+        try {
+            switch (job.method) {
+                case BISECTION: {
+                    Bisection solver = new Bisection(job.tolerance, maxIterations, job.variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    boolean success = solver.solve(job.function, job.first, job.second);
+                    return new Result(success, solver.getRoot(), solver.getStatus(),
+                        solver.getIterationCount(), solver.getEvaluationCount(), null);
+                }
+                case FALSE_POSITION: {
+                    False_Position solver = new False_Position(job.tolerance, maxIterations, job.variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    boolean success = solver.solve(job.function, job.first, job.second);
+                    return new Result(success, solver.getRoot(), solver.getStatus(),
+                        solver.getIterationCount(), solver.getEvaluationCount(), null);
+                }
+                case SECANT: {
+                    Secant_Method solver = new Secant_Method(job.tolerance, maxIterations, job.variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    boolean success = solver.solve(job.function, job.first, job.second);
+                    return new Result(success, solver.getRoot(), solver.getStatus(),
+                        solver.getIterationCount(), solver.getEvaluationCount(), null);
+                }
+                case NEWTON_RAPHSON: {
+                    Newton_Raphson solver = new Newton_Raphson(job.tolerance, maxIterations, 1e-5, job.variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    boolean success = solver.solve(job.function, job.first);
+                    return new Result(success, solver.getRoot(), solver.getStatus(),
+                        solver.getIterationCount(), solver.getEvaluationCount(), null);
+                }
+                case FIXED_POINT: {
+                    Fixed_Point solver = new Fixed_Point(job.tolerance, maxIterations, job.variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    boolean success = solver.solve(job.function, job.first);
+                    return new Result(success, solver.getRoot(), solver.getStatus(),
+                        solver.getIterationCount(), solver.getEvaluationCount(), null);
+                }
+                default: {
+                    Brent solver = new Brent(job.tolerance, maxIterations, job.variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    boolean success = solver.solve(job.function, job.first, job.second);
+                    return new Result(success, solver.getRoot(), solver.getStatus(),
+                        solver.getIterationCount(), solver.getEvaluationCount(), null);
+                }
+            }
+        } catch (RuntimeException e) {
+            return new Result(false, Double.NaN, null, 0, 0, e.getMessage());
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        if (useVirtualThreads) {
+            try {
+                //? Java 21+: one cheap virtual thread per job; the semaphore does the limiting
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // older JVM: fall through to the platform pool
+            }
+        }
+        int threads = Math.min(concurrency, Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "root-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) {
+        //? Example usages:
+
+        // 1. Mixed methods, results come back in submission order
+        List<Job> jobs = new ArrayList<>();
+        jobs.add(Job.bisection("x^3 - x - 1", 1, 2, 1e-8));
+        jobs.add(Job.falsePosition("x^3 - x - 1", 1, 2, 1e-8));
+        jobs.add(Job.brent("x^3 - x - 1", 1, 2, 1e-8));
+        jobs.add(Job.secant("x^3 - x - 1", 1, 2, 1e-8));
+        jobs.add(Job.newtonRaphson("x^3 - x - 1", 1.5, 1e-8));
+        jobs.add(Job.fixedPoint("(x+1)^(1/3)", 1.5, 1e-8));
+        jobs.add(Job.bisection("x^2 + 1", -1, 1, 1e-8));
+
+        RootBatch batch = new RootBatch();
+        List<Result> results = batch.solveAll(jobs);
+        for (int i = 0; i < results.size(); i++) {
+            System.out.println(jobs.get(i).getMethod() + ": " + results.get(i));
+        }
+
+        System.out.println("\n--------------------------------\n");
+
+        // 2. A streamed sweep of brackets over one shared function
+        List<Result> sweep = batch.solveAll(Stream.iterate(0, k -> k + 1).limit(1000)
+            .map(k -> Job.brent("x^2 - " + (k % 10 + 1), 0, 10, 1e-10)));
+        System.out.println("Solved " + sweep.size() + " jobs; job 998: " + sweep.get(998));
+    }
+}
@@ -0,0 +1,432 @@
+package include;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import include.utils.CompiledFunction;
+import include.utils.ExpressionBackend;
+import include.utils.ExpressionCache;
+import include.utils.TraceLevel;
+
+public class RootScanner {
+    //? Finds every root of f in [a, b], not just one. The interval is cut into chunks that are
+    //? sampled in parallel on a ForkJoinPool; each sign change between neighbouring samples
+    //? becomes a bracket, and each local minimum of |f| without a sign change becomes a
+    //? candidate for an even-multiplicity (touching) root. All candidates are then refined
+    //? concurrently and the surviving roots returned sorted and de-duplicated.
+
+    public enum Method {
+        BISECTION,
+        FALSE_POSITION,
+        BRENT
+    }
+
+    private static final int GOLDEN_SECTION_ITERATIONS = 200;
+    private static final double INVERSE_GOLDEN_RATIO = (Math.sqrt(5) - 1) / 2;
+
+    private double tolerance;
+    private int chunkCount;
+    private int samplesPerChunk;
+    private int maxIterations;
+    private Method method;
+    private ExpressionBackend backend;
+    private ForkJoinPool pool;
+    private String variable;
+    private int bracketCount;
+    private int touchingCandidateCount;
+
+    public RootScanner() {
+        this(1e-10, "x");
+    }
+
+    public RootScanner(String var) {
+        this(1e-10, var);
+    }
+
+    public RootScanner(double tolerance, String var) {
+        this.tolerance = tolerance;
+        this.variable = var;
+        this.chunkCount = 4 * Runtime.getRuntime().availableProcessors();
+        this.samplesPerChunk = 256;
+        this.maxIterations = 1000;
+        this.method = Method.BRENT;
+        this.backend = ExpressionBackend.BYTECODE;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        //? One sampling task per chunk; a few chunks per core keeps the pool balanced
+        if (chunkCount < 1) {
+            throw new IllegalArgumentException("Chunk count must be at least 1.");
+        }
+        this.chunkCount = chunkCount;
+    }
+
+    public int getSamplesPerChunk() {
+        return samplesPerChunk;
+    }
+
+    public void setSamplesPerChunk(int samplesPerChunk) {
+        //? Roots closer together than one sample spacing can be missed
+        if (samplesPerChunk < 1) {
+            throw new IllegalArgumentException("Samples per chunk must be at least 1.");
+        }
+        this.samplesPerChunk = samplesPerChunk;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public void setMethod(Method method) {
+        //* Bracketing solver used to refine each sign change
+        this.method = method;
+    }
+
+    public ExpressionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExpressionBackend backend) {
+        this.backend = backend;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getBracketCount() {
+        //* Sign changes found by the last scan
+        return bracketCount;
+    }
+
+    public int getTouchingCandidateCount() {
+        //* Local minima of |f| examined by the last scan as possible touching roots
+        return touchingCandidateCount;
+    }
+
+    public double[] scan(String function, double a, double b) {
+        /*
+         * Method to find all roots of a function in an interval
+         * @param function The function text, e.g. "sin(x)"
+         * @param a Left end of the interval
+         * @param b Right end of the interval
+         * @return The roots in ascending order, closer than the tolerance merged into one
+         * @throws IllegalArgumentException if the interval is invalid or the function cannot be compiled
+         */
+        if (!(a < b) || !Double.isFinite(a) || !Double.isFinite(b)) {
+            throw new IllegalArgumentException("Invalid interval: a must be less than b and both finite.");
+        }
+        try {
+            ExpressionCache.getFunction(function, variable, backend);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+
+        List<Candidate> candidates = pool.invoke(new SampleTask(function, a, b, 0, chunkCount));
+
+        bracketCount = 0;
+        touchingCandidateCount = 0;
+        for (Candidate candidate : candidates) {
+            if (candidate.touching) {
+                touchingCandidateCount++;
+            } else {
+                bracketCount++;
+            }
+        }
+
+        double[] roots = new double[candidates.size()];
+        List<RefineTask> tasks = new ArrayList<>(candidates.size());
+        for (int i = 0; i < roots.length; i++) {
+            tasks.add(new RefineTask(function, candidates.get(i), roots, i));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+
+        return mergeRoots(roots);
+    }
+
+    private double[] mergeRoots(double[] roots) {
+        //? Rejected candidates are NaN and sort last
+        Arrays.sort(roots);
+        int count = 0;
+        for (double root : roots) {
+            if (Double.isNaN(root)) {
+                break;
+            }
+            if (count == 0 || root - roots[count - 1] > 2 * tolerance) {
+                roots[count++] = root;
+            }
+        }
+        return Arrays.copyOf(roots, count);
+    }
+
+    private static final class Candidate {
+        //* [lo, hi] is a sign-changing bracket, or for a touching candidate the span around a minimum
+        final double lo;
+        final double hi;
+        final boolean touching;
+
+        Candidate(double lo, double hi, boolean touching) {
+            this.lo = lo;
+            this.hi = hi;
+            this.touching = touching;
+        }
+    }
+
+    private class SampleTask extends RecursiveTask<List<Candidate>> {
+        private static final long serialVersionUID = 1L;
+        private final String function;
+        private final double a;
+        private final double b;
+        private final int fromChunk;
+        private final int toChunk;
+
+        SampleTask(String function, double a, double b, int fromChunk, int toChunk) {
+            this.function = function;
+            this.a = a;
+            this.b = b;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected List<Candidate> compute() {
+            if (toChunk - fromChunk == 1) {
+                return sampleChunk(fromChunk);
+            }
+            int middle = (fromChunk + toChunk) >>> 1;
+            SampleTask left = new SampleTask(function, a, b, fromChunk, middle);
+            SampleTask right = new SampleTask(function, a, b, middle, toChunk);
+            left.fork();
+            List<Candidate> result = right.compute();
+            //? Left half first keeps the candidates in ascending order
+            List<Candidate> merged = left.join();
+            merged.addAll(result);
+            return merged;
+        }
+
+        private List<Candidate> sampleChunk(int chunk) {
+            /*
+             * Method to sample one chunk and collect its candidates
+             * The chunk owns samples 0..n-1 (and n for the last chunk); one extra sample on each
+             * side lets minima at the chunk edges be recognised without talking to the neighbours
+             */
+            int n = samplesPerChunk;
+            int totalSamples = chunkCount * n;
+            double h = (b - a) / totalSamples;
+            int first = chunk * n;
+
+            double[] xs = new double[n + 3];
+            double[] fs = new double[n + 3];
+            for (int i = 0; i < xs.length; i++) {
+                int k = first + i - 1;
+                //? Points beyond the ends are pinned to them so nothing outside [a, b] is evaluated
+                xs[i] = k <= 0 ? a : k >= totalSamples ? b : a + k * h;
+            }
+            //? Each task has its own function instance: exp4j expressions carry variable state
+            CompiledFunction f = ExpressionCache.getFunction(function, variable, backend);
+            evaluate(f, xs, fs);
+
+            List<Candidate> candidates = new ArrayList<>();
+            boolean last = chunk == chunkCount - 1;
+            int owned = last ? n + 1 : n;
+            for (int i = 1; i <= owned; i++) {
+                double x = xs[i];
+                double fx = fs[i];
+                if (Double.isNaN(fx)) {
+                    continue;
+                }
+                if (fx == 0) {
+                    candidates.add(new Candidate(x, x, false));
+                    continue;
+                }
+                if (i <= n && fx * fs[i + 1] < 0) {
+                    candidates.add(new Candidate(x, xs[i + 1], false));
+                    continue;
+                }
+                double before = fs[i - 1];
+                double after = fs[i + 1];
+                if (xs[i - 1] < x && x < xs[i + 1]
+                        && fx * before > 0 && fx * after > 0
+                        && Math.abs(fx) < Math.abs(before) && Math.abs(fx) <= Math.abs(after)) {
+                    candidates.add(new Candidate(xs[i - 1], xs[i + 1], true));
+                }
+            }
+            return candidates;
+        }
+    }
+
+    private static void evaluate(CompiledFunction f, double[] xs, double[] fs) {
+        try {
+            f.evaluate(xs, fs);
+        } catch (RuntimeException e) {
+            //? One bad point (e.g. division by zero) must not hide the rest of the chunk
+            for (int i = 0; i < xs.length; i++) {
+                try {
+                    fs[i] = f.apply(xs[i]);
+                } catch (RuntimeException pointFailure) {
+                    fs[i] = Double.NaN;
+                }
+            }
+        }
+    }
+
+    private class RefineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final String function;
+        private final Candidate candidate;
+        private final double[] roots;
+        private final int index;
+
+        RefineTask(String function, Candidate candidate, double[] roots, int index) {
+            this.function = function;
+            this.candidate = candidate;
+            this.roots = roots;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            //* Each task writes only its own slot, so no synchronisation is needed
+            double root = Double.NaN;
+            try {
+                if (candidate.lo == candidate.hi) {
+                    root = candidate.lo;
+                } else if (candidate.touching) {
+                    root = refineTouching();
+                } else {
+                    root = refineBracket();
+                }
+            } catch (RuntimeException e) {
+                // leave the candidate rejected
+            }
+            roots[index] = root;
+        }
+
+        private double refineBracket() {
+            double lo = candidate.lo;
+            double hi = candidate.hi;
+            boolean success;
+            double root;
+            switch (method) {
+                case BISECTION: {
+                    Bisection solver = new Bisection(tolerance, maxIterations, variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    success = solver.solve(function, lo, hi);
+                    root = solver.getRoot();
+                    break;
+                }
+                case FALSE_POSITION: {
+                    False_Position solver = new False_Position(tolerance, maxIterations, variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    solver.setVariant(False_Position.Variant.ILLINOIS);
+                    success = solver.solve(function, lo, hi);
+                    root = solver.getRoot();
+                    break;
+                }
+                default: {
+                    Brent solver = new Brent(tolerance, maxIterations, variable);
+                    solver.setTraceLevel(TraceLevel.OFF);
+                    solver.setBackend(backend);
+                    success = solver.solve(function, lo, hi);
+                    root = solver.getRoot();
+                    break;
+                }
+            }
+            if (!success) {
+                return Double.NaN;
+            }
+            //? A sign change across a pole (e.g. 1/x) converges onto the pole; there |f| grows
+            //? instead of vanishing, so keep only roots where f is no larger than at the ends
+            CompiledFunction f = ExpressionCache.getFunction(function, variable, backend);
+            double residual = Math.abs(f.apply(root));
+            double bound = Math.max(Math.abs(f.apply(lo)), Math.abs(f.apply(hi)));
+            return residual <= bound ? root : Double.NaN;
+        }
+
+        private double refineTouching() {
+            //? Golden-section search for the minimum of |f|; a root only if |f| reaches the tolerance
+            CompiledFunction f = ExpressionCache.getFunction(function, variable, backend);
+            double lo = candidate.lo;
+            double hi = candidate.hi;
+            double x1 = hi - INVERSE_GOLDEN_RATIO * (hi - lo);
+            double x2 = lo + INVERSE_GOLDEN_RATIO * (hi - lo);
+            double f1 = Math.abs(f.apply(x1));
+            double f2 = Math.abs(f.apply(x2));
+            for (int i = 0; i < GOLDEN_SECTION_ITERATIONS && hi - lo > tolerance; i++) {
+                if (f1 < f2) {
+                    hi = x2;
+                    x2 = x1;
+                    f2 = f1;
+                    x1 = hi - INVERSE_GOLDEN_RATIO * (hi - lo);
+                    f1 = Math.abs(f.apply(x1));
+                } else {
+                    lo = x1;
+                    x1 = x2;
+                    f1 = f2;
+                    x2 = lo + INVERSE_GOLDEN_RATIO * (hi - lo);
+                    f2 = Math.abs(f.apply(x2));
+                }
+            }
+            double x = f1 < f2 ? x1 : x2;
+            return Math.min(f1, f2) < tolerance ? x : Double.NaN;
+        }
+    }
+
+    public static void main(String[] args) {
+        //? Example usages:
+
+        // 1. Every root of a periodic function
+        RootScanner scanner = new RootScanner();
+        double[] roots = scanner.scan("sin(x)", -10, 10);
+        System.out.println("sin(x) on [-10, 10]: " + roots.length + " roots");
+        for (double root : roots) {
+            System.out.println("  " + root);
+        }
+
+        System.out.println("\n--------------------------------\n");
+
+        // 2. Two roots in one bracket with f(a)*f(b) > 0, plus a touching root
+        double[] roots2 = scanner.scan("(x^2 - 1)*(x - 3)^2", -2, 4);
+        System.out.println("(x^2 - 1)*(x - 3)^2 on [-2, 4]: " + roots2.length + " roots");
+        for (double root : roots2) {
+            System.out.println("  " + root);
+        }
+    }
+}
@@ -4,17 +4,42 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
 import java.util.List;
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
+import java.util.function.Consumer;
+
+import include.utils.CompiledFunction;
+import include.utils.ConvergenceMonitor;
+import include.utils.ExpressionBackend;
+import include.utils.ExpressionCache;
+import include.utils.IterationTrace;
+import include.utils.RootFinder;
+import include.utils.RootFindingEngine;
+import include.utils.TraceLevel;
 
 public class Secant_Method {
+    //* Columns of the iteration trace
+    private static final int X0 = 0;
+    private static final int F0 = 1;
+    private static final int X1 = 2;
+    private static final int F1 = 3;
+    private static final int X2 = 4;
+    private static final int F2 = 5;
+
     private List<String> msgSoln;
     private List<String> answers;
     private List<Double> iterationValues;
     private String functionExpression;
+    private CompiledFunction function;
+    private ExpressionBackend backend;
+    private RootFindingEngine engine;
+    private final IterationTrace trace;
+    private RootFindingEngine.Status status;
+    private TraceLevel traceLevel;
+    private double root;
     private double tolerance;
     private DecimalFormat decimalFormat;
     private DecimalFormat fixedFormat;
+    private int maxIterations;
+    private int maxEvaluations;
     private String variable;
 
     // Default constructor with default variable "x"
@@ -32,9 +57,15 @@ public class Secant_Method {
         this(0.0001, var);
     }
 
-    // Full constructor with tolerance and variable name
+    // Constructor with tolerance and variable name
     public Secant_Method(double tolerance, String var) {
+        this(tolerance, 1000, var);
+    }
+
+    // Full constructor with all parameters
+    public Secant_Method(double tolerance, int maxIterations, String var) {
         this.msgSoln = new ArrayList<>();
+        this.trace = new IterationTrace(6);
         this.answers = new ArrayList<>();
         this.iterationValues = new ArrayList<>();
         this.fixedFormat = new DecimalFormat("0.000");
@@ -42,10 +73,16 @@ public class Secant_Method {
         symbols.setDecimalSeparator('.');
         fixedFormat.setDecimalFormatSymbols(symbols);
         setTolerance(tolerance);
+        this.maxIterations = maxIterations;
         this.variable = var;
+        this.backend = ExpressionBackend.BYTECODE;
+        this.maxEvaluations = RootFindingEngine.DEFAULT_MAX_EVALUATIONS;
+        this.traceLevel = TraceLevel.FULL;
+        this.root = Double.NaN;
     }
 
     public List<String> getSolutionSteps() {
+        renderTrace();
         return msgSoln;
     }
 
@@ -57,15 +94,79 @@ public class Secant_Method {
         return iterationValues;
     }
 
+    private void renderTrace() {
+        //? Steps are recorded as numbers during the solve and only formatted on first access
+        if (trace.isPending()) {
+            msgSoln.clear();
+            trace.render(this::renderRow, msgSoln::add);
+        }
+    }
+
     public double getTolerance() {
         return tolerance;
     }
 
     public void setTolerance(double tolerance) {
+        //? Render a pending trace with the format it was recorded under
+        renderTrace();
         this.tolerance = tolerance;
         updateDecimalFormat();
     }
 
+    public ExpressionBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(ExpressionBackend backend) {
+        //? BYTECODE compiles the function to JVM code; EXP4J keeps the interpreter
+        this.backend = backend;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public void setMaxEvaluations(int maxEvaluations) {
+        //? Hard cap on function evaluations per solve, checked between iterations
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        //? OFF skips all message formatting; read the result through getRoot()
+        this.traceLevel = traceLevel;
+    }
+
+    public double getRoot() {
+        //* NaN until a solve succeeds
+        return root;
+    }
+
+    public int getIterationCount() {
+        return engine == null ? 0 : engine.getIterations();
+    }
+
+    public int getEvaluationCount() {
+        //* Function evaluations actually performed by the last solve; repeated points are memoized
+        return engine == null ? 0 : engine.getEvaluations();
+    }
+
+    public RootFindingEngine.Status getStatus() {
+        //* Why the last solve stopped iterating; null if it failed before the first iteration
+        return status;
+    }
+
+    private boolean traceSteps() {
+        return traceLevel == TraceLevel.FULL;
+    }
+
+    private boolean traceAnswers() {
+        return traceLevel != TraceLevel.OFF;
+    }
+
     private void updateDecimalFormat() {
         int decimalPlaces = Math.max(1, (int) Math.ceil(-Math.log10(tolerance)));
         
@@ -99,89 +200,170 @@ public class Secant_Method {
         return functionExpression.replaceAll(variable, formatFixed(x));
     }
     
+    private CompiledFunction compile() throws IllegalArgumentException {
+        try {
+            return ExpressionCache.getFunction(functionExpression, variable, backend);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+    }
+    
     private double f(double x) throws IllegalArgumentException {
         try {
-            Expression e = new ExpressionBuilder(functionExpression)
-                .variables(variable)
-                .build()
-                .setVariable(variable, x);
-            return e.evaluate();
+            return engine.evaluate(x);
         } catch (Exception e) {
             throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
         }
     }
 
+    private double iterate(RootFinder finder) {
+        status = engine.run(finder);
+        if (traceAnswers()) {
+            if (status == RootFindingEngine.Status.MAX_ITERATIONS) {
+                trace.note("Maximum iterations reached without convergence.");
+            } else if (status == RootFindingEngine.Status.MAX_EVALUATIONS) {
+                trace.note("Maximum function evaluations reached without convergence.");
+            } else if (engine.getStopReason() != null) {
+                trace.note("Stopped early: " + engine.getStopReason() + ".");
+            }
+        }
+        return finder.getRoot();
+    }
+
     public boolean solve(String function, double x0, double x1) {
         return solve(function, x0, x1, this.tolerance);
     }
 
     public boolean solve(String function, double x0, double x1, double tolerance) {
         msgSoln.clear();
+        trace.clear();
         answers.clear();
         iterationValues.clear();
         this.functionExpression = function;
+        this.engine = null;
+        this.status = null;
+        this.root = Double.NaN;
         setTolerance(tolerance);
 
-        msgSoln.add("Using tolerance: " + formatNumber(tolerance));
+        if (traceSteps()) {
+            trace.note("Using tolerance: " + formatNumber(tolerance));
+        }
         
         try {
+            this.function = compile();
+            this.engine = new RootFindingEngine(maxIterations, maxEvaluations, this.function);
+            engine.setMonitor(new ConvergenceMonitor(tolerance));
             double fx0 = f(x0);
             double fx1 = f(x1);
             
-            msgSoln.add("Initial values:");
-            msgSoln.add(String.format("x0 = %s, f(x0) = %s = %s", 
-                formatNumber(x0), getFunctionEvaluationString(x0), formatNumber(fx0)));
-            msgSoln.add(String.format("x1 = %s, f(x1) = %s = %s", 
-                formatNumber(x1), getFunctionEvaluationString(x1), formatNumber(fx1)));
-            msgSoln.add("");
+            if (traceSteps()) {
+                trace.note("Initial values:");
+                trace.note(String.format("x0 = %s, f(x0) = %s = %s", 
+                    formatNumber(x0), getFunctionEvaluationString(x0), formatNumber(fx0)));
+                trace.note(String.format("x1 = %s, f(x1) = %s = %s", 
+                    formatNumber(x1), getFunctionEvaluationString(x1), formatNumber(fx1)));
+                trace.note("");
+            }
 
             if (fx0 == fx1) {
-                msgSoln.add("Secant method cannot continue. f(x0) and f(x1) are equal.");
+                if (traceAnswers()) {
+                    trace.note("Secant method cannot continue. f(x0) and f(x1) are equal.");
+                }
                 return false;
             }
 
-            double root = secantRecursive(x0, x1, 1);
+            root = iterate(new SecantStep(x0, x1, fx0, fx1));
+            if (engine.getStopReason() != null) {
+                root = Double.NaN;
+                return false;
+            }
 
-            answers.add("Root found: " + formatNumber(root));
-            answers.add("Number of iterations: " + iterationValues.size());
-            answers.add("Final tolerance: " + formatNumber(tolerance));
+            if (traceAnswers()) {
+                answers.add("Root found: " + formatNumber(root));
+                answers.add("Number of iterations: " + iterationValues.size());
+                answers.add("Final tolerance: " + formatNumber(tolerance));
+            }
             
             return true;
         } catch (IllegalArgumentException e) {
-            msgSoln.add("Error with function evaluation: " + e.getMessage());
+            if (traceAnswers()) {
+                trace.note("Error with function evaluation: " + e.getMessage());
+            }
             return false;
         }
     }
     
-    private double secantRecursive(double x0, double x1, int iteration) {
-        double f0 = f(x0);
-        double f1 = f(x1);
-
-        if (f1 - f0 == 0) {
-            msgSoln.add("Error: Division by zero in the Secant formula.");
-            return x1;
+    private class SecantStep implements RootFinder {
+        //? The f values travel with their points, so each iteration costs one new evaluation
+        private double x0;
+        private double x1;
+        private double f0;
+        private double f1;
+
+        SecantStep(double x0, double x1, double f0, double f1) {
+            this.x0 = x0;
+            this.x1 = x1;
+            this.f0 = f0;
+            this.f1 = f1;
         }
 
-        double x2 = x1 - f1 * (x1 - x0) / (f1 - f0);
-        iterationValues.add(x2);
+        @Override
+        public RootFindingEngine.Status step(int iteration) {
+            if (f1 - f0 == 0) {
+                if (traceAnswers()) {
+                    trace.note("Error: Division by zero in the Secant formula.");
+                }
+                return RootFindingEngine.Status.STOPPED;
+            }
+
+            double x2 = x1 - f1 * (x1 - x0) / (f1 - f0);
+            iterationValues.add(x2);
+
+            boolean converged = Math.abs(x2 - x1) < tolerance;
+            //? After convergence f(x2) is only wanted for the trace
+            double f2 = converged && !traceSteps() ? Double.NaN : f(x2);
+
+            if (traceSteps()) {
+                int row = trace.addRow();
+                trace.set(row, X0, x0);
+                trace.set(row, F0, f0);
+                trace.set(row, X1, x1);
+                trace.set(row, F1, f1);
+                trace.set(row, X2, x2);
+                trace.set(row, F2, f2);
+            }
+
+            x0 = x1;
+            f0 = f1;
+            x1 = x2;
+            f1 = f2;
+            return converged ? RootFindingEngine.Status.CONVERGED : RootFindingEngine.Status.RUNNING;
+        }
 
-        msgSoln.add(String.format("Iteration %d:", iteration));
-        msgSoln.add(String.format("  x%d = %s, f(x%d) = %s = %s", 
+        @Override
+        public double getRoot() {
+            return x1;
+        }
+    }
+    
+    private void renderRow(IterationTrace trace, int row, Consumer<String> out) {
+        int iteration = row + 1;
+        double x0 = trace.get(row, X0);
+        double f0 = trace.get(row, F0);
+        double x1 = trace.get(row, X1);
+        double f1 = trace.get(row, F1);
+        double x2 = trace.get(row, X2);
+        out.accept(String.format("Iteration %d:", iteration));
+        out.accept(String.format("  x%d = %s, f(x%d) = %s = %s", 
             iteration-1, formatNumber(x0), iteration-1, getFunctionEvaluationString(x0), formatNumber(f0)));
-        msgSoln.add(String.format("  x%d = %s, f(x%d) = %s = %s", 
+        out.accept(String.format("  x%d = %s, f(x%d) = %s = %s", 
             iteration, formatNumber(x1), iteration, getFunctionEvaluationString(x1), formatNumber(f1)));
-        msgSoln.add(String.format("  x%d = %s - (%s * (%s - %s)) / (%s - %s) = %s",
+        out.accept(String.format("  x%d = %s - (%s * (%s - %s)) / (%s - %s) = %s",
             iteration+1, formatNumber(x1), formatNumber(f1), formatNumber(x1), 
             formatNumber(x0), formatNumber(f1), formatNumber(f0), formatNumber(x2)));
-        msgSoln.add(String.format("  New approximation: x%d = %s, f(x%d) = %s = %s",
-            iteration+1, formatNumber(x2), iteration+1, getFunctionEvaluationString(x2), formatNumber(f(x2))));
-        msgSoln.add("");
-
-        if (Math.abs(x2 - x1) < tolerance) {
-            return x2;
-        }
-
-        return secantRecursive(x1, x2, iteration + 1);
+        out.accept(String.format("  New approximation: x%d = %s, f(x%d) = %s = %s",
+            iteration+1, formatNumber(x2), iteration+1, getFunctionEvaluationString(x2), formatNumber(trace.get(row, F2))));
+        out.accept("");
     }
     
     public void printSolution(boolean success) {
@@ -191,7 +373,7 @@ public class Secant_Method {
 
         if (success) {
             System.out.println("Solution Steps:");
-            for (String step : msgSoln) {
+            for (String step : getSolutionSteps()) {
                 System.out.println(step);
             }
             
@@ -201,7 +383,7 @@ public class Secant_Method {
             }
         } else {
             System.out.println("Solution failed:");
-            for (String error : msgSoln) {
+            for (String error : getSolutionSteps()) {
                 System.out.println(error);
             }
         }
@@ -0,0 +1,398 @@
+package include;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import include.utils.ExpressionCache;
+import include.utils.Polynomial;
+import include.utils.TraceLevel;
+
+public class SturmIsolator {
+    //? Real-root isolation for polynomials by Sturm's theorem. The chain p0 = p, p1 = p',
+    //? p(k+1) = -rem(p(k-1), p(k)) is built once; the number of distinct real roots in (a, b] is
+    //? then V(a) - V(b), where V(x) counts the sign changes along the chain at x. [a, b] is
+    //? halved until every piece holds exactly one root, sibling halves in parallel, and each
+    //? piece is handed to a bracketing solver. Unlike sampling, no root can slip between
+    //? samples; only roots closer together than the tolerance are reported as one.
+    //? Repeated roots are divided out first (p / gcd(p, p')) so every root changes sign.
+
+    public enum Method {
+        BISECTION,
+        BRENT
+    }
+
+    //* A chain remainder this small relative to its normalised dividend ends the chain
+    private static final double REMAINDER_EPSILON = 1e-10;
+
+    private final Polynomial polynomial;
+    private final Polynomial squareFree;
+    private final String expression;
+    private final String variable;
+    private final Polynomial[] chain;
+    private final double rootBound;
+    private double tolerance;
+    private Method method;
+    private ForkJoinPool pool;
+
+    public SturmIsolator(Polynomial polynomial) {
+        this(polynomial, null, "x");
+    }
+
+    private SturmIsolator(Polynomial polynomial, String expression, String variable) {
+        /*
+         * Constructor to build the Sturm chain of a polynomial
+         * @param polynomial A polynomial of degree at least 1
+         * @param expression The text it was read from, used for refinement if it has no repeated roots
+         * @throws IllegalArgumentException if the polynomial is constant
+         */
+        if (polynomial.degree() < 1) {
+            throw new IllegalArgumentException("The polynomial must have degree at least 1.");
+        }
+        this.polynomial = polynomial;
+        this.variable = variable;
+        this.tolerance = 1e-10;
+        this.method = Method.BRENT;
+        this.pool = ForkJoinPool.commonPool();
+
+        Polynomial[] fullChain = buildChain(polynomial);
+        Polynomial gcd = fullChain[fullChain.length - 1];
+        if (gcd.degree() > 0) {
+            //? Repeated roots: the last chain element is gcd(p, p'), which holds them
+            this.squareFree = polynomial.divide(gcd)[0];
+            this.chain = buildChain(squareFree);
+            this.expression = squareFree.toString(variable);
+        } else {
+            this.squareFree = polynomial;
+            this.chain = fullChain;
+            this.expression = expression != null ? expression : polynomial.toString(variable);
+        }
+
+        //? Cauchy's bound: every root satisfies |x| < 1 + max |c_i / c_n|
+        int n = squareFree.degree();
+        double lead = Math.abs(squareFree.getCoefficient(n));
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            max = Math.max(max, Math.abs(squareFree.getCoefficient(i)) / lead);
+        }
+        this.rootBound = 1 + max;
+    }
+
+    public static SturmIsolator of(String expression, String variable) {
+        /*
+         * Method to build an isolator from expression text
+         * @throws IllegalArgumentException if the text is not a polynomial of degree at least 1
+         */
+        Polynomial polynomial;
+        try {
+            polynomial = ExpressionCache.getPolynomial(expression, variable);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error evaluating function: " + e.getMessage());
+        }
+        if (polynomial == null) {
+            throw new IllegalArgumentException("'" + expression + "' is not a polynomial in " + variable + ".");
+        }
+        return new SturmIsolator(polynomial, expression, variable);
+    }
+
+    private static Polynomial[] buildChain(Polynomial p) {
+        List<Polynomial> chain = new ArrayList<>();
+        chain.add(normalize(p));
+        chain.add(normalize(p.derivative()));
+        while (chain.get(chain.size() - 1).degree() > 0) {
+            Polynomial previous = chain.get(chain.size() - 2);
+            Polynomial current = chain.get(chain.size() - 1);
+            Polynomial remainder = previous.divide(current)[1];
+            if (isNegligible(remainder)) {
+                break;
+            }
+            chain.add(normalize(remainder.scale(-1)));
+        }
+        return chain.toArray(new Polynomial[0]);
+    }
+
+    private static Polynomial normalize(Polynomial p) {
+        //? Scaling by a positive factor keeps the signs and stops coefficients drifting toward overflow
+        double max = 0;
+        for (double c : p.getCoefficients()) {
+            max = Math.max(max, Math.abs(c));
+        }
+        return max == 0 ? p : p.scale(1 / max);
+    }
+
+    private static boolean isNegligible(Polynomial remainder) {
+        //? The dividend is normalised to a largest coefficient of 1, so this is a relative test.
+        //? Individual small coefficients are kept: they can be genuine (Wilkinson's spans 1e18)
+        for (double c : remainder.getCoefficients()) {
+            if (Math.abs(c) >= REMAINDER_EPSILON) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Polynomial getPolynomial() {
+        return polynomial;
+    }
+
+    public Polynomial getSquareFreePart() {
+        //* p / gcd(p, p'): the same roots, each simple
+        return squareFree;
+    }
+
+    public int getChainLength() {
+        return chain.length;
+    }
+
+    public double getRootBound() {
+        //* Every real root lies in (-bound, bound)
+        return rootBound;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public void setMethod(Method method) {
+        this.method = method;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    private int signChanges(double x) {
+        int changes = 0;
+        double previous = 0;
+        for (Polynomial p : chain) {
+            double value = p.apply(x);
+            if (value == 0) {
+                continue;
+            }
+            if (previous != 0 && (value < 0) != (previous < 0)) {
+                changes++;
+            }
+            previous = value;
+        }
+        return changes;
+    }
+
+    public int countRoots(double a, double b) {
+        /*
+         * Method to count the distinct real roots in (a, b]
+         * @throws IllegalArgumentException if a > b
+         */
+        if (a > b) {
+            throw new IllegalArgumentException("Invalid interval: a must not exceed b.");
+        }
+        return signChanges(a) - signChanges(b);
+    }
+
+    public int countRoots() {
+        return countRoots(-rootBound, rootBound);
+    }
+
+    public double[][] isolate(double a, double b) {
+        /*
+         * Method to split [a, b] into brackets holding one distinct root each
+         * @return {lo, hi} pairs in ascending order; lo == hi marks a root found exactly
+         */
+        if (!(a <= b) || !Double.isFinite(a) || !Double.isFinite(b)) {
+            throw new IllegalArgumentException("Invalid interval: a must not exceed b and both must be finite.");
+        }
+        List<double[]> brackets = new ArrayList<>();
+        if (squareFree.apply(a) == 0) {
+            //? (a, b] excludes a, so a root there is picked up here
+            brackets.add(new double[] {a, a});
+        }
+        if (a < b) {
+            brackets.addAll(pool.invoke(new IsolateTask(a, b, signChanges(a), signChanges(b))));
+        }
+        return brackets.toArray(new double[0][]);
+    }
+
+    public double[][] isolate() {
+        return isolate(-rootBound, rootBound);
+    }
+
+    public double[] solve(double a, double b) {
+        /*
+         * Method to find every distinct real root in [a, b]
+         * @return The roots in ascending order
+         */
+        double[][] brackets = isolate(a, b);
+        double[] roots = new double[brackets.length];
+        List<RefineTask> tasks = new ArrayList<>(brackets.length);
+        for (int i = 0; i < brackets.length; i++) {
+            tasks.add(new RefineTask(brackets[i], roots, i));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+        Arrays.sort(roots);
+        return roots;
+    }
+
+    public double[] solve() {
+        return solve(-rootBound, rootBound);
+    }
+
+    private class IsolateTask extends RecursiveTask<List<double[]>> {
+        private static final long serialVersionUID = 1L;
+        private final double lo;
+        private final double hi;
+        private final int changesLo;
+        private final int changesHi;
+
+        IsolateTask(double lo, double hi, int changesLo, int changesHi) {
+            this.lo = lo;
+            this.hi = hi;
+            this.changesLo = changesLo;
+            this.changesHi = changesHi;
+        }
+
+        @Override
+        protected List<double[]> compute() {
+            List<double[]> brackets = new ArrayList<>();
+            int count = changesLo - changesHi;
+            if (count <= 0) {
+                return brackets;
+            }
+            if (count == 1 || hi - lo <= tolerance) {
+                //? Roots closer than the tolerance cannot be told apart and come out as one
+                brackets.add(new double[] {lo, hi});
+                return brackets;
+            }
+
+            double middle = splitPoint();
+            if (squareFree.apply(middle) == 0) {
+                //? An exact root on the split point is reported alone, so the left half must stop
+                //? short of it: (lo, leftHi] with f(leftHi) != 0, or refining would return middle again
+                double leftHi = Math.nextDown(middle);
+                double step = Math.ulp(middle);
+                while (squareFree.apply(leftHi) == 0 && middle - 2 * step > lo) {
+                    step *= 2;
+                    leftHi = middle - step;
+                }
+                IsolateTask left = new IsolateTask(lo, leftHi, changesLo, signChanges(middle) + 1);
+                IsolateTask right = new IsolateTask(middle, hi, signChanges(middle), changesHi);
+                left.fork();
+                List<double[]> rightBrackets = right.compute();
+                brackets.addAll(left.join());
+                brackets.add(new double[] {middle, middle});
+                brackets.addAll(rightBrackets);
+                return brackets;
+            }
+            int changesMiddle = signChanges(middle);
+            IsolateTask left = new IsolateTask(lo, middle, changesLo, changesMiddle);
+            IsolateTask right = new IsolateTask(middle, hi, changesMiddle, changesHi);
+            left.fork();
+            List<double[]> rightBrackets = right.compute();
+            brackets.addAll(left.join());
+            brackets.addAll(rightBrackets);
+            return brackets;
+        }
+
+        private double splitPoint() {
+            //? Step off the exact midpoint when it is a root, which happens for integer roots
+            double middle = lo + (hi - lo) / 2;
+            for (int attempt = 1; attempt < 8 && squareFree.apply(middle) == 0; attempt++) {
+                middle = lo + (hi - lo) * (0.5 + attempt / 64.0);
+            }
+            return middle;
+        }
+    }
+
+    private class RefineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final double[] bracket;
+        private final double[] roots;
+        private final int index;
+
+        RefineTask(double[] bracket, double[] roots, int index) {
+            this.bracket = bracket;
+            this.roots = roots;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            double lo = bracket[0];
+            double hi = bracket[1];
+            double fLo = squareFree.apply(lo);
+            double fHi = squareFree.apply(hi);
+            if (lo == hi || fHi == 0) {
+                roots[index] = hi;
+                return;
+            }
+            if (fLo == 0) {
+                //? lo is the root of the bracket to the left; step just inside (lo, hi]
+                double start = lo;
+                double step = Math.ulp(lo);
+                while (fLo == 0 && start + step < hi) {
+                    lo = start + step;
+                    fLo = squareFree.apply(lo);
+                    step *= 2;
+                }
+            }
+            if (fLo * fHi > 0 || hi - lo <= tolerance) {
+                //? A cluster narrower than the tolerance, or a sign lost to rounding
+                roots[index] = lo + (hi - lo) / 2;
+                return;
+            }
+            boolean success;
+            double root;
+            if (method == Method.BISECTION) {
+                Bisection solver = new Bisection(tolerance, 1000, variable);
+                solver.setTraceLevel(TraceLevel.OFF);
+                success = solver.solve(expression, lo, hi);
+                root = solver.getRoot();
+            } else {
+                Brent solver = new Brent(tolerance, 1000, variable);
+                solver.setTraceLevel(TraceLevel.OFF);
+                success = solver.solve(expression, lo, hi);
+                root = solver.getRoot();
+            }
+            roots[index] = success ? root : lo + (hi - lo) / 2;
+        }
+    }
+
+    public static void main(String[] args) {
+        //? Example usages:
+
+        // 1. Five roots, two of them where a coarse sampler would see no sign change
+        SturmIsolator isolator1 = SturmIsolator.of("x^5 - 5*x^3 + 4*x", "x");
+        System.out.println("x^5 - 5*x^3 + 4*x: " + isolator1.countRoots() + " real roots");
+        for (double[] bracket : isolator1.isolate()) {
+            System.out.println("  bracket [" + bracket[0] + ", " + bracket[1] + "]");
+        }
+        System.out.println("  roots " + Arrays.toString(isolator1.solve()));
+
+        System.out.println("\n--------------------------------\n");
+
+        // 2. Repeated roots are divided out, so the double root at 1 is still found
+        SturmIsolator isolator2 = SturmIsolator.of("(x - 1)^2*(x + 2)", "x");
+        System.out.println("(x - 1)^2*(x + 2): square-free part " + isolator2.getSquareFreePart());
+        System.out.println("  roots in [-3, 3]: " + Arrays.toString(isolator2.solve(-3, 3)));
+        System.out.println("  roots in (0, 0.5]: " + isolator2.countRoots(0, 0.5));
+    }
+}
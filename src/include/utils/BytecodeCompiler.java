@@ -0,0 +1,503 @@
+package include.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+public class BytecodeCompiler {
+    //? Turns an ExpressionNode tree into a hidden JVM class implementing CompiledFunction.
+    //? The generated apply(double) is straight-line primitive code the JIT can inline like
+    //? hand-written Java: no token list, no operand stack of boxed Doubles.
+
+    private static final String CLASS_NAME = "include/utils/CompiledExpression";
+    private static final String OWNER = "include/utils/BytecodeCompiler";
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    //? Built-in functions by opcode; DualEvaluator and IntervalEvaluator store these in their programs
+    static final String[] FUNCTIONS = {
+        "sin", "cos", "tan", "cot", "asin", "acos", "atan", "sinh", "cosh", "tanh", "abs",
+        "log", "log10", "log2", "log1p", "exp", "expm1", "sqrt", "cbrt", "ceil", "floor", "signum"
+    };
+    static final int SIN = 0;
+    static final int COS = 1;
+    static final int TAN = 2;
+    static final int COT = 3;
+    static final int ASIN = 4;
+    static final int ACOS = 5;
+    static final int ATAN = 6;
+    static final int SINH = 7;
+    static final int COSH = 8;
+    static final int TANH = 9;
+    static final int ABS = 10;
+    static final int LOG = 11;
+    static final int LOG10 = 12;
+    static final int LOG2 = 13;
+    static final int LOG1P = 14;
+    static final int EXP = 15;
+    static final int EXPM1 = 16;
+    static final int SQRT = 17;
+    static final int CBRT = 18;
+    static final int CEIL = 19;
+    static final int FLOOR = 20;
+    static final int SIGNUM = 21;
+
+    private BytecodeCompiler() {
+    }
+
+    public static CompiledFunction compile(ExpressionNode node, String variable) {
+        /*
+         * Method to compile an expression tree into a CompiledFunction
+         * @param node The root of the parse tree
+         * @param variable The name of the independent variable
+         * @return A stateless, thread-safe function backed by a generated class
+         * @throws IllegalArgumentException if the tree cannot be compiled
+         */
+        byte[] classBytes = new ClassWriter(node, variable).toByteArray();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classBytes, true);
+            return (CompiledFunction) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Unable to compile expression: " + e.getMessage(), e);
+        }
+    }
+
+    //* Runtime helpers called from generated code; they keep exp4j's error behaviour
+
+    static double divide(double a, double b) {
+        if (b == 0d) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return a / b;
+    }
+
+    static double modulo(double a, double b) {
+        if (b == 0d) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        return a % b;
+    }
+
+    static double cot(double x) {
+        double tan = Math.tan(x);
+        if (tan == 0d) {
+            throw new ArithmeticException("Division by zero in cotangent!");
+        }
+        return 1d / tan;
+    }
+
+    static double log2(double x) {
+        return Math.log(x) / Math.log(2d);
+    }
+
+    static double signum(double x) {
+        if (x > 0) {
+            return 1;
+        } else if (x < 0) {
+            return -1;
+        }
+        return 0;
+    }
+
+    static int functionCode(String name) {
+        //* Opcode of a built-in function, so interpreters switch on an int instead of the name
+        for (int i = 0; i < FUNCTIONS.length; i++) {
+            if (FUNCTIONS[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown function '" + name + "'");
+    }
+
+    static double applyFunction(String name, double x) {
+        //* Interpreted counterpart of emitFunction, used for constant folding
+        return applyFunction(functionCode(name), x);
+    }
+
+    static double applyFunction(int function, double x) {
+        switch (function) {
+            case SIN: return Math.sin(x);
+            case COS: return Math.cos(x);
+            case TAN: return Math.tan(x);
+            case COT: return cot(x);
+            case ASIN: return Math.asin(x);
+            case ACOS: return Math.acos(x);
+            case ATAN: return Math.atan(x);
+            case SINH: return Math.sinh(x);
+            case COSH: return Math.cosh(x);
+            case TANH: return Math.tanh(x);
+            case ABS: return Math.abs(x);
+            case LOG: return Math.log(x);
+            case LOG10: return Math.log10(x);
+            case LOG2: return log2(x);
+            case LOG1P: return Math.log1p(x);
+            case EXP: return Math.exp(x);
+            case EXPM1: return Math.expm1(x);
+            case SQRT: return Math.sqrt(x);
+            case CBRT: return Math.cbrt(x);
+            case CEIL: return Math.ceil(x);
+            case FLOOR: return Math.floor(x);
+            case SIGNUM: return signum(x);
+            default:
+                throw new IllegalArgumentException("Unknown function code " + function);
+        }
+    }
+
+    static void checkBatch(double[] xs, double[] out) {
+        if (out.length < xs.length) {
+            throw new IllegalArgumentException("Output array is shorter than the input array.");
+        }
+    }
+
+    private static class ClassWriter {
+        //? Just enough of the class file format for a constructor, the straight-line apply(double)
+        //? and the counted loop behind evaluate(double[], double[])
+
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private final Map<String, Integer> poolIndex = new HashMap<>();
+        private int poolCount = 1;
+
+        private final ExpressionNode node;
+        private final String variable;
+
+        //* State of the method body currently being emitted
+        private ByteArrayOutputStream code;
+        private int variableSlot;
+        private int stackDepth;
+        private int maxStack;
+
+        ClassWriter(ExpressionNode node, String variable) {
+            this.node = node;
+            this.variable = variable;
+        }
+
+        byte[] toByteArray() {
+            //? public final double apply(double x) { return <expression>; }
+            beginMethod(1);
+            emit(node);
+            code.write(0xaf); // dreturn
+            byte[] applyCode = code.toByteArray();
+            int applyStack = maxStack;
+            if (applyCode.length > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Expression too large to compile.");
+            }
+
+            //? public final void evaluate(double[] xs, double[] out) {
+            //?     checkBatch(xs, out);
+            //?     for (int i = 0; i < xs.length; i++) { double x = xs[i]; out[i] = <expression>; }
+            //? }
+            beginMethod(4);
+            code.write(0x2b); // aload_1
+            code.write(0x2c); // aload_2
+            invokeStatic(OWNER, "checkBatch", "([D[D)V");
+            code.write(0x03); // iconst_0
+            code.write(0x3e); // istore_3
+            int loopStart = code.size();
+            code.write(0x1d); // iload_3
+            code.write(0x2b); // aload_1
+            code.write(0xbe); // arraylength
+            int exitBranch = code.size();
+            code.write(0xa2); // if_icmpge
+            code.write(0);
+            code.write(0);
+            code.write(0x2b); // aload_1
+            code.write(0x1d); // iload_3
+            code.write(0x31); // daload
+            code.write(0x39); // dstore
+            code.write(4);
+            code.write(0x2c); // aload_2
+            code.write(0x1d); // iload_3
+            stackDepth = 2;
+            maxStack = 2;
+            emit(node);
+            code.write(0x52); // dastore
+            code.write(0x84); // iinc
+            code.write(3);
+            code.write(1);
+            int backBranch = code.size();
+            code.write(0xa7); // goto
+            writeShort(loopStart - backBranch);
+            int loopEnd = code.size();
+            code.write(0xb1); // return
+            byte[] evaluateCode = code.toByteArray();
+            int evaluateStack = maxStack;
+            //? Loops too long for 16-bit branch offsets keep the interface's default evaluate
+            boolean emitEvaluate = evaluateCode.length <= Short.MAX_VALUE;
+            evaluateCode[exitBranch + 1] = (byte) ((loopEnd - exitBranch) >> 8);
+            evaluateCode[exitBranch + 2] = (byte) (loopEnd - exitBranch);
+
+            try {
+                int thisClass = classRef(CLASS_NAME);
+                int superClass = classRef("java/lang/Object");
+                int functionInterface = classRef("include/utils/CompiledFunction");
+                int objectInit = methodRef("java/lang/Object", "<init>", "()V");
+                int codeName = utf8("Code");
+                int stackMapName = utf8("StackMapTable");
+                int initName = utf8("<init>");
+                int initType = utf8("()V");
+                int applyName = utf8("apply");
+                int applyType = utf8("(D)D");
+                int evaluateName = utf8("evaluate");
+                int evaluateType = utf8("([D[D)V");
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(52);
+                out.writeShort(poolCount);
+                poolOut.flush();
+                pool.writeTo(out);
+                out.writeShort(0x0031); // public final super
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(functionInterface);
+                out.writeShort(0); // fields
+                out.writeShort(emitEvaluate ? 3 : 2); // methods
+
+                //? public <init>() { super(); }
+                out.writeShort(0x0001);
+                out.writeShort(initName);
+                out.writeShort(initType);
+                out.writeShort(1);
+                out.writeShort(codeName);
+                out.writeInt(12 + 5);
+                out.writeShort(1);
+                out.writeShort(1);
+                out.writeInt(5);
+                out.writeByte(0x2a); // aload_0
+                out.writeByte(0xb7); // invokespecial
+                out.writeShort(objectInit);
+                out.writeByte(0xb1); // return
+                out.writeShort(0);
+                out.writeShort(0);
+
+                out.writeShort(0x0011);
+                out.writeShort(applyName);
+                out.writeShort(applyType);
+                out.writeShort(1);
+                out.writeShort(codeName);
+                out.writeInt(12 + applyCode.length);
+                out.writeShort(applyStack);
+                out.writeShort(3);
+                out.writeInt(applyCode.length);
+                out.write(applyCode);
+                out.writeShort(0);
+                out.writeShort(0);
+
+                if (emitEvaluate) {
+                    //? Frames at the loop head (adds int i) and at the exit (same locals)
+                    ByteArrayOutputStream frames = new ByteArrayOutputStream();
+                    DataOutputStream framesOut = new DataOutputStream(frames);
+                    framesOut.writeShort(2);
+                    framesOut.writeByte(252); // append_frame, one local
+                    framesOut.writeShort(loopStart);
+                    framesOut.writeByte(1); // int
+                    int delta = loopEnd - loopStart - 1;
+                    if (delta <= 63) {
+                        framesOut.writeByte(delta); // same_frame
+                    } else {
+                        framesOut.writeByte(251); // same_frame_extended
+                        framesOut.writeShort(delta);
+                    }
+                    framesOut.flush();
+
+                    out.writeShort(0x0011);
+                    out.writeShort(evaluateName);
+                    out.writeShort(evaluateType);
+                    out.writeShort(1);
+                    out.writeShort(codeName);
+                    out.writeInt(12 + evaluateCode.length + 6 + frames.size());
+                    out.writeShort(evaluateStack);
+                    out.writeShort(6);
+                    out.writeInt(evaluateCode.length);
+                    out.write(evaluateCode);
+                    out.writeShort(0);
+                    out.writeShort(1);
+                    out.writeShort(stackMapName);
+                    out.writeInt(frames.size());
+                    frames.writeTo(out);
+                }
+
+                out.writeShort(0); // class attributes
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void beginMethod(int slot) {
+            code = new ByteArrayOutputStream();
+            variableSlot = slot;
+            stackDepth = 0;
+            maxStack = 0;
+        }
+
+        private void writeShort(int value) {
+            code.write(value >> 8);
+            code.write(value);
+        }
+
+        private void emit(ExpressionNode node) {
+            switch (node.getType()) {
+                case CONSTANT:
+                    pushConstant(node.getValue());
+                    break;
+                case VARIABLE:
+                    if (!node.getName().equals(variable)) {
+                        throw new IllegalArgumentException("Unknown variable '" + node.getName() + "'");
+                    }
+                    code.write(0x18); // dload
+                    code.write(variableSlot);
+                    push();
+                    break;
+                case NEGATE:
+                    emit(node.getLeft());
+                    code.write(0x77); // dneg
+                    break;
+                case ADD:
+                    emitBinary(node, 0x63); // dadd
+                    break;
+                case SUBTRACT:
+                    emitBinary(node, 0x67); // dsub
+                    break;
+                case MULTIPLY:
+                    emitBinary(node, 0x6b); // dmul
+                    break;
+                case DIVIDE:
+                    emit(node.getLeft());
+                    emit(node.getRight());
+                    invokeStatic(OWNER, "divide", "(DD)D");
+                    pop();
+                    break;
+                case MODULO:
+                    emit(node.getLeft());
+                    emit(node.getRight());
+                    invokeStatic(OWNER, "modulo", "(DD)D");
+                    pop();
+                    break;
+                case POWER:
+                    emit(node.getLeft());
+                    emit(node.getRight());
+                    invokeStatic("java/lang/Math", "pow", "(DD)D");
+                    pop();
+                    break;
+                default:
+                    emit(node.getLeft());
+                    emitFunction(node.getName());
+                    break;
+            }
+        }
+
+        private void emitBinary(ExpressionNode node, int opcode) {
+            emit(node.getLeft());
+            emit(node.getRight());
+            code.write(opcode);
+            pop();
+        }
+
+        private void emitFunction(String name) {
+            switch (name) {
+                case "cot":
+                case "log2":
+                case "signum":
+                    invokeStatic(OWNER, name, "(D)D");
+                    break;
+                case "sin": case "cos": case "tan": case "asin": case "acos": case "atan":
+                case "sinh": case "cosh": case "tanh": case "abs": case "log": case "log10":
+                case "log1p": case "exp": case "expm1": case "sqrt": case "cbrt": case "ceil": case "floor":
+                    invokeStatic("java/lang/Math", name, "(D)D");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown function '" + name + "'");
+            }
+        }
+
+        private void pushConstant(double value) {
+            if (Double.doubleToRawLongBits(value) == 0L) {
+                code.write(0x0e); // dconst_0
+            } else if (value == 1d) {
+                code.write(0x0f); // dconst_1
+            } else {
+                int index = doubleConstant(value);
+                code.write(0x14); // ldc2_w
+                writeShort(index);
+            }
+            push();
+        }
+
+        private void invokeStatic(String owner, String name, String descriptor) {
+            int index = methodRef(owner, name, descriptor);
+            code.write(0xb8); // invokestatic
+            writeShort(index);
+        }
+
+        private void push() {
+            stackDepth += 2;
+            maxStack = Math.max(maxStack, stackDepth);
+        }
+
+        private void pop() {
+            stackDepth -= 2;
+        }
+
+        //* Constant pool entries, de-duplicated by content
+
+        private int utf8(String value) {
+            return entry("U" + value, 1, () -> poolOut.writeUTF(value), 1);
+        }
+
+        private int classRef(String name) {
+            int nameIndex = utf8(name);
+            return entry("C" + name, 7, () -> poolOut.writeShort(nameIndex), 1);
+        }
+
+        private int methodRef(String owner, String name, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int typeIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + descriptor, 12, () -> {
+                poolOut.writeShort(nameIndex);
+                poolOut.writeShort(typeIndex);
+            }, 1);
+            return entry("M" + owner + "." + name + descriptor, 10, () -> {
+                poolOut.writeShort(ownerIndex);
+                poolOut.writeShort(nameAndType);
+            }, 1);
+        }
+
+        private int doubleConstant(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            return entry("D" + bits, 6, () -> poolOut.writeLong(bits), 2);
+        }
+
+        private interface PoolWriter {
+            void write() throws IOException;
+        }
+
+        private int entry(String key, int tag, PoolWriter writer, int slots) {
+            Integer existing = poolIndex.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                poolOut.writeByte(tag);
+                writer.write();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            int index = poolCount;
+            poolCount += slots;
+            if (poolCount > 0xffff) {
+                throw new IllegalArgumentException("Expression too large to compile.");
+            }
+            poolIndex.put(key, index);
+            return index;
+        }
+    }
+}
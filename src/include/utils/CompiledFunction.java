@@ -0,0 +1,20 @@
+package include.utils;
+
+public interface CompiledFunction {
+    //? A single-variable function compiled once and evaluated many times by the solvers
+
+    double apply(double x);
+
+    default void evaluate(double[] xs, double[] out) {
+        /*
+         * Method to evaluate the function at a whole array of points without per-point allocation
+         * @param xs The points to evaluate at
+         * @param out Receives f(xs[i]) at index i; must be at least as long as xs
+         * Generated functions override this with the expression body inlined into the loop
+         */
+        BytecodeCompiler.checkBatch(xs, out);
+        for (int i = 0; i < xs.length; i++) {
+            out[i] = apply(xs[i]);
+        }
+    }
+}
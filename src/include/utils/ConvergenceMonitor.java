@@ -0,0 +1,136 @@
+package include.utils;
+
+public class ConvergenceMonitor {
+    //? Watches the iterates of an open method (Newton, secant, fixed point) and ends a solve
+    //? that can no longer succeed instead of letting it run out the iteration budget:
+    //?     NON_FINITE   an iterate overflowed or became NaN
+    //?     DIVERGING    |x(k) - x(k-1)| grew step after step by a large overall factor
+    //?     OSCILLATING  the iterates repeat with period 2..MAX_PERIOD without shrinking
+    //?     STAGNATED    no step has been smaller than the best one for STAGNATION_WINDOW steps
+    //? The tests only look at x, so they cost a few comparisons per iteration. One monitor
+    //? belongs to one solve; RootFindingEngine feeds it after every step.
+
+    //* Consecutive growing steps, and their total growth, needed to call an iteration divergent
+    private static final int GROWTH_RUN = 6;
+    private static final double GROWTH_FACTOR = 100;
+
+    //* Longest cycle looked for
+    private static final int MAX_PERIOD = 8;
+
+    //* A cycle must repeat to this fraction of its own step size, so slowly converging
+    //* alternating iterations (g'(x) near -1) are not mistaken for one
+    private static final double CYCLE_MATCH = 1e-3;
+
+    //* Steps allowed without a new smallest step
+    private static final int STAGNATION_WINDOW = 50;
+
+    private final double tolerance;
+    private final double[] history;
+    private int count;
+    private double lastStep;
+    private int growthRun;
+    private double growthStart;
+    private double bestStep;
+    private int sinceBest;
+    private String reason;
+
+    public ConvergenceMonitor(double tolerance) {
+        /*
+         * Constructor for one solve's monitor
+         * @param tolerance The solver's step tolerance; cycles are matched within it
+         */
+        this.tolerance = tolerance;
+        this.history = new double[2 * MAX_PERIOD];
+        reset();
+    }
+
+    public void reset() {
+        count = 0;
+        lastStep = Double.NaN;
+        growthRun = 0;
+        bestStep = Double.POSITIVE_INFINITY;
+        sinceBest = 0;
+        reason = null;
+    }
+
+    public RootFindingEngine.Status observe(double x) {
+        /*
+         * Method to record the next iterate
+         * @param x The solver's estimate after its latest step
+         * @return RUNNING, or the reason the solve should stop; getReason() then describes it
+         */
+        if (!Double.isFinite(x)) {
+            reason = "the iterate became " + x;
+            return RootFindingEngine.Status.NON_FINITE;
+        }
+        history[count % history.length] = x;
+        count++;
+        if (count < 2) {
+            return RootFindingEngine.Status.RUNNING;
+        }
+
+        double step = Math.abs(x - at(1));
+        if (step > lastStep) {
+            if (growthRun == 0) {
+                growthStart = lastStep;
+            }
+            growthRun++;
+            if (growthRun >= GROWTH_RUN && growthStart > 0 && step >= GROWTH_FACTOR * growthStart) {
+                reason = String.format("|x(k) - x(k-1)| grew for %d consecutive steps, from %.6g to %.6g",
+                    growthRun, growthStart, step);
+                return RootFindingEngine.Status.DIVERGING;
+            }
+        } else {
+            growthRun = 0;
+        }
+        lastStep = step;
+
+        for (int period = 2; period <= MAX_PERIOD && 2 * period <= count; period++) {
+            if (isCycle(period)) {
+                StringBuilder points = new StringBuilder();
+                for (int i = period - 1; i >= 0; i--) {
+                    points.append(String.format("%.6g", at(i))).append(i > 0 ? ", " : "");
+                }
+                reason = String.format("the iterates cycle with period %d through %s", period, points);
+                return RootFindingEngine.Status.OSCILLATING;
+            }
+        }
+
+        if (step < bestStep) {
+            bestStep = step;
+            sinceBest = 0;
+        } else if (++sinceBest >= STAGNATION_WINDOW) {
+            reason = String.format("no step smaller than %.6g in the last %d iterations", bestStep, sinceBest);
+            return RootFindingEngine.Status.STAGNATED;
+        }
+        return RootFindingEngine.Status.RUNNING;
+    }
+
+    private boolean isCycle(int period) {
+        //? The last period iterates repeat the period before them, and the cycle does not shrink
+        double amplitude = 0;
+        for (int i = 0; i < period; i++) {
+            amplitude = Math.max(amplitude, Math.abs(at(i) - at(i + 1)));
+        }
+        if (amplitude < tolerance) {
+            return false;
+        }
+        double match = Math.min(tolerance, CYCLE_MATCH * amplitude);
+        for (int i = 0; i < period; i++) {
+            if (Math.abs(at(i) - at(i + period)) > match) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double at(int back) {
+        //* The iterate back steps before the latest one
+        return history[(count - 1 - back) % history.length];
+    }
+
+    public String getReason() {
+        //* Why observe() asked to stop, null while the iteration looks healthy
+        return reason;
+    }
+}
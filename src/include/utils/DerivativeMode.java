@@ -0,0 +1,12 @@
+package include.utils;
+
+public enum DerivativeMode {
+    //? Central difference [f(x+h) - f(x-h)] / 2h; works for any expression exp4j accepts
+    FINITE_DIFFERENCE,
+
+    //? Exact derivative differentiated symbolically and compiled once per solve
+    SYMBOLIC,
+
+    //? Forward-mode dual numbers: f, f' and f'' from a single pass over the expression
+    AUTOMATIC
+}
@@ -0,0 +1,238 @@
+package include.utils;
+
+import include.utils.ExpressionNode.Type;
+
+public class Differentiator {
+    //? Symbolic differentiation and algebraic simplification of ExpressionNode trees.
+    //? Every node is built through the simplifying constructors below, so derivatives
+    //? come out already folded (no "0*x + 1*3" style expression swell).
+
+    private static final ExpressionNode ZERO = ExpressionNode.constant(0);
+    private static final ExpressionNode ONE = ExpressionNode.constant(1);
+    private static final ExpressionNode TWO = ExpressionNode.constant(2);
+
+    private Differentiator() {
+    }
+
+    public static ExpressionNode differentiate(ExpressionNode node, String variable) {
+        /*
+         * Method to differentiate an expression tree
+         * @param node The expression to differentiate
+         * @param variable The variable to differentiate with respect to
+         * @return The simplified derivative
+         * @throws IllegalArgumentException if the expression contains a non-differentiable operation
+         */
+        return derive(simplify(node), variable);
+    }
+
+    private static ExpressionNode derive(ExpressionNode node, String variable) {
+        if (!node.dependsOn(variable)) {
+            return ZERO;
+        }
+
+        ExpressionNode u = node.getLeft();
+        ExpressionNode v = node.getRight();
+        switch (node.getType()) {
+            case VARIABLE:
+                return ONE;
+            case NEGATE:
+                return negate(derive(u, variable));
+            case ADD:
+                return add(derive(u, variable), derive(v, variable));
+            case SUBTRACT:
+                return subtract(derive(u, variable), derive(v, variable));
+            case MULTIPLY:
+                //? (uv)' = u'v + uv'
+                return add(multiply(derive(u, variable), v), multiply(u, derive(v, variable)));
+            case DIVIDE:
+                if (!v.dependsOn(variable)) {
+                    return divide(derive(u, variable), v);
+                }
+                //? (u/v)' = (u'v - uv') / v^2
+                return divide(subtract(multiply(derive(u, variable), v), multiply(u, derive(v, variable))),
+                    power(v, TWO));
+            case POWER:
+                return differentiatePower(u, v, variable);
+            case FUNCTION:
+                return multiply(differentiateFunction(node.getName(), u), derive(u, variable));
+            default:
+                throw new IllegalArgumentException("Cannot differentiate '" + node + "' symbolically.");
+        }
+    }
+
+    private static ExpressionNode differentiatePower(ExpressionNode u, ExpressionNode v, String variable) {
+        if (!v.dependsOn(variable)) {
+            //? (u^c)' = c*u^(c-1)*u'
+            return multiply(multiply(v, power(u, subtract(v, ONE))), derive(u, variable));
+        }
+        if (!u.dependsOn(variable)) {
+            //? (c^v)' = ln(c)*c^v*v'
+            return multiply(multiply(function("log", u), power(u, v)), derive(v, variable));
+        }
+        //? (u^v)' = u^v * (v'*ln(u) + v*u'/u)
+        return multiply(power(u, v), add(multiply(derive(v, variable), function("log", u)),
+            divide(multiply(v, derive(u, variable)), u)));
+    }
+
+    private static ExpressionNode differentiateFunction(String name, ExpressionNode u) {
+        //* Outer derivative f'(u); the chain rule factor u' is applied by the caller
+        switch (name) {
+            case "sin":
+                return function("cos", u);
+            case "cos":
+                return negate(function("sin", u));
+            case "tan":
+                return add(ONE, power(function("tan", u), TWO));
+            case "cot":
+                return negate(add(ONE, power(function("cot", u), TWO)));
+            case "asin":
+                return divide(ONE, function("sqrt", subtract(ONE, power(u, TWO))));
+            case "acos":
+                return negate(divide(ONE, function("sqrt", subtract(ONE, power(u, TWO)))));
+            case "atan":
+                return divide(ONE, add(ONE, power(u, TWO)));
+            case "sinh":
+                return function("cosh", u);
+            case "cosh":
+                return function("sinh", u);
+            case "tanh":
+                return subtract(ONE, power(function("tanh", u), TWO));
+            case "abs":
+                return function("signum", u);
+            case "log":
+                return divide(ONE, u);
+            case "log10":
+                return divide(ONE, multiply(ExpressionNode.constant(Math.log(10)), u));
+            case "log2":
+                return divide(ONE, multiply(ExpressionNode.constant(Math.log(2)), u));
+            case "log1p":
+                return divide(ONE, add(ONE, u));
+            case "exp":
+            case "expm1":
+                return function("exp", u);
+            case "sqrt":
+                return divide(ONE, multiply(TWO, function("sqrt", u)));
+            case "cbrt":
+                return divide(ONE, multiply(ExpressionNode.constant(3), power(function("cbrt", u), TWO)));
+            case "ceil":
+            case "floor":
+            case "signum":
+                //? Piecewise constant: zero slope everywhere the derivative exists
+                return ZERO;
+            default:
+                throw new IllegalArgumentException("Cannot differentiate function '" + name + "' symbolically.");
+        }
+    }
+
+    public static ExpressionNode simplify(ExpressionNode node) {
+        /*
+         * Method to fold constants and remove identity operations throughout a tree
+         * @param node The expression to simplify
+         * @return An equivalent, usually smaller, tree with the same domain
+         */
+        switch (node.getType()) {
+            case CONSTANT:
+            case VARIABLE:
+                return node;
+            case NEGATE:
+                return negate(simplify(node.getLeft()));
+            case FUNCTION:
+                return function(node.getName(), simplify(node.getLeft()));
+            case ADD:
+                return add(simplify(node.getLeft()), simplify(node.getRight()));
+            case SUBTRACT:
+                return subtract(simplify(node.getLeft()), simplify(node.getRight()));
+            case MULTIPLY:
+            case DIVIDE: {
+                ExpressionNode a = simplify(node.getLeft());
+                ExpressionNode b = simplify(node.getRight());
+                //? 0*u and 0/u are NaN or a division error wherever u is, so they only fold
+                //? to 0 once u is a constant; evaluating them keeps every backend's domain
+                if ((is(a, 0) && !b.isConstant()) || (node.getType() == Type.MULTIPLY && is(b, 0) && !a.isConstant())) {
+                    return ExpressionNode.binary(node.getType(), a, b);
+                }
+                return node.getType() == Type.MULTIPLY ? multiply(a, b) : divide(a, b);
+            }
+            case POWER:
+                return power(simplify(node.getLeft()), simplify(node.getRight()));
+            default:
+                return ExpressionNode.binary(node.getType(), simplify(node.getLeft()), simplify(node.getRight()));
+        }
+    }
+
+    //* Simplifying constructors
+
+    private static boolean is(ExpressionNode node, double value) {
+        return node.isConstant() && node.getValue() == value;
+    }
+
+    static ExpressionNode add(ExpressionNode a, ExpressionNode b) {
+        if (a.isConstant() && b.isConstant()) return ExpressionNode.constant(a.getValue() + b.getValue());
+        if (is(a, 0)) return b;
+        if (is(b, 0)) return a;
+        if (b.getType() == Type.NEGATE) return subtract(a, b.getLeft());
+        if (a.getType() == Type.NEGATE) return subtract(b, a.getLeft());
+        return ExpressionNode.binary(Type.ADD, a, b);
+    }
+
+    static ExpressionNode subtract(ExpressionNode a, ExpressionNode b) {
+        if (a.isConstant() && b.isConstant()) return ExpressionNode.constant(a.getValue() - b.getValue());
+        if (is(b, 0)) return a;
+        if (is(a, 0)) return negate(b);
+        if (b.getType() == Type.NEGATE) return add(a, b.getLeft());
+        return ExpressionNode.binary(Type.SUBTRACT, a, b);
+    }
+
+    static ExpressionNode multiply(ExpressionNode a, ExpressionNode b) {
+        if (a.isConstant() && b.isConstant()) return ExpressionNode.constant(a.getValue() * b.getValue());
+        if (is(a, 0) || is(b, 0)) return ZERO;
+        if (is(a, 1)) return b;
+        if (is(b, 1)) return a;
+        if (is(a, -1)) return negate(b);
+        if (is(b, -1)) return negate(a);
+        if (a.getType() == Type.NEGATE) return negate(multiply(a.getLeft(), b));
+        if (b.getType() == Type.NEGATE) return negate(multiply(a, b.getLeft()));
+        //? Keep constant factors on the left and merge them: c1*(c2*u) = (c1*c2)*u
+        if (b.isConstant()) return multiply(b, a);
+        if (a.isConstant() && b.getType() == Type.MULTIPLY && b.getLeft().isConstant()
+                && a.getValue() * b.getLeft().getValue() != 0) {
+            return multiply(ExpressionNode.constant(a.getValue() * b.getLeft().getValue()), b.getRight());
+        }
+        return ExpressionNode.binary(Type.MULTIPLY, a, b);
+    }
+
+    static ExpressionNode divide(ExpressionNode a, ExpressionNode b) {
+        //? x/0 is left unfolded so evaluation still raises exp4j's division-by-zero error
+        if (a.isConstant() && b.isConstant() && b.getValue() != 0) {
+            return ExpressionNode.constant(a.getValue() / b.getValue());
+        }
+        if (is(a, 0) && !is(b, 0)) return ZERO;
+        if (is(b, 1)) return a;
+        if (a.getType() == Type.NEGATE) return negate(divide(a.getLeft(), b));
+        return ExpressionNode.binary(Type.DIVIDE, a, b);
+    }
+
+    static ExpressionNode power(ExpressionNode a, ExpressionNode b) {
+        if (a.isConstant() && b.isConstant()) return ExpressionNode.constant(Math.pow(a.getValue(), b.getValue()));
+        if (is(b, 0)) return ONE;
+        if (is(b, 1)) return a;
+        return ExpressionNode.binary(Type.POWER, a, b);
+    }
+
+    static ExpressionNode negate(ExpressionNode a) {
+        if (a.isConstant()) return ExpressionNode.constant(-a.getValue());
+        if (a.getType() == Type.NEGATE) return a.getLeft();
+        return ExpressionNode.negate(a);
+    }
+
+    static ExpressionNode function(String name, ExpressionNode a) {
+        if (a.isConstant()) {
+            try {
+                return ExpressionNode.constant(BytecodeCompiler.applyFunction(name, a.getValue()));
+            } catch (ArithmeticException e) {
+                //? Keep e.g. cot(0) symbolic so it fails at evaluation time like the original
+            }
+        }
+        return ExpressionNode.function(name, a);
+    }
+}
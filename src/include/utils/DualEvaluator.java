@@ -0,0 +1,281 @@
+package include.utils;
+
+public class DualEvaluator implements CompiledFunction {
+    //? Forward-mode automatic differentiation: one pass over the expression computes f(x),
+    //? f'(x) and f''(x) together using truncated Taylor (dual number) arithmetic on primitive
+    //? doubles. The tree is flattened once into a postfix program and the three operand
+    //? stacks are preallocated, so evaluate() never allocates.
+    //? Not thread-safe: each solve creates its own evaluator.
+
+    private static final int CONSTANT = 0;
+    private static final int VARIABLE = 1;
+    private static final int ADD = 2;
+    private static final int SUBTRACT = 3;
+    private static final int MULTIPLY = 4;
+    private static final int DIVIDE = 5;
+    private static final int MODULO = 6;
+    private static final int POWER = 7;
+    private static final int NEGATE = 8;
+    private static final int FUNCTION = 9;
+    private static final int PARAMETER = 10;
+
+    private static final double LN_10 = Math.log(10);
+    private static final double LN_2 = Math.log(2);
+
+    private final String variable;
+    private final String parameter;
+    private double parameterValue;
+    private int[] program;
+    private double[] constants;
+    private int programLength;
+    private int constantCount;
+    private int depth;
+    private int maxDepth;
+
+    //* Operand stacks: value, first derivative, second derivative
+    private final double[] value;
+    private final double[] first;
+    private final double[] second;
+
+    public DualEvaluator(ExpressionNode node, String variable) {
+        this(node, variable, null);
+    }
+
+    public DualEvaluator(ExpressionNode node, String variable, String parameter) {
+        /*
+         * Constructor to flatten an expression tree into a dual-number program
+         * @param node The expression to evaluate
+         * @param variable The variable derivatives are taken with respect to
+         * @param parameter A second name held constant at the value given to setParameter, or null
+         * @throws IllegalArgumentException if the tree uses an unknown variable or function
+         */
+        this.variable = variable;
+        this.parameter = parameter;
+        this.program = new int[32];
+        this.constants = new double[8];
+        flatten(node);
+        this.value = new double[maxDepth];
+        this.first = new double[maxDepth];
+        this.second = new double[maxDepth];
+    }
+
+    private void flatten(ExpressionNode node) {
+        switch (node.getType()) {
+            case CONSTANT:
+                if (constantCount == constants.length) {
+                    constants = java.util.Arrays.copyOf(constants, constantCount * 2);
+                }
+                constants[constantCount] = node.getValue();
+                emit(CONSTANT, constantCount++);
+                push();
+                break;
+            case VARIABLE:
+                if (node.getName().equals(variable)) {
+                    emit(VARIABLE, 0);
+                } else if (node.getName().equals(parameter)) {
+                    emit(PARAMETER, 0);
+                } else {
+                    throw new IllegalArgumentException("Unknown variable '" + node.getName() + "'");
+                }
+                push();
+                break;
+            case NEGATE:
+                flatten(node.getLeft());
+                emit(NEGATE, 0);
+                break;
+            case FUNCTION:
+                flatten(node.getLeft());
+                emit(FUNCTION, BytecodeCompiler.functionCode(node.getName()));
+                break;
+            default:
+                flatten(node.getLeft());
+                flatten(node.getRight());
+                emit(binaryOpcode(node.getType()), 0);
+                depth--;
+                break;
+        }
+    }
+
+    private static int binaryOpcode(ExpressionNode.Type type) {
+        switch (type) {
+            case ADD: return ADD;
+            case SUBTRACT: return SUBTRACT;
+            case MULTIPLY: return MULTIPLY;
+            case DIVIDE: return DIVIDE;
+            case MODULO: return MODULO;
+            default: return POWER;
+        }
+    }
+
+    private void emit(int opcode, int operand) {
+        if (programLength + 2 > program.length) {
+            program = java.util.Arrays.copyOf(program, program.length * 2);
+        }
+        program[programLength++] = opcode;
+        program[programLength++] = operand;
+    }
+
+    private void push() {
+        depth++;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    public double evaluate(double x) {
+        /*
+         * Method to evaluate f, f' and f'' at a point in a single pass
+         * @param x The point to evaluate at
+         * @return f(x); the derivatives are read with getFirstDerivative and getSecondDerivative
+         * @throws ArithmeticException on division by zero, like the other backends
+         */
+        int top = -1;
+        for (int pc = 0; pc < programLength; pc += 2) {
+            switch (program[pc]) {
+                case CONSTANT:
+                    top++;
+                    value[top] = constants[program[pc + 1]];
+                    first[top] = 0;
+                    second[top] = 0;
+                    break;
+                case VARIABLE:
+                    top++;
+                    value[top] = x;
+                    first[top] = 1;
+                    second[top] = 0;
+                    break;
+                case PARAMETER:
+                    top++;
+                    value[top] = parameterValue;
+                    first[top] = 0;
+                    second[top] = 0;
+                    break;
+                case NEGATE:
+                    value[top] = -value[top];
+                    first[top] = -first[top];
+                    second[top] = -second[top];
+                    break;
+                case FUNCTION:
+                    applyFunction(program[pc + 1], top);
+                    break;
+                default:
+                    applyBinary(program[pc], top - 1, top);
+                    top--;
+                    break;
+            }
+        }
+        return value[0];
+    }
+
+    @Override
+    public double apply(double x) {
+        return evaluate(x);
+    }
+
+    public void setParameter(double value) {
+        //* Value substituted for the parameter name by every following evaluate()
+        this.parameterValue = value;
+    }
+
+    public double getValue() {
+        return value[0];
+    }
+
+    public double getFirstDerivative() {
+        return first[0];
+    }
+
+    public double getSecondDerivative() {
+        return second[0];
+    }
+
+    private void applyBinary(int opcode, int a, int b) {
+        //* Combine slots a (left) and b (right) into slot a
+        double u0 = value[a], u1 = first[a], u2 = second[a];
+        double v0 = value[b], v1 = first[b], v2 = second[b];
+        switch (opcode) {
+            case ADD:
+                value[a] = u0 + v0;
+                first[a] = u1 + v1;
+                second[a] = u2 + v2;
+                break;
+            case SUBTRACT:
+                value[a] = u0 - v0;
+                first[a] = u1 - v1;
+                second[a] = u2 - v2;
+                break;
+            case MULTIPLY:
+                value[a] = u0 * v0;
+                first[a] = u1 * v0 + u0 * v1;
+                second[a] = u2 * v0 + 2 * u1 * v1 + u0 * v2;
+                break;
+            case DIVIDE: {
+                double w0 = BytecodeCompiler.divide(u0, v0);
+                double w1 = (u1 - w0 * v1) / v0;
+                value[a] = w0;
+                first[a] = w1;
+                second[a] = (u2 - 2 * w1 * v1 - w0 * v2) / v0;
+                break;
+            }
+            case MODULO: {
+                //? u % v = u - v*trunc(u/v); the truncated quotient is locally constant
+                double quotient = (u0 - BytecodeCompiler.modulo(u0, v0)) / v0;
+                value[a] = BytecodeCompiler.modulo(u0, v0);
+                first[a] = u1 - v1 * quotient;
+                second[a] = u2 - v2 * quotient;
+                break;
+            }
+            default: {
+                double w0 = Math.pow(u0, v0);
+                value[a] = w0;
+                if (v1 == 0 && v2 == 0) {
+                    //? Constant exponent: d/dx u^c = c*u^(c-1)*u', well defined for u <= 0 too
+                    double d1 = v0 * Math.pow(u0, v0 - 1);
+                    double d2 = v0 * (v0 - 1) * Math.pow(u0, v0 - 2);
+                    first[a] = d1 * u1;
+                    second[a] = d2 * u1 * u1 + d1 * u2;
+                } else {
+                    //? General case through u^v = exp(v*ln(u))
+                    double log = Math.log(u0);
+                    double t1 = v1 * log + v0 * u1 / u0;
+                    double t2 = v2 * log + 2 * v1 * u1 / u0 + v0 * (u2 / u0 - (u1 * u1) / (u0 * u0));
+                    first[a] = w0 * t1;
+                    second[a] = w0 * (t2 + t1 * t1);
+                }
+                break;
+            }
+        }
+    }
+
+    private void applyFunction(int function, int slot) {
+        //? Chain rule: w' = g'(u)u', w'' = g''(u)u'^2 + g'(u)u''
+        double u = value[slot];
+        double g = BytecodeCompiler.applyFunction(function, u);
+        double d1;
+        double d2;
+        switch (function) {
+            case BytecodeCompiler.SIN: d1 = Math.cos(u); d2 = -g; break;
+            case BytecodeCompiler.COS: d1 = -Math.sin(u); d2 = -g; break;
+            case BytecodeCompiler.TAN: d1 = 1 + g * g; d2 = 2 * g * d1; break;
+            case BytecodeCompiler.COT: d1 = -(1 + g * g); d2 = -2 * g * d1; break;
+            case BytecodeCompiler.ASIN: d1 = 1 / Math.sqrt(1 - u * u); d2 = u * d1 * d1 * d1; break;
+            case BytecodeCompiler.ACOS: d1 = -1 / Math.sqrt(1 - u * u); d2 = u * d1 * d1 * d1; break;
+            case BytecodeCompiler.ATAN: d1 = 1 / (1 + u * u); d2 = -2 * u * d1 * d1; break;
+            case BytecodeCompiler.SINH: d1 = Math.cosh(u); d2 = g; break;
+            case BytecodeCompiler.COSH: d1 = Math.sinh(u); d2 = g; break;
+            case BytecodeCompiler.TANH: d1 = 1 - g * g; d2 = -2 * g * d1; break;
+            case BytecodeCompiler.ABS: d1 = BytecodeCompiler.signum(u); d2 = 0; break;
+            case BytecodeCompiler.LOG: d1 = 1 / u; d2 = -d1 * d1; break;
+            case BytecodeCompiler.LOG10: d1 = 1 / (u * LN_10); d2 = -d1 / u; break;
+            case BytecodeCompiler.LOG2: d1 = 1 / (u * LN_2); d2 = -d1 / u; break;
+            case BytecodeCompiler.LOG1P: d1 = 1 / (1 + u); d2 = -d1 * d1; break;
+            case BytecodeCompiler.EXP: d1 = g; d2 = g; break;
+            case BytecodeCompiler.EXPM1: d1 = Math.exp(u); d2 = d1; break;
+            case BytecodeCompiler.SQRT: d1 = 1 / (2 * g); d2 = -d1 / (2 * u); break;
+            case BytecodeCompiler.CBRT: d1 = 1 / (3 * g * g); d2 = -2 * d1 / (3 * u); break;
+            default: d1 = 0; d2 = 0; break;
+        }
+        double u1 = first[slot];
+        value[slot] = g;
+        first[slot] = d1 * u1;
+        second[slot] = d2 * u1 * u1 + d1 * second[slot];
+    }
+}
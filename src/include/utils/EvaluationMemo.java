@@ -0,0 +1,97 @@
+package include.utils;
+
+public class EvaluationMemo {
+    //? Exact-key memo of f(x) for a single solve. Keys are the raw bits of x, so only a repeat of
+    //? the very same double is a hit. The table is fixed-size open addressing over primitive
+    //? arrays: lookups never allocate, and when a probe run is full the home slot is overwritten.
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    //* Linear probes tried before an entry gives way
+    private static final int MAX_PROBES = 8;
+
+    private final long[] keys;
+    private final double[] values;
+    private final boolean[] used;
+    private final int mask;
+    private int hits;
+
+    public EvaluationMemo() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EvaluationMemo(int capacity) {
+        /*
+         * Constructor to create an empty memo
+         * @param capacity Number of slots, rounded up to a power of two
+         */
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Memo capacity must be positive.");
+        }
+        int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+        this.keys = new long[size];
+        this.values = new double[size];
+        this.used = new boolean[size];
+        this.mask = size - 1;
+    }
+
+    public int indexOf(double x) {
+        /*
+         * Method to look up a previously stored point
+         * @param x The point
+         * @return The slot holding f(x), or -1 if x has not been stored
+         */
+        long key = Double.doubleToLongBits(x);
+        int slot = home(key);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int i = (slot + probe) & mask;
+            if (!used[i]) {
+                return -1;
+            }
+            if (keys[i] == key) {
+                hits++;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public double valueAt(int slot) {
+        return values[slot];
+    }
+
+    public void put(double x, double value) {
+        long key = Double.doubleToLongBits(x);
+        int slot = home(key);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int i = (slot + probe) & mask;
+            if (!used[i] || keys[i] == key) {
+                store(i, key, value);
+                return;
+            }
+        }
+        //? Probe run full: overwrite the home slot; a lost entry only costs a re-evaluation
+        store(slot, key, value);
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(used, false);
+        hits = 0;
+    }
+
+    private void store(int slot, long key, double value) {
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+    }
+
+    private int home(long key) {
+        //* Fibonacci hashing of the folded bits; neighbouring doubles land far apart
+        long h = (key ^ (key >>> 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 40) & mask;
+    }
+}
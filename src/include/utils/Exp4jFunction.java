@@ -0,0 +1,21 @@
+package include.utils;
+
+import net.objecthunter.exp4j.Expression;
+
+public class Exp4jFunction implements CompiledFunction {
+    //? Adapter running a compiled exp4j expression through the CompiledFunction interface
+    //? Not thread-safe: every solve gets its own copy from ExpressionCache
+
+    private final Expression expression;
+    private final String variable;
+
+    public Exp4jFunction(Expression expression, String variable) {
+        this.expression = expression;
+        this.variable = variable;
+    }
+
+    @Override
+    public double apply(double x) {
+        return expression.setVariable(variable, x).evaluate();
+    }
+}
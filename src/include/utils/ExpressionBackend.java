@@ -0,0 +1,9 @@
+package include.utils;
+
+public enum ExpressionBackend {
+    //? exp4j's token interpreter, kept as the reference implementation and fallback
+    EXP4J,
+
+    //? Expression compiled into a hidden JVM class with a primitive apply(double)
+    BYTECODE
+}
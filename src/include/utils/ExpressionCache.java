@@ -0,0 +1,146 @@
+package include.utils;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+
+public class ExpressionCache {
+    //? Shared, bounded LRU caches of compiled expressions keyed by (expression text, variable name)
+    //? so repeated solves of the same function skip tokenizing, parsing and code generation
+
+    private static final int MAX_ENTRIES = 64;
+
+    private static final LruCache<String, Expression> expressions = new LruCache<>(MAX_ENTRIES);
+    private static final LruCache<String, CompiledFunction> compiledFunctions = new LruCache<>(MAX_ENTRIES);
+    private static final LruCache<String, ExpressionNode> trees = new LruCache<>(MAX_ENTRIES);
+
+    //* Cached in place of a compiled function for text the bytecode backend cannot handle,
+    //* so later solves go straight to exp4j instead of failing to parse it again
+    private static final CompiledFunction NOT_COMPILABLE = x -> Double.NaN;
+
+    private ExpressionCache() {
+    }
+
+    public static Expression get(String expression, String variable) {
+        /*
+         * Method to retrieve a compiled exp4j expression, parsing it only on a cache miss
+         * @param expression The function text, e.g. "x^3 - x - 1"
+         * @param variable The name of the independent variable
+         * @return A private copy of the compiled expression, ready to be rebound with setVariable
+         */
+        String key = key(expression, variable);
+        Expression prototype = expressions.get(key);
+
+        if (prototype == null) {
+            prototype = new ExpressionBuilder(expression)
+                .variables(variable)
+                .build();
+            expressions.put(key, prototype);
+        }
+
+        //? The copy shares the parsed tokens but owns its variable bindings
+        return new Expression(prototype);
+    }
+
+    public static CompiledFunction getFunction(String expression, String variable, ExpressionBackend backend) {
+        /*
+         * Method to retrieve a function compiled with the requested backend
+         * @param expression The function text
+         * @param variable The name of the independent variable
+         * @param backend The evaluation engine to compile for
+         * @return A function ready to evaluate; BYTECODE falls back to exp4j for syntax it cannot compile
+         * BYTECODE evaluates polynomials written as a sum of terms with Horner's scheme instead
+         */
+        if (backend == ExpressionBackend.BYTECODE) {
+            String key = key(expression, variable);
+            CompiledFunction compiled = compiledFunctions.get(key);
+            if (compiled == null) {
+                try {
+                    ExpressionNode tree = getTree(expression, variable);
+                    compiled = Polynomial.extract(tree, variable);
+                    if (compiled == null) {
+                        compiled = BytecodeCompiler.compile(tree, variable);
+                    }
+                } catch (IllegalArgumentException e) {
+                    compiled = NOT_COMPILABLE;
+                }
+                compiledFunctions.put(key, compiled);
+            }
+            if (compiled == NOT_COMPILABLE) {
+                //? exp4j functions hold their variable bindings, so each solve gets a fresh copy
+                return new Exp4jFunction(get(expression, variable), variable);
+            }
+            //? Generated functions are stateless, so one instance is shared by every solve
+            return compiled;
+        }
+        return new Exp4jFunction(get(expression, variable), variable);
+    }
+
+    public static ExpressionNode getTree(String expression, String variable) {
+        /*
+         * Method to retrieve the parse tree of an expression
+         * @throws IllegalArgumentException if the text cannot be parsed
+         */
+        String key = key(expression, variable);
+        ExpressionNode tree = trees.get(key);
+        if (tree == null) {
+            tree = ExpressionParser.parse(expression, variable);
+            trees.put(key, tree);
+        }
+        return tree;
+    }
+
+    public static ExpressionNode getDerivativeTree(String expression, String variable) {
+        /*
+         * Method to retrieve the simplified symbolic derivative of an expression
+         * @throws IllegalArgumentException if the expression cannot be parsed or differentiated
+         */
+        String key = derivativeKey(expression, variable);
+        ExpressionNode tree = trees.get(key);
+        if (tree == null) {
+            tree = Differentiator.differentiate(getTree(expression, variable), variable);
+            trees.put(key, tree);
+        }
+        return tree;
+    }
+
+    public static CompiledFunction getDerivative(String expression, String variable) {
+        /*
+         * Method to retrieve the symbolic derivative compiled to bytecode
+         * @throws IllegalArgumentException if the expression cannot be parsed or differentiated
+         */
+        String key = derivativeKey(expression, variable);
+        CompiledFunction compiled = compiledFunctions.get(key);
+        if (compiled == null) {
+            compiled = BytecodeCompiler.compile(getDerivativeTree(expression, variable), variable);
+            compiledFunctions.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    public static Polynomial getPolynomial(String expression, String variable) {
+        /*
+         * Method to read an expression as a polynomial, multiplying out products and powers
+         * @return The coefficients wrapped as a Polynomial, or null if the expression is not one
+         * @throws IllegalArgumentException if the text cannot be parsed
+         */
+        return Polynomial.expand(getTree(expression, variable), variable);
+    }
+
+    public static void clear() {
+        expressions.clear();
+        compiledFunctions.clear();
+        trees.clear();
+    }
+
+    public static int size() {
+        return expressions.size() + compiledFunctions.size() + trees.size();
+    }
+
+    private static String key(String expression, String variable) {
+        return variable + '\u0000' + expression;
+    }
+
+    private static String derivativeKey(String expression, String variable) {
+        return "d/d" + variable + '\u0000' + expression;
+    }
+}
@@ -0,0 +1,131 @@
+package include.utils;
+
+public class ExpressionNode {
+    //? Immutable parse tree node for the solver expression language
+
+    public enum Type {
+        CONSTANT, VARIABLE, ADD, SUBTRACT, MULTIPLY, DIVIDE, MODULO, POWER, NEGATE, FUNCTION
+    }
+
+    private final Type type;
+    private final double value;
+    private final String name;
+    private final ExpressionNode left;
+    private final ExpressionNode right;
+
+    private ExpressionNode(Type type, double value, String name, ExpressionNode left, ExpressionNode right) {
+        this.type = type;
+        this.value = value;
+        this.name = name;
+        this.left = left;
+        this.right = right;
+    }
+
+    public static ExpressionNode constant(double value) {
+        return new ExpressionNode(Type.CONSTANT, value, null, null, null);
+    }
+
+    public static ExpressionNode variable(String name) {
+        return new ExpressionNode(Type.VARIABLE, 0, name, null, null);
+    }
+
+    public static ExpressionNode binary(Type type, ExpressionNode left, ExpressionNode right) {
+        return new ExpressionNode(type, 0, null, left, right);
+    }
+
+    public static ExpressionNode negate(ExpressionNode operand) {
+        return new ExpressionNode(Type.NEGATE, 0, null, operand, null);
+    }
+
+    public static ExpressionNode function(String name, ExpressionNode argument) {
+        return new ExpressionNode(Type.FUNCTION, 0, name, argument, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExpressionNode getLeft() {
+        return left;
+    }
+
+    public ExpressionNode getRight() {
+        return right;
+    }
+
+    public boolean isConstant() {
+        return type == Type.CONSTANT;
+    }
+
+    public boolean dependsOn(String variable) {
+        //* Check whether the variable appears anywhere below this node
+        switch (type) {
+            case CONSTANT:
+                return false;
+            case VARIABLE:
+                return name.equals(variable);
+            case NEGATE:
+            case FUNCTION:
+                return left.dependsOn(variable);
+            default:
+                return left.dependsOn(variable) || right.dependsOn(variable);
+        }
+    }
+
+    private int precedence() {
+        switch (type) {
+            case ADD:
+            case SUBTRACT:
+                return 1;
+            case MULTIPLY:
+            case DIVIDE:
+            case MODULO:
+                return 2;
+            case NEGATE:
+                return 3;
+            case POWER:
+                return 4;
+            default:
+                return 5;
+        }
+    }
+
+    private static String wrap(ExpressionNode child, boolean parenthesize) {
+        return parenthesize ? "(" + child + ")" : child.toString();
+    }
+
+    @Override
+    public String toString() {
+        //? Render back into syntax the parser (and exp4j) accept, adding only the needed parentheses
+        switch (type) {
+            case CONSTANT:
+                if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                    return String.valueOf((long) value);
+                }
+                return String.valueOf(value);
+            case VARIABLE:
+                return name;
+            case NEGATE:
+                return "-" + wrap(left, left.precedence() < precedence() || left.type == Type.NEGATE
+                    || (left.isConstant() && left.value < 0));
+            case FUNCTION:
+                return name + "(" + left + ")";
+            case POWER:
+                return wrap(left, left.precedence() <= precedence() || (left.isConstant() && left.value < 0))
+                    + "^" + wrap(right, right.precedence() < precedence());
+            default:
+                String operator = type == Type.ADD ? " + " : type == Type.SUBTRACT ? " - "
+                    : type == Type.MULTIPLY ? "*" : type == Type.DIVIDE ? "/" : "%";
+                return wrap(left, left.precedence() < precedence())
+                    + operator + wrap(right, right.precedence() <= precedence());
+        }
+    }
+}
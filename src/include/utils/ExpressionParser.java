@@ -0,0 +1,366 @@
+package include.utils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+public class ExpressionParser {
+    //? Parses the same syntax exp4j accepts (implicit multiplication, unary minus, ^ binding
+    //? tighter than unary minus, constants pi/e) into an ExpressionNode tree.
+    //? It also understands the extra function names Start.getVariableFromEquation skips.
+
+    private static final int NUMBER = 1;
+    private static final int OPERATOR = 2;
+    private static final int FUNCTION = 3;
+    private static final int OPEN_PARENTHESES = 4;
+    private static final int CLOSE_PARENTHESES = 5;
+    private static final int VARIABLE = 6;
+    private static final int SEPARATOR = 7;
+
+    //? Precedences mirror exp4j so both backends build the same tree
+    private static final int PRECEDENCE_ADDITION = 500;
+    private static final int PRECEDENCE_MULTIPLICATION = 1000;
+    private static final int PRECEDENCE_UNARY = 5000;
+    private static final int PRECEDENCE_POWER = 10000;
+
+    private static final Set<String> FUNCTIONS = new HashSet<>(Arrays.asList(
+        "sin", "cos", "tan", "cot", "sec", "csc",
+        "asin", "acos", "atan", "acot", "asec", "acsc",
+        "sinh", "cosh", "tanh", "coth", "sech", "csch",
+        "log", "ln", "log10", "log2", "log1p", "exp", "expm1",
+        "sqrt", "cbrt", "abs", "ceil", "floor", "signum", "pow"));
+
+    private static class Token {
+        final int type;
+        final double value;
+        final String name;
+        final char operator;
+        final boolean unary;
+
+        Token(int type, double value, String name, char operator, boolean unary) {
+            this.type = type;
+            this.value = value;
+            this.name = name;
+            this.operator = operator;
+            this.unary = unary;
+        }
+
+        int precedence() {
+            if (unary) return PRECEDENCE_UNARY;
+            switch (operator) {
+                case '+':
+                case '-':
+                    return PRECEDENCE_ADDITION;
+                case '^':
+                    return PRECEDENCE_POWER;
+                default:
+                    return PRECEDENCE_MULTIPLICATION;
+            }
+        }
+
+        boolean isLeftAssociative() {
+            return !unary && operator != '^';
+        }
+    }
+
+    private final char[] expression;
+    private final Set<String> variables;
+    private int pos;
+    private Token lastToken;
+
+    private ExpressionParser(String expression, String... variables) {
+        this.expression = expression.trim().toCharArray();
+        this.variables = new HashSet<>(Arrays.asList(variables));
+        this.variables.addAll(Arrays.asList("pi", "π", "e", "φ"));
+    }
+
+    public static ExpressionNode parse(String expression, String... variables) {
+        /*
+         * Method to parse an expression into a tree
+         * @param expression The function text, e.g. "x^3 - 4cos(x)"
+         * @param variables The names of the free variables
+         * @return The root of the parse tree
+         * @throws IllegalArgumentException if the text is not a valid expression
+         */
+        return new ExpressionParser(expression, variables).parse();
+    }
+
+    private ExpressionNode parse() {
+        //? Dijkstra's shunting-yard, building tree nodes instead of a postfix token list
+        Deque<Token> operators = new ArrayDeque<>();
+        Deque<ExpressionNode> output = new ArrayDeque<>();
+
+        while (pos < expression.length) {
+            Token token = nextToken();
+            switch (token.type) {
+                case NUMBER:
+                case VARIABLE:
+                    output.push(operand(token));
+                    break;
+                case FUNCTION:
+                    operators.push(token);
+                    break;
+                case SEPARATOR:
+                    while (!operators.isEmpty() && operators.peek().type != OPEN_PARENTHESES) {
+                        reduce(operators.pop(), output);
+                    }
+                    if (operators.isEmpty()) {
+                        throw new IllegalArgumentException("Misplaced function separator ',' or mismatched parentheses");
+                    }
+                    break;
+                case OPERATOR:
+                    while (!operators.isEmpty() && operators.peek().type == OPERATOR) {
+                        Token top = operators.peek();
+                        if (token.unary && !top.unary) {
+                            break;
+                        }
+                        if ((token.isLeftAssociative() && token.precedence() <= top.precedence())
+                                || token.precedence() < top.precedence()) {
+                            reduce(operators.pop(), output);
+                        } else {
+                            break;
+                        }
+                    }
+                    operators.push(token);
+                    break;
+                case OPEN_PARENTHESES:
+                    operators.push(token);
+                    break;
+                default:
+                    while (!operators.isEmpty() && operators.peek().type != OPEN_PARENTHESES) {
+                        reduce(operators.pop(), output);
+                    }
+                    if (operators.isEmpty()) {
+                        throw new IllegalArgumentException("Mismatched parentheses detected. Please check the expression");
+                    }
+                    operators.pop();
+                    if (!operators.isEmpty() && operators.peek().type == FUNCTION) {
+                        reduce(operators.pop(), output);
+                    }
+                    break;
+            }
+        }
+
+        while (!operators.isEmpty()) {
+            Token token = operators.pop();
+            if (token.type == OPEN_PARENTHESES) {
+                throw new IllegalArgumentException("Mismatched parentheses detected. Please check the expression");
+            }
+            reduce(token, output);
+        }
+
+        if (output.size() != 1) {
+            throw new IllegalArgumentException("Invalid number of operands available");
+        }
+        return output.pop();
+    }
+
+    private ExpressionNode operand(Token token) {
+        if (token.type == NUMBER) {
+            return ExpressionNode.constant(token.value);
+        }
+        switch (token.name) {
+            case "pi":
+            case "π":
+                return ExpressionNode.constant(Math.PI);
+            case "e":
+                return ExpressionNode.constant(Math.E);
+            case "φ":
+                return ExpressionNode.constant(1.61803398874d);
+            default:
+                return ExpressionNode.variable(token.name);
+        }
+    }
+
+    private void reduce(Token token, Deque<ExpressionNode> output) {
+        //* Pop the operands of an operator or function and push the combined node
+        if (token.type == FUNCTION) {
+            if (token.name.equals("pow")) {
+                ExpressionNode exponent = pop(output);
+                output.push(ExpressionNode.binary(ExpressionNode.Type.POWER, pop(output), exponent));
+            } else {
+                output.push(function(token.name, pop(output)));
+            }
+            return;
+        }
+
+        if (token.unary) {
+            ExpressionNode operand = pop(output);
+            output.push(token.operator == '-' ? ExpressionNode.negate(operand) : operand);
+            return;
+        }
+
+        ExpressionNode right = pop(output);
+        ExpressionNode left = pop(output);
+        ExpressionNode.Type type;
+        switch (token.operator) {
+            case '+': type = ExpressionNode.Type.ADD; break;
+            case '-': type = ExpressionNode.Type.SUBTRACT; break;
+            case '*': type = ExpressionNode.Type.MULTIPLY; break;
+            case '/': type = ExpressionNode.Type.DIVIDE; break;
+            case '%': type = ExpressionNode.Type.MODULO; break;
+            default: type = ExpressionNode.Type.POWER; break;
+        }
+        output.push(ExpressionNode.binary(type, left, right));
+    }
+
+    private static ExpressionNode function(String name, ExpressionNode argument) {
+        //? Reciprocal and inverse-reciprocal functions are rewritten in terms of the core set
+        ExpressionNode one = ExpressionNode.constant(1);
+        switch (name) {
+            case "ln":
+                return ExpressionNode.function("log", argument);
+            case "sec":
+                return ExpressionNode.binary(ExpressionNode.Type.DIVIDE, one, ExpressionNode.function("cos", argument));
+            case "csc":
+                return ExpressionNode.binary(ExpressionNode.Type.DIVIDE, one, ExpressionNode.function("sin", argument));
+            case "coth":
+                return ExpressionNode.binary(ExpressionNode.Type.DIVIDE, one, ExpressionNode.function("tanh", argument));
+            case "sech":
+                return ExpressionNode.binary(ExpressionNode.Type.DIVIDE, one, ExpressionNode.function("cosh", argument));
+            case "csch":
+                return ExpressionNode.binary(ExpressionNode.Type.DIVIDE, one, ExpressionNode.function("sinh", argument));
+            case "acot":
+                return ExpressionNode.function("atan", ExpressionNode.binary(ExpressionNode.Type.DIVIDE, one, argument));
+            case "asec":
+                return ExpressionNode.function("acos", ExpressionNode.binary(ExpressionNode.Type.DIVIDE, one, argument));
+            case "acsc":
+                return ExpressionNode.function("asin", ExpressionNode.binary(ExpressionNode.Type.DIVIDE, one, argument));
+            default:
+                return ExpressionNode.function(name, argument);
+        }
+    }
+
+    private static ExpressionNode pop(Deque<ExpressionNode> output) {
+        if (output.isEmpty()) {
+            throw new IllegalArgumentException("Invalid number of operands available");
+        }
+        return output.pop();
+    }
+
+    private boolean followsOperand() {
+        //? exp4j inserts an implicit '*' after a number, variable or closing parenthesis
+        return lastToken != null && lastToken.type != OPERATOR && lastToken.type != OPEN_PARENTHESES
+            && lastToken.type != FUNCTION && lastToken.type != SEPARATOR;
+    }
+
+    private Token implicitMultiplication() {
+        lastToken = new Token(OPERATOR, 0, null, '*', false);
+        return lastToken;
+    }
+
+    private Token nextToken() {
+        char ch = expression[pos];
+        while (Character.isWhitespace(ch)) {
+            ch = expression[++pos];
+        }
+
+        if (Character.isDigit(ch) || ch == '.') {
+            if (lastToken != null && lastToken.type == NUMBER) {
+                throw unableToParse(ch);
+            }
+            if (followsOperand()) {
+                return implicitMultiplication();
+            }
+            return parseNumber();
+        }
+        if (ch == ',') {
+            pos++;
+            lastToken = new Token(SEPARATOR, 0, null, ch, false);
+            return lastToken;
+        }
+        if (ch == '(' || ch == '{' || ch == '[') {
+            if (followsOperand()) {
+                return implicitMultiplication();
+            }
+            pos++;
+            lastToken = new Token(OPEN_PARENTHESES, 0, null, ch, false);
+            return lastToken;
+        }
+        if (ch == ')' || ch == '}' || ch == ']') {
+            pos++;
+            lastToken = new Token(CLOSE_PARENTHESES, 0, null, ch, false);
+            return lastToken;
+        }
+        if ("+-*/^%".indexOf(ch) >= 0) {
+            boolean unary = lastToken == null || lastToken.type == OPERATOR
+                || lastToken.type == OPEN_PARENTHESES || lastToken.type == SEPARATOR;
+            if (unary && ch != '+' && ch != '-') {
+                throw unableToParse(ch);
+            }
+            pos++;
+            lastToken = new Token(OPERATOR, 0, null, ch, unary);
+            return lastToken;
+        }
+        if (Character.isAlphabetic(ch) || ch == '_') {
+            if (followsOperand()) {
+                return implicitMultiplication();
+            }
+            return parseFunctionOrVariable();
+        }
+        throw unableToParse(ch);
+    }
+
+    private Token parseNumber() {
+        int start = pos;
+        int length = 1;
+        pos++;
+        while (start + length < expression.length) {
+            char previous = expression[start + length - 1];
+            if (!isNumeric(expression[start + length], previous == 'e' || previous == 'E')) {
+                break;
+            }
+            length++;
+            pos++;
+        }
+        //? A trailing 'e' belongs to the next token (e.g. "2exp(x)")
+        char last = expression[start + length - 1];
+        if (length > 1 && (last == 'e' || last == 'E')) {
+            length--;
+            pos--;
+        }
+        lastToken = new Token(NUMBER, Double.parseDouble(new String(expression, start, length)), null, ' ', false);
+        return lastToken;
+    }
+
+    private static boolean isNumeric(char ch, boolean afterExponent) {
+        return Character.isDigit(ch) || ch == '.' || ch == 'e' || ch == 'E'
+            || (afterExponent && (ch == '-' || ch == '+'));
+    }
+
+    private Token parseFunctionOrVariable() {
+        //? Longest identifier prefix that names a variable or a function wins
+        int start = pos;
+        int matched = 0;
+        Token token = null;
+        for (int length = 1; start + length - 1 < expression.length
+                && isIdentifierCharacter(expression[start + length - 1]); length++) {
+            String name = new String(expression, start, length);
+            if (variables.contains(name)) {
+                matched = length;
+                token = new Token(VARIABLE, 0, name, ' ', false);
+            } else if (FUNCTIONS.contains(name)) {
+                matched = length;
+                token = new Token(FUNCTION, 0, name, ' ', false);
+            }
+        }
+
+        if (token == null) {
+            throw new IllegalArgumentException("Unknown function or variable '"
+                + new String(expression, start, expression.length - start) + "' at pos " + start);
+        }
+        pos += matched;
+        lastToken = token;
+        return token;
+    }
+
+    private static boolean isIdentifierCharacter(char ch) {
+        return Character.isAlphabetic(ch) || Character.isDigit(ch) || ch == '_' || ch == '.';
+    }
+
+    private IllegalArgumentException unableToParse(char ch) {
+        return new IllegalArgumentException("Unable to parse char '" + ch + "' (Code:" + (int) ch + ") at [" + pos + "]");
+    }
+}
@@ -24,6 +24,34 @@ public class Fraction {
             this((int)(value * 100000), 100000);
         }
         
+        public static Fraction approximate(double value, int maxDenominator) {
+            //* Closest continued-fraction convergent p/q to value with q <= maxDenominator
+            //? Turns the doubles of a numeric solve back into 35/22 instead of 159090/100000
+
+            if (!Double.isFinite(value) || Math.abs(value) >= Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Cannot represent " + value + " as a fraction.");
+            }
+            long p0 = 0, q0 = 1, p1 = 1, q1 = 0;
+            double remainder = value;
+            for (int i = 0; i < 64; i++) {
+                double a = Math.floor(remainder);
+                long p2 = (long) a * p1 + p0;
+                long q2 = (long) a * q1 + q0;
+                if (q2 > maxDenominator || Math.abs(p2) > Integer.MAX_VALUE) {
+                    break;
+                }
+                p0 = p1;
+                q0 = q1;
+                p1 = p2;
+                q1 = q2;
+                if (remainder == a || Math.abs(value - (double) p1 / q1) <= 1e-12 * Math.max(1, Math.abs(value))) {
+                    break;
+                }
+                remainder = 1 / (remainder - a);
+            }
+            return new Fraction((int) p1, (int) q1);
+        }
+
         private int gcd(int a, int b) {
             //* Helper method to calculate the greatest common divisor
             //? Using Euclidean algorithm
@@ -0,0 +1,391 @@
+package include.utils;
+
+public final class Interval {
+    //? A closed interval [lo, hi] of reals with outward-rounded arithmetic: every operation
+    //? widens its floating-point result by one ulp on each side, so the exact result of the
+    //? operation on any points of the operands is always enclosed. Math's transcendental
+    //? functions are accurate to within 1 ulp, so one ulp of widening covers them as well.
+    //? Immutable.
+
+    public static final Interval ENTIRE = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private static final double HALF_PI = Math.PI / 2;
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private final double lo;
+    private final double hi;
+
+    public Interval(double lo, double hi) {
+        if (!(lo <= hi)) {
+            throw new IllegalArgumentException("Invalid interval [" + lo + ", " + hi + "].");
+        }
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    public static Interval point(double x) {
+        return new Interval(x, x);
+    }
+
+    private static Interval outward(double lo, double hi) {
+        //? NaN comes only from infinity - infinity and the like, where no finite bound is known
+        if (Double.isNaN(lo) || Double.isNaN(hi)) {
+            return ENTIRE;
+        }
+        return new Interval(Math.nextDown(lo), Math.nextUp(hi));
+    }
+
+    public double getLo() {
+        return lo;
+    }
+
+    public double getHi() {
+        return hi;
+    }
+
+    public double width() {
+        return hi - lo;
+    }
+
+    public double midpoint() {
+        //* A point inside the interval, finite even for half-infinite intervals
+        if (lo == Double.NEGATIVE_INFINITY) {
+            return hi == Double.POSITIVE_INFINITY ? 0 : Math.min(-1, 2 * hi);
+        }
+        if (hi == Double.POSITIVE_INFINITY) {
+            return Math.max(1, 2 * lo);
+        }
+        return lo + (hi - lo) / 2;
+    }
+
+    public boolean contains(double x) {
+        return lo <= x && x <= hi;
+    }
+
+    public boolean containsZero() {
+        return lo <= 0 && 0 <= hi;
+    }
+
+    public boolean isPoint() {
+        return lo == hi;
+    }
+
+    public boolean isInteriorOf(Interval other) {
+        //* Strict containment, the interval Newton test for a unique root
+        return other.lo < lo && hi < other.hi;
+    }
+
+    public Interval intersect(Interval other) {
+        //* null if the two do not overlap
+        double l = Math.max(lo, other.lo);
+        double h = Math.min(hi, other.hi);
+        return l <= h ? new Interval(l, h) : null;
+    }
+
+    public Interval hull(Interval other) {
+        return new Interval(Math.min(lo, other.lo), Math.max(hi, other.hi));
+    }
+
+    //* Arithmetic
+
+    public Interval negate() {
+        return new Interval(-hi, -lo);
+    }
+
+    public Interval add(Interval other) {
+        return outward(lo + other.lo, hi + other.hi);
+    }
+
+    public Interval subtract(Interval other) {
+        return outward(lo - other.hi, hi - other.lo);
+    }
+
+    public Interval multiply(Interval other) {
+        double a = product(lo, other.lo);
+        double b = product(lo, other.hi);
+        double c = product(hi, other.lo);
+        double d = product(hi, other.hi);
+        return outward(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+    }
+
+    private static double product(double a, double b) {
+        //? 0 * infinity is 0 for interval endpoints: the bound is attained only in the limit
+        return a == 0 || b == 0 ? 0 : a * b;
+    }
+
+    public Interval divide(Interval other) {
+        /*
+         * Method to divide by an interval
+         * @return The quotient; ENTIRE if the divisor contains zero
+         * @throws ArithmeticException if the divisor is exactly zero, matching the other evaluators
+         */
+        if (other.lo == 0 && other.hi == 0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        if (other.containsZero()) {
+            return ENTIRE;
+        }
+        return multiply(reciprocal(other));
+    }
+
+    private static Interval reciprocal(Interval x) {
+        return outward(1 / x.hi, 1 / x.lo);
+    }
+
+    public Interval modulo(Interval other) {
+        //? Conservative: the remainder takes the dividend's sign and is smaller than the divisor
+        if (other.lo == 0 && other.hi == 0) {
+            throw new ArithmeticException("Division by zero!");
+        }
+        if (isPoint() && other.isPoint()) {
+            double r = lo % other.lo;
+            return new Interval(r, r);
+        }
+        double bound = Math.max(Math.abs(other.lo), Math.abs(other.hi));
+        return new Interval(lo >= 0 ? 0 : Math.max(lo, -bound), hi <= 0 ? 0 : Math.min(hi, bound));
+    }
+
+    public Interval pow(Interval exponent) {
+        if (exponent.isPoint()) {
+            double c = exponent.lo;
+            if (c == Math.rint(c) && Math.abs(c) <= Integer.MAX_VALUE) {
+                return pow((int) c);
+            }
+            //? Non-integer power: defined for x >= 0 only, monotone in x
+            if (hi < 0) {
+                throw new ArithmeticException("Power of a negative number is undefined.");
+            }
+            double l = Math.max(lo, 0);
+            return c > 0 ? outward(Math.pow(l, c), Math.pow(hi, c)) : outward(Math.pow(hi, c), Math.pow(l, c));
+        }
+        //? x^y = exp(y * log(x))
+        return exponent.multiply(log()).exp();
+    }
+
+    public Interval pow(int n) {
+        if (n == 0) {
+            return point(1);
+        }
+        if (n < 0) {
+            return point(1).divide(pow(-n));
+        }
+        double a = Math.pow(lo, n);
+        double b = Math.pow(hi, n);
+        if (n % 2 == 1) {
+            return outward(a, b);
+        }
+        if (containsZero()) {
+            return new Interval(0, Math.nextUp(Math.max(a, b)));
+        }
+        return outward(Math.min(a, b), Math.max(a, b));
+    }
+
+    //* Elementary functions
+
+    public Interval sin() {
+        //? Maxima at pi/2 + 2k*pi, minima at -pi/2 + 2k*pi
+        return periodic(Math.sin(lo), Math.sin(hi), HALF_PI, -HALF_PI);
+    }
+
+    public Interval cos() {
+        //? Maxima at 2k*pi, minima at pi + 2k*pi
+        return periodic(Math.cos(lo), Math.cos(hi), 0, Math.PI);
+    }
+
+    private Interval periodic(double atLo, double atHi, double maximum, double minimum) {
+        if (width() >= TWO_PI || Double.isInfinite(width())) {
+            return new Interval(-1, 1);
+        }
+        double l = Math.min(atLo, atHi);
+        double h = Math.max(atLo, atHi);
+        if (containsPeriodicPoint(lo, hi, maximum)) {
+            h = 1;
+        }
+        if (containsPeriodicPoint(lo, hi, minimum)) {
+            l = -1;
+        }
+        return new Interval(Math.max(-1, Math.nextDown(l)), Math.min(1, Math.nextUp(h)));
+    }
+
+    private static boolean containsPeriodicPoint(double lo, double hi, double offset) {
+        //? Is offset + 2k*pi in [lo, hi] for some k; borderline cases count as inside
+        double k = Math.ceil((lo - offset) / TWO_PI - 1e-12);
+        double point = offset + k * TWO_PI;
+        return point <= hi + 4 * Math.ulp(Math.abs(point) + 1);
+    }
+
+    public Interval tan() {
+        //? Monotone between the poles at pi/2 + k*pi
+        if (Double.isInfinite(width()) || width() >= Math.PI
+                || containsPeriodicPoint(lo, hi, HALF_PI) || containsPeriodicPoint(lo, hi, -HALF_PI)) {
+            return ENTIRE;
+        }
+        return outward(Math.tan(lo), Math.tan(hi));
+    }
+
+    public Interval cot() {
+        //? Decreasing between the poles at k*pi
+        if (Double.isInfinite(width()) || width() >= Math.PI
+                || containsPeriodicPoint(lo, hi, 0) || containsPeriodicPoint(lo, hi, Math.PI)) {
+            if (isPoint() && Math.tan(lo) == 0) {
+                throw new ArithmeticException("Division by zero in cotangent!");
+            }
+            return ENTIRE;
+        }
+        return outward(1 / Math.tan(hi), 1 / Math.tan(lo));
+    }
+
+    public Interval asin() {
+        Interval x = restrict(-1, 1, "asin");
+        return outward(Math.asin(x.lo), Math.asin(x.hi));
+    }
+
+    public Interval acos() {
+        Interval x = restrict(-1, 1, "acos");
+        return outward(Math.acos(x.hi), Math.acos(x.lo));
+    }
+
+    public Interval atan() {
+        return outward(Math.atan(lo), Math.atan(hi));
+    }
+
+    public Interval sinh() {
+        return outward(Math.sinh(lo), Math.sinh(hi));
+    }
+
+    public Interval cosh() {
+        double a = Math.cosh(lo);
+        double b = Math.cosh(hi);
+        if (containsZero()) {
+            return new Interval(1, Math.nextUp(Math.max(a, b)));
+        }
+        return outward(Math.min(a, b), Math.max(a, b));
+    }
+
+    public Interval tanh() {
+        return outward(Math.tanh(lo), Math.tanh(hi));
+    }
+
+    public Interval abs() {
+        if (lo >= 0) {
+            return this;
+        }
+        if (hi <= 0) {
+            return negate();
+        }
+        return new Interval(0, Math.max(-lo, hi));
+    }
+
+    public Interval log() {
+        return logarithm(0, "log");
+    }
+
+    public Interval log10() {
+        Interval x = restrictPositive(0, "log10");
+        return outward(x.lo == 0 ? Double.NEGATIVE_INFINITY : Math.log10(x.lo), Math.log10(x.hi));
+    }
+
+    public Interval log2() {
+        Interval x = restrictPositive(0, "log2");
+        return outward(x.lo == 0 ? Double.NEGATIVE_INFINITY : BytecodeCompiler.log2(x.lo), BytecodeCompiler.log2(x.hi));
+    }
+
+    public Interval log1p() {
+        Interval x = restrictPositive(-1, "log1p");
+        return outward(x.lo == -1 ? Double.NEGATIVE_INFINITY : Math.log1p(x.lo), Math.log1p(x.hi));
+    }
+
+    private Interval logarithm(double bound, String name) {
+        Interval x = restrictPositive(bound, name);
+        return outward(x.lo == 0 ? Double.NEGATIVE_INFINITY : Math.log(x.lo), Math.log(x.hi));
+    }
+
+    public Interval exp() {
+        return new Interval(Math.max(0, Math.nextDown(Math.exp(lo))), Math.nextUp(Math.exp(hi)));
+    }
+
+    public Interval expm1() {
+        return outward(Math.expm1(lo), Math.expm1(hi));
+    }
+
+    public Interval sqrt() {
+        Interval x = restrict(0, Double.POSITIVE_INFINITY, "sqrt");
+        return new Interval(Math.max(0, Math.nextDown(Math.sqrt(x.lo))), Math.nextUp(Math.sqrt(x.hi)));
+    }
+
+    public Interval cbrt() {
+        return outward(Math.cbrt(lo), Math.cbrt(hi));
+    }
+
+    public Interval ceil() {
+        return new Interval(Math.ceil(lo), Math.ceil(hi));
+    }
+
+    public Interval floor() {
+        return new Interval(Math.floor(lo), Math.floor(hi));
+    }
+
+    public Interval signum() {
+        return new Interval(BytecodeCompiler.signum(lo), BytecodeCompiler.signum(hi));
+    }
+
+    public Interval apply(String function) {
+        /*
+         * Method to apply one of the expression language's functions
+         * @throws ArithmeticException if the function is undefined on the whole interval
+         */
+        return apply(BytecodeCompiler.functionCode(function));
+    }
+
+    Interval apply(int function) {
+        //* Same, by the opcode BytecodeCompiler.functionCode gives; the interval evaluator's hot path
+        switch (function) {
+            case BytecodeCompiler.SIN: return sin();
+            case BytecodeCompiler.COS: return cos();
+            case BytecodeCompiler.TAN: return tan();
+            case BytecodeCompiler.COT: return cot();
+            case BytecodeCompiler.ASIN: return asin();
+            case BytecodeCompiler.ACOS: return acos();
+            case BytecodeCompiler.ATAN: return atan();
+            case BytecodeCompiler.SINH: return sinh();
+            case BytecodeCompiler.COSH: return cosh();
+            case BytecodeCompiler.TANH: return tanh();
+            case BytecodeCompiler.ABS: return abs();
+            case BytecodeCompiler.LOG: return log();
+            case BytecodeCompiler.LOG10: return log10();
+            case BytecodeCompiler.LOG2: return log2();
+            case BytecodeCompiler.LOG1P: return log1p();
+            case BytecodeCompiler.EXP: return exp();
+            case BytecodeCompiler.EXPM1: return expm1();
+            case BytecodeCompiler.SQRT: return sqrt();
+            case BytecodeCompiler.CBRT: return cbrt();
+            case BytecodeCompiler.CEIL: return ceil();
+            case BytecodeCompiler.FLOOR: return floor();
+            case BytecodeCompiler.SIGNUM: return signum();
+            default:
+                throw new IllegalArgumentException("Unknown function code " + function);
+        }
+    }
+
+    private Interval restrict(double min, double max, String name) {
+        //? Only the part of the interval inside the domain counts; outside it f does not exist
+        double l = Math.max(lo, min);
+        double h = Math.min(hi, max);
+        if (l > h) {
+            throw new ArithmeticException(name + " is undefined on " + this);
+        }
+        return new Interval(l, h);
+    }
+
+    private Interval restrictPositive(double bound, String name) {
+        if (hi <= bound) {
+            throw new ArithmeticException(name + " is undefined on " + this);
+        }
+        return new Interval(Math.max(lo, bound), hi);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + lo + ", " + hi + "]";
+    }
+}
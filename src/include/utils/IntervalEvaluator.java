@@ -0,0 +1,275 @@
+package include.utils;
+
+public class IntervalEvaluator {
+    //? Interval extension of an expression: evaluate(X) returns an Interval guaranteed to contain
+    //? f(x) for every x in X, together with an enclosure of f' over X from forward-mode
+    //? differentiation carried out in interval arithmetic. The bounds are rigorous for the
+    //? function as written with double constants. The tree is flattened once into a postfix
+    //? program, as in DualEvaluator.
+    //? Not thread-safe: each solve creates its own evaluator.
+
+    private static final int CONSTANT = 0;
+    private static final int VARIABLE = 1;
+    private static final int ADD = 2;
+    private static final int SUBTRACT = 3;
+    private static final int MULTIPLY = 4;
+    private static final int DIVIDE = 5;
+    private static final int MODULO = 6;
+    private static final int POWER = 7;
+    private static final int NEGATE = 8;
+    private static final int FUNCTION = 9;
+
+    private static final Interval ZERO = Interval.point(0);
+    private static final Interval ONE = Interval.point(1);
+    private static final Interval LN_10 = new Interval(Math.nextDown(Math.log(10)), Math.nextUp(Math.log(10)));
+    private static final Interval LN_2 = new Interval(Math.nextDown(Math.log(2)), Math.nextUp(Math.log(2)));
+
+    private final String variable;
+    private int[] program;
+    private double[] constants;
+    private int programLength;
+    private int constantCount;
+    private int depth;
+    private int maxDepth;
+
+    //* Operand stacks: value enclosure, derivative enclosure
+    private final Interval[] value;
+    private final Interval[] first;
+    private boolean continuous;
+
+    public IntervalEvaluator(ExpressionNode node, String variable) {
+        /*
+         * Constructor to flatten an expression tree into an interval program
+         * @param node The expression to evaluate
+         * @param variable The variable the box ranges over
+         * @throws IllegalArgumentException if the tree uses an unknown variable or function
+         */
+        this.variable = variable;
+        this.program = new int[32];
+        this.constants = new double[8];
+        flatten(node);
+        this.value = new Interval[maxDepth];
+        this.first = new Interval[maxDepth];
+    }
+
+    private void flatten(ExpressionNode node) {
+        switch (node.getType()) {
+            case CONSTANT:
+                if (constantCount == constants.length) {
+                    constants = java.util.Arrays.copyOf(constants, constantCount * 2);
+                }
+                constants[constantCount] = node.getValue();
+                emit(CONSTANT, constantCount++);
+                push();
+                break;
+            case VARIABLE:
+                if (!node.getName().equals(variable)) {
+                    throw new IllegalArgumentException("Unknown variable '" + node.getName() + "'");
+                }
+                emit(VARIABLE, 0);
+                push();
+                break;
+            case NEGATE:
+                flatten(node.getLeft());
+                emit(NEGATE, 0);
+                break;
+            case FUNCTION:
+                flatten(node.getLeft());
+                emit(FUNCTION, BytecodeCompiler.functionCode(node.getName()));
+                break;
+            default:
+                flatten(node.getLeft());
+                flatten(node.getRight());
+                emit(binaryOpcode(node.getType()), 0);
+                depth--;
+                break;
+        }
+    }
+
+    private static int binaryOpcode(ExpressionNode.Type type) {
+        switch (type) {
+            case ADD: return ADD;
+            case SUBTRACT: return SUBTRACT;
+            case MULTIPLY: return MULTIPLY;
+            case DIVIDE: return DIVIDE;
+            case MODULO: return MODULO;
+            default: return POWER;
+        }
+    }
+
+    private void emit(int opcode, int operand) {
+        if (programLength + 2 > program.length) {
+            program = java.util.Arrays.copyOf(program, program.length * 2);
+        }
+        program[programLength++] = opcode;
+        program[programLength++] = operand;
+    }
+
+    private void push() {
+        depth++;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    public Interval evaluate(Interval x) {
+        /*
+         * Method to enclose f and f' over a box in a single pass
+         * @param x The box
+         * @return An enclosure of f over x; the derivative enclosure is read with getDerivative
+         * @throws ArithmeticException if f is undefined on all of x, or divides by exactly zero
+         */
+        int top = -1;
+        continuous = true;
+        for (int pc = 0; pc < programLength; pc += 2) {
+            switch (program[pc]) {
+                case CONSTANT:
+                    top++;
+                    value[top] = Interval.point(constants[program[pc + 1]]);
+                    first[top] = ZERO;
+                    break;
+                case VARIABLE:
+                    top++;
+                    value[top] = x;
+                    first[top] = ONE;
+                    break;
+                case NEGATE:
+                    value[top] = value[top].negate();
+                    first[top] = first[top].negate();
+                    break;
+                case FUNCTION:
+                    applyFunction(program[pc + 1], top);
+                    break;
+                default:
+                    applyBinary(program[pc], top - 1, top);
+                    top--;
+                    break;
+            }
+        }
+        return value[0];
+    }
+
+    public Interval evaluate(double x) {
+        //* Enclosure of f at a single point, as the interval Newton operator needs at the midpoint
+        return evaluate(Interval.point(x));
+    }
+
+    public Interval getDerivative() {
+        //* Enclosure of f' over the box of the last evaluate()
+        return first[0];
+    }
+
+    public boolean isContinuous() {
+        //* False if a floor, ceil, signum or % may jump inside the box of the last evaluate()
+        return continuous;
+    }
+
+    private void applyBinary(int opcode, int a, int b) {
+        //* Combine slots a (left) and b (right) into slot a
+        Interval u = value[a], du = first[a];
+        Interval v = value[b], dv = first[b];
+        switch (opcode) {
+            case ADD:
+                value[a] = u.add(v);
+                first[a] = du.add(dv);
+                break;
+            case SUBTRACT:
+                value[a] = u.subtract(v);
+                first[a] = du.subtract(dv);
+                break;
+            case MULTIPLY:
+                value[a] = u.multiply(v);
+                first[a] = du.multiply(v).add(u.multiply(dv));
+                break;
+            case DIVIDE: {
+                Interval w = u.divide(v);
+                value[a] = w;
+                first[a] = quotient(du.subtract(w.multiply(dv)), v);
+                break;
+            }
+            case MODULO: {
+                //? u % v = u - v*trunc(u/v), smooth only where the truncated quotient is constant
+                double quotient = constantQuotient(u, v);
+                if (Double.isNaN(quotient)) {
+                    value[a] = u.modulo(v);
+                    first[a] = Interval.ENTIRE;
+                    continuous = false;
+                } else {
+                    Interval q = Interval.point(quotient);
+                    value[a] = u.subtract(v.multiply(q));
+                    first[a] = du.subtract(dv.multiply(q));
+                }
+                break;
+            }
+            default: {
+                Interval w = u.pow(v);
+                value[a] = w;
+                if (v.isPoint() && dv.isPoint() && dv.getLo() == 0) {
+                    //? Constant exponent: d/dx u^c = c*u^(c-1)*u'
+                    double c = v.getLo();
+                    first[a] = c == 0 ? ZERO : v.multiply(u.pow(Interval.point(c - 1))).multiply(du);
+                } else {
+                    //? General case through u^v = exp(v*ln(u)); no bound where ln(u) does not exist
+                    try {
+                        first[a] = w.multiply(dv.multiply(u.log()).add(quotient(v.multiply(du), u)));
+                    } catch (ArithmeticException e) {
+                        first[a] = Interval.ENTIRE;
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    private static Interval quotient(Interval numerator, Interval denominator) {
+        //? A derivative that does not exist on the box is unbounded, not an error: the value may still be fine
+        return denominator.isPoint() && denominator.getLo() == 0 ? Interval.ENTIRE : numerator.divide(denominator);
+    }
+
+    private static double constantQuotient(Interval u, Interval v) {
+        //* trunc(u/v) if it is the same for the whole box, NaN otherwise
+        if (!v.isPoint() || v.getLo() == 0 || Double.isInfinite(u.width())) {
+            return Double.NaN;
+        }
+        double p = u.getLo() / v.getLo();
+        double q = u.getHi() / v.getLo();
+        //? Widen by an ulp so a quotient rounded onto an integer is not trusted
+        double low = Math.nextDown(Math.min(p, q));
+        double high = Math.nextUp(Math.max(p, q));
+        double truncated = low < 0 ? Math.ceil(low) : Math.floor(low);
+        return truncated == (high < 0 ? Math.ceil(high) : Math.floor(high)) ? truncated : Double.NaN;
+    }
+
+    private void applyFunction(int function, int slot) {
+        //? Chain rule: w' = g'(u)u', with g'(u) enclosed over the whole box
+        Interval u = value[slot];
+        Interval g = u.apply(function);
+        Interval d;
+        switch (function) {
+            case BytecodeCompiler.SIN: d = u.cos(); break;
+            case BytecodeCompiler.COS: d = u.sin().negate(); break;
+            case BytecodeCompiler.TAN: d = ONE.add(g.pow(2)); break;
+            case BytecodeCompiler.COT: d = ONE.add(g.pow(2)).negate(); break;
+            case BytecodeCompiler.ASIN: d = quotient(ONE, ONE.subtract(u.pow(2)).sqrt()); break;
+            case BytecodeCompiler.ACOS: d = quotient(ONE, ONE.subtract(u.pow(2)).sqrt()).negate(); break;
+            case BytecodeCompiler.ATAN: d = quotient(ONE, ONE.add(u.pow(2))); break;
+            case BytecodeCompiler.SINH: d = u.cosh(); break;
+            case BytecodeCompiler.COSH: d = u.sinh(); break;
+            case BytecodeCompiler.TANH: d = ONE.subtract(g.pow(2)); break;
+            case BytecodeCompiler.ABS: d = u.signum(); break;
+            case BytecodeCompiler.LOG: d = quotient(ONE, u); break;
+            case BytecodeCompiler.LOG10: d = quotient(ONE, u.multiply(LN_10)); break;
+            case BytecodeCompiler.LOG2: d = quotient(ONE, u.multiply(LN_2)); break;
+            case BytecodeCompiler.LOG1P: d = quotient(ONE, ONE.add(u)); break;
+            case BytecodeCompiler.EXP: d = g; break;
+            case BytecodeCompiler.EXPM1: d = u.exp(); break;
+            case BytecodeCompiler.SQRT: d = quotient(ONE, g.multiply(Interval.point(2))); break;
+            case BytecodeCompiler.CBRT: d = quotient(ONE, g.pow(2).multiply(Interval.point(3))); break;
+            default:
+                //? ceil, floor and signum are flat between jumps; a jump inside the box has no bound
+                d = g.isPoint() ? ZERO : Interval.ENTIRE;
+                continuous = continuous && g.isPoint();
+                break;
+        }
+        value[slot] = g;
+        first[slot] = d.multiply(first[slot]);
+    }
+}
@@ -0,0 +1,113 @@
+package include.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class IterationTrace {
+    //? Compact record of a solve: one row of doubles per iteration kept in columnar buffers, plus
+    //? the few fixed messages (header, warnings, errors) anchored between rows. Nothing is
+    //? formatted while solving; text is produced on demand by a solver-supplied RowRenderer.
+
+    public interface RowRenderer {
+        //* Row r holds iteration r + 1
+        void render(IterationTrace trace, int row, Consumer<String> out);
+    }
+
+    private static final int INITIAL_ROWS = 16;
+
+    private final double[][] columns;
+    private int rowCount;
+    private final List<String> notes;
+    private int[] notePositions;
+    private boolean pending;
+
+    public IterationTrace(int columnCount) {
+        /*
+         * Constructor to create an empty trace
+         * @param columnCount The number of values recorded per iteration
+         */
+        this.columns = new double[columnCount][INITIAL_ROWS];
+        this.notes = new ArrayList<>();
+        this.notePositions = new int[INITIAL_ROWS];
+    }
+
+    public void clear() {
+        rowCount = 0;
+        notes.clear();
+        pending = false;
+    }
+
+    public int addRow() {
+        /*
+         * Method to append an iteration record
+         * @return The index of the new row, to be filled with set()
+         */
+        if (rowCount == columns[0].length) {
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = Arrays.copyOf(columns[c], rowCount * 2);
+            }
+        }
+        pending = true;
+        return rowCount++;
+    }
+
+    public void set(int row, int column, double value) {
+        columns[column][row] = value;
+    }
+
+    public double get(int row, int column) {
+        return columns[column][row];
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void note(String line) {
+        //* A fixed message shown after the rows recorded so far
+        if (notes.size() == notePositions.length) {
+            notePositions = Arrays.copyOf(notePositions, notePositions.length * 2);
+        }
+        notePositions[notes.size()] = rowCount;
+        notes.add(line);
+        pending = true;
+    }
+
+    public boolean isPending() {
+        //* true if something was recorded since the last full render
+        return pending;
+    }
+
+    public void render(RowRenderer renderer, Consumer<String> out) {
+        /*
+         * Method to render the whole trace, rows and notes in recording order
+         * @param renderer Formats one iteration record
+         * @param out Receives the lines
+         */
+        int note = 0;
+        for (int row = 0; row < rowCount; row++) {
+            while (note < notes.size() && notePositions[note] <= row) {
+                out.accept(notes.get(note++));
+            }
+            renderer.render(this, row, out);
+        }
+        while (note < notes.size()) {
+            out.accept(notes.get(note++));
+        }
+        pending = false;
+    }
+
+    public void render(int fromRow, int toRow, RowRenderer renderer, Consumer<String> out) {
+        /*
+         * Method to render only a range of iteration records, e.g. the part of a long trace on screen
+         * @param fromRow First row, inclusive
+         * @param toRow Last row, exclusive
+         */
+        int to = Math.min(toRow, rowCount);
+        for (int row = Math.max(0, fromRow); row < to; row++) {
+            renderer.render(this, row, out);
+        }
+    }
+}
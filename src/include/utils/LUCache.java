@@ -0,0 +1,103 @@
+package include.utils;
+
+import java.util.Arrays;
+
+public class LUCache {
+    //? Shared, bounded LRU cache of LU factorizations keyed by the contents of the matrix, so
+    //? solving the same A against a new right-hand side costs O(n^2) substitution instead of
+    //? an O(n^3) elimination. Keys hold their own copy of A and compare it entry by entry,
+    //? so a hash collision or a caller editing its array afterwards can never return the
+    //? factorization of a different matrix.
+
+    private static final int MAX_ENTRIES = 8;
+
+    //* Doubles kept alive across all entries; each holds two n*n arrays, the key's copy and
+    //* the factors, so this is 64 MB and one matrix of up to 2000 x 2000
+    private static final long MAX_ELEMENTS = 8_000_000;
+
+    private static final LruCache<MatrixKey, LUDecomposition> factorizations =
+        new LruCache<>(MAX_ENTRIES, MAX_ELEMENTS, lu -> elements(lu.size()));
+
+    private LUCache() {
+    }
+
+    public static LUDecomposition get(double[][] matrix) {
+        /*
+         * Method to retrieve the factorization of a matrix, factoring it only on a cache miss
+         * @param matrix The square coefficient matrix, left unchanged
+         * @return The shared, read-only factorization
+         * @throws IllegalArgumentException if the matrix is empty or not square
+         */
+        if (elements(matrix.length) > MAX_ELEMENTS) {
+            //? Too large to keep, so skip copying and hashing it as a key as well
+            return new LUDecomposition(matrix);
+        }
+        MatrixKey key = new MatrixKey(matrix);
+        LUDecomposition lu = factorizations.get(key);
+
+        if (lu == null) {
+            lu = new LUDecomposition(matrix);
+            factorizations.put(key, lu);
+        }
+        return lu;
+    }
+
+    private static long elements(int n) {
+        return 2L * n * n;
+    }
+
+    public static void clear() {
+        factorizations.clear();
+    }
+
+    public static int size() {
+        return factorizations.size();
+    }
+
+    public static long getHits() {
+        return factorizations.getHits();
+    }
+
+    public static long getMisses() {
+        return factorizations.getMisses();
+    }
+
+    private static final class MatrixKey {
+        //? Row-major copy of the matrix with its content hash computed once
+        private final int n;
+        private final double[] entries;
+        private final int hash;
+
+        MatrixKey(double[][] matrix) {
+            this.n = matrix.length;
+            if (n == 0) {
+                throw new IllegalArgumentException("Matrix is empty.");
+            }
+            this.entries = new double[n * n];
+            for (int i = 0; i < n; i++) {
+                if (matrix[i].length != n) {
+                    throw new IllegalArgumentException("Matrix is not square.");
+                }
+                System.arraycopy(matrix[i], 0, entries, i * n, n);
+            }
+            this.hash = 31 * n + Arrays.hashCode(entries);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof MatrixKey)) {
+                return false;
+            }
+            MatrixKey key = (MatrixKey) other;
+            return hash == key.hash && n == key.n && Arrays.equals(entries, key.entries);
+        }
+    }
+}
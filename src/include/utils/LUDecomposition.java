@@ -0,0 +1,499 @@
+package include.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+public class LUDecomposition {
+    //? PA = LU of a square matrix by Gaussian elimination with partial pivoting: at column k
+    //? the row with the largest |a_ik| (i >= k) becomes the pivot row. The matrix is copied into
+    //? one flat row-major double[] and factored in place, L's multipliers below the diagonal
+    //? and U on and above it, so the inner update loop runs over contiguous memory.
+    //? Once built the factorization is read-only and can be shared between threads.
+    //? The pivot chosen at each column is kept, so replay() can retell the elimination later.
+    //?
+    //? Large matrices are factored blocked and right-looking: a panel of blockSize columns is
+    //? factored on its own, then the rows of U to its right are solved and the trailing
+    //? matrix is updated tile by tile on a ForkJoinPool. Every entry still receives its
+    //? updates one pivot column at a time in ascending order, exactly as in the unblocked
+    //? loop, so both give the same pivots and bit-for-bit the same factors.
+
+    public interface Listener {
+        //? Replays the row operations, for solvers that print every elimination step
+
+        void rowsSwapped(int first, int second);
+
+        void rowEliminated(int row, int pivotRow, double factor);
+    }
+
+    private static final double EPSILON = Math.ulp(1.0);
+
+    //* Below this size the unblocked loop is faster than scheduling tiles
+    private static final int BLOCKED_THRESHOLD = 256;
+
+    //* Panel width used by the single-argument constructor
+    public static final int DEFAULT_BLOCK_SIZE = 128;
+
+    //* Width of the trailing-matrix tiles; the blockSize x 256 slab of U they read stays in L2
+    private static final int COLUMN_CHUNK = 256;
+
+    private final int n;
+    private final double[] lu;
+    private final int[] pivot;
+    private final int[] swaps;
+    private int steps;
+    private int swapCount;
+    private boolean singular;
+
+    public LUDecomposition(double[][] matrix) {
+        /*
+         * Constructor to factor a square matrix, blocked and in parallel on the common pool once it is large
+         * @param matrix The matrix, left unchanged
+         * @throws IllegalArgumentException if the matrix is empty or not square
+         */
+        this(matrix, null, matrix.length >= BLOCKED_THRESHOLD ? DEFAULT_BLOCK_SIZE : 0, ForkJoinPool.commonPool());
+    }
+
+    public LUDecomposition(double[][] matrix, Listener listener) {
+        /*
+         * Constructor to factor a square matrix with the unblocked loop, reporting each operation
+         * @param matrix The matrix, left unchanged
+         * @param listener Told about every swap and row update, or null
+         * @throws IllegalArgumentException if the matrix is empty or not square
+         */
+        this(matrix, listener, 0, null);
+    }
+
+    public LUDecomposition(double[][] matrix, int blockSize, ForkJoinPool pool) {
+        /*
+         * Constructor to factor a square matrix blocked, with the trailing updates on a pool
+         * @param matrix The matrix, left unchanged
+         * @param blockSize Panel width; 32 to 128 suits most caches
+         * @param pool Runs the trailing-matrix tiles
+         * @throws IllegalArgumentException if the matrix is empty or not square, or blockSize < 1
+         */
+        this(matrix, null, checkBlockSize(blockSize), pool);
+    }
+
+    private static int checkBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1.");
+        }
+        return blockSize;
+    }
+
+    private LUDecomposition(double[][] matrix, Listener listener, int blockSize, ForkJoinPool pool) {
+        this.n = matrix.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Matrix is empty.");
+        }
+        this.lu = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            if (matrix[i].length != n) {
+                throw new IllegalArgumentException("Matrix is not square.");
+            }
+            System.arraycopy(matrix[i], 0, lu, i * n, n);
+        }
+        this.pivot = new int[n];
+        this.swaps = new int[n];
+        factor(listener, blockSize, pool);
+    }
+
+    private void factor(Listener listener, int blockSize, ForkJoinPool pool) {
+        for (int i = 0; i < n; i++) {
+            pivot[i] = i;
+        }
+        //? Whether a pivot is rounding noise on a zero is judged with every column divided by
+        //? its largest entry, so the test does not change when rows or columns are rescaled.
+        //? rowScale[i] is the largest normalized value that went into row i so far: its own
+        //? entries, then |factor| times the scale of each pivot row subtracted from it.
+        double[] colScale = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                colScale[j] = Math.max(colScale[j], Math.abs(lu[i * n + j]));
+            }
+        }
+        double[] rowScale = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (colScale[j] > 0) {
+                    rowScale[i] = Math.max(rowScale[i], Math.abs(lu[i * n + j]) / colScale[j]);
+                }
+            }
+        }
+
+        //? The unblocked loop is a single panel as wide as the matrix
+        if (blockSize <= 0 || blockSize >= n) {
+            factorPanel(0, n, colScale, rowScale, listener);
+            return;
+        }
+        for (int k0 = 0; k0 < n; k0 += blockSize) {
+            int k1 = Math.min(n, k0 + blockSize);
+            if (!factorPanel(k0, k1, colScale, rowScale, null)) {
+                return;
+            }
+            if (k1 < n) {
+                updateTrailing(k0, k1, blockSize, pool);
+            }
+        }
+    }
+
+    private boolean factorPanel(int k0, int k1, double[] colScale, double[] rowScale, Listener listener) {
+        /*
+         * Method to eliminate columns k0 .. k1-1, updating only the columns of the panel
+         * @return false if the matrix turned out singular
+         */
+        for (int k = k0; k < k1; k++) {
+            int p = k;
+            double max = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double value = Math.abs(lu[i * n + k]);
+                if (value > max) {
+                    max = value;
+                    p = i;
+                }
+            }
+            if (!(max > 0) || max / colScale[k] <= n * EPSILON * rowScale[p]) {
+                singular = true;
+                return false;
+            }
+            swaps[k] = p;
+            if (p != k) {
+                swapRows(p, k);
+                double temp = rowScale[p];
+                rowScale[p] = rowScale[k];
+                rowScale[k] = temp;
+                if (listener != null) {
+                    listener.rowsSwapped(k, p);
+                }
+            }
+
+            double pivotValue = lu[k * n + k];
+            int pivotRow = k * n;
+            for (int i = k + 1; i < n; i++) {
+                int row = i * n;
+                double factor = lu[row + k] / pivotValue;
+                lu[row + k] = factor;
+                if (factor != 0) {
+                    rowScale[i] = Math.max(rowScale[i], Math.abs(factor) * rowScale[k]);
+                    for (int j = k + 1; j < k1; j++) {
+                        lu[row + j] -= factor * lu[pivotRow + j];
+                    }
+                }
+                if (listener != null) {
+                    listener.rowEliminated(i, k, factor);
+                }
+            }
+            steps = k + 1;
+        }
+        return true;
+    }
+
+    private void updateTrailing(int k0, int k1, int blockSize, ForkJoinPool pool) {
+        //? First the panel's rows of U right of the panel, then A22 -= L21 * U12, tile by tile
+        List<UpperTask> upper = new ArrayList<>();
+        List<UpdateTask> updates = new ArrayList<>();
+        for (int c0 = k1; c0 < n; c0 += COLUMN_CHUNK) {
+            int c1 = Math.min(n, c0 + COLUMN_CHUNK);
+            upper.add(new UpperTask(k0, k1, c0, c1));
+            for (int r0 = k1; r0 < n; r0 += blockSize) {
+                updates.add(new UpdateTask(k0, k1, r0, Math.min(n, r0 + blockSize), c0, c1));
+            }
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(upper);
+                ForkJoinTask.invokeAll(updates);
+            }
+        });
+    }
+
+    private class UpperTask extends RecursiveAction {
+        //? Forward substitution with the panel's unit lower triangle on columns c0 .. c1-1
+        private static final long serialVersionUID = 1L;
+        private final int k0;
+        private final int k1;
+        private final int c0;
+        private final int c1;
+
+        UpperTask(int k0, int k1, int c0, int c1) {
+            this.k0 = k0;
+            this.k1 = k1;
+            this.c0 = c0;
+            this.c1 = c1;
+        }
+
+        @Override
+        protected void compute() {
+            for (int k = k0 + 1; k < k1; k++) {
+                int row = k * n;
+                for (int m = k0; m < k; m++) {
+                    double factor = lu[row + m];
+                    if (factor != 0) {
+                        int pivotRow = m * n;
+                        for (int j = c0; j < c1; j++) {
+                            lu[row + j] -= factor * lu[pivotRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private class UpdateTask extends RecursiveAction {
+        //? Applies the panel's pivot rows to rows r0 .. r1-1, columns c0 .. c1-1
+        private static final long serialVersionUID = 1L;
+        private final int k0;
+        private final int k1;
+        private final int r0;
+        private final int r1;
+        private final int c0;
+        private final int c1;
+
+        UpdateTask(int k0, int k1, int r0, int r1, int c0, int c1) {
+            this.k0 = k0;
+            this.k1 = k1;
+            this.r0 = r0;
+            this.r1 = r1;
+            this.c0 = c0;
+            this.c1 = c1;
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = r0; i < r1; i++) {
+                int row = i * n;
+                for (int m = k0; m < k1; m++) {
+                    double factor = lu[row + m];
+                    if (factor != 0) {
+                        int pivotRow = m * n;
+                        for (int j = c0; j < c1; j++) {
+                            lu[row + j] -= factor * lu[pivotRow + j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void replay(Listener listener) {
+        /*
+         * Method to report the row operations of the factorization again, in their original order
+         * @param listener Told about every swap and row update, exactly as during factoring
+         */
+        //? Later swaps moved the rows of L, so first find where row i of step k ended up:
+        //? rows[k][i] is its final position, built backwards by undoing one swap per step
+        int[][] rows = new int[steps][];
+        int[] where = new int[n];
+        for (int i = 0; i < n; i++) {
+            where[i] = i;
+        }
+        for (int k = steps - 1; k >= 0; k--) {
+            rows[k] = where.clone();
+            int p = swaps[k];
+            int temp = where[k];
+            where[k] = where[p];
+            where[p] = temp;
+        }
+
+        for (int k = 0; k < steps; k++) {
+            if (swaps[k] != k) {
+                listener.rowsSwapped(k, swaps[k]);
+            }
+            for (int i = k + 1; i < n; i++) {
+                listener.rowEliminated(i, k, lu[rows[k][i] * n + k]);
+            }
+        }
+    }
+
+    private void swapRows(int a, int b) {
+        int rowA = a * n;
+        int rowB = b * n;
+        for (int j = 0; j < n; j++) {
+            double temp = lu[rowA + j];
+            lu[rowA + j] = lu[rowB + j];
+            lu[rowB + j] = temp;
+        }
+        int temp = pivot[a];
+        pivot[a] = pivot[b];
+        pivot[b] = temp;
+        swapCount++;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public boolean isSingular() {
+        return singular;
+    }
+
+    public int[] getPivot() {
+        //* Row i of PA is row getPivot()[i] of A
+        return pivot.clone();
+    }
+
+    public double determinant() {
+        //* Product of U's diagonal, negated for an odd number of row swaps; 0 if singular
+        if (singular) {
+            return 0;
+        }
+        double det = swapCount % 2 == 0 ? 1 : -1;
+        for (int i = 0; i < n; i++) {
+            det *= lu[i * n + i];
+        }
+        return det;
+    }
+
+    public double[] scaledDeterminant() {
+        /*
+         * Method to get the determinant without overflow or underflow, as a binary mantissa and exponent
+         * @return {m, e} with det = m * 2^e and 1 <= |m| < 2, or {0, 0} if singular
+         */
+        if (singular) {
+            return new double[] {0, 0};
+        }
+        double mantissa = swapCount % 2 == 0 ? 1 : -1;
+        long exponent = 0;
+        for (int i = 0; i < n; i++) {
+            mantissa *= lu[i * n + i];
+            int shift = Math.getExponent(mantissa);
+            mantissa = Math.scalb(mantissa, -shift);
+            exponent += shift;
+        }
+        return new double[] {mantissa, exponent};
+    }
+
+    public double[] solve(double[] b) {
+        /*
+         * Method to solve Ax = b by forward and back substitution, O(n^2)
+         * @param b The right-hand side, left unchanged
+         * @return x
+         * @throws IllegalArgumentException if b has the wrong length
+         * @throws ArithmeticException if the matrix is singular
+         */
+        if (b.length != n) {
+            throw new IllegalArgumentException("Constant matrix is not compatible with coefficient matrix.");
+        }
+        if (singular) {
+            throw new ArithmeticException("Matrix is singular.");
+        }
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = b[pivot[i]];
+            int row = i * n;
+            for (int j = 0; j < i; j++) {
+                sum -= lu[row + j] * x[j];
+            }
+            x[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = x[i];
+            int row = i * n;
+            for (int j = i + 1; j < n; j++) {
+                sum -= lu[row + j] * x[j];
+            }
+            x[i] = sum / lu[row + i];
+        }
+        return x;
+    }
+
+    public double[][] solve(double[][] b) {
+        /*
+         * Method to solve AX = B for every column of B in one pass, O(n^2 k)
+         * @param b The n x k right-hand sides, row i holding equation i of each system; left unchanged
+         * @return X, n x k, column c solving A x = column c of B
+         * @throws IllegalArgumentException if B has the wrong number of rows, or ragged or empty rows
+         * @throws ArithmeticException if the matrix is singular
+         */
+        if (b.length != n || b[0].length == 0) {
+            throw new IllegalArgumentException("Constant matrix is not compatible with coefficient matrix.");
+        }
+        int k = b[0].length;
+        double[] x = new double[n * k];
+        for (int i = 0; i < n; i++) {
+            double[] source = b[pivot[i]];
+            if (source.length != k) {
+                throw new IllegalArgumentException("Constant matrix is not compatible with coefficient matrix.");
+            }
+            System.arraycopy(source, 0, x, i * k, k);
+        }
+        substitute(x, k);
+
+        double[][] result = new double[n][k];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(x, i * k, result[i], 0, k);
+        }
+        return result;
+    }
+
+    public double[] solveColumns(double[] block, int columns) {
+        /*
+         * Method to solve AX = B with B given as one flat column-major block, O(n^2 k)
+         * @param block The k right-hand sides one after another, column c in block[c*n .. c*n + n); left unchanged
+         * @param columns k
+         * @return X in the same column-major layout
+         * @throws IllegalArgumentException if the block does not hold exactly k columns of length n
+         * @throws ArithmeticException if the matrix is singular
+         */
+        if (columns < 1 || block.length != (long) n * columns) {
+            throw new IllegalArgumentException("Constant matrix is not compatible with coefficient matrix.");
+        }
+        double[] x = new double[block.length];
+        for (int i = 0; i < n; i++) {
+            int source = pivot[i];
+            int row = i * columns;
+            for (int c = 0; c < columns; c++) {
+                x[row + c] = block[c * n + source];
+            }
+        }
+        substitute(x, columns);
+
+        double[] result = new double[block.length];
+        for (int i = 0; i < n; i++) {
+            int row = i * columns;
+            for (int c = 0; c < columns; c++) {
+                result[c * n + i] = x[row + c];
+            }
+        }
+        return result;
+    }
+
+    private void substitute(double[] x, int k) {
+        //? x is the permuted right-hand sides, row-major n x k, overwritten with X. Every row
+        //? operation sweeps all k columns of one contiguous row, and the operations happen in
+        //? the same order as in solve(double[]), so each column matches a single solve exactly.
+        if (singular) {
+            throw new ArithmeticException("Matrix is singular.");
+        }
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            int target = i * k;
+            for (int j = 0; j < i; j++) {
+                double factor = lu[row + j];
+                int source = j * k;
+                for (int c = 0; c < k; c++) {
+                    x[target + c] -= factor * x[source + c];
+                }
+            }
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * n;
+            int target = i * k;
+            for (int j = i + 1; j < n; j++) {
+                double factor = lu[row + j];
+                int source = j * k;
+                for (int c = 0; c < k; c++) {
+                    x[target + c] -= factor * x[source + c];
+                }
+            }
+            double diagonal = lu[row + i];
+            for (int c = 0; c < k; c++) {
+                x[target + c] /= diagonal;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package include.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+public class LruCache<K, V> {
+    //? Small thread-safe LRU map shared by the expression and factorization caches
+
+    private final Map<K, V> entries;
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;
+    private long weight;
+    private long hits;
+    private long misses;
+
+    public LruCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE, value -> 0);
+    }
+
+    public LruCache(int maxEntries, long maxWeight, ToLongFunction<? super V> weigher) {
+        /*
+         * Constructor for a cache bounded both by entry count and by the summed weight of its values
+         * @param maxEntries Most entries kept
+         * @param maxWeight Largest total weight kept; a single heavier value is never stored
+         * @param weigher The weight of a value, e.g. the number of doubles it holds
+         */
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1.");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > maxEntries) {
+                    weight -= weigher.applyAsLong(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long added = weigher.applyAsLong(value);
+        if (added > maxWeight) {
+            return;
+        }
+        V previous = entries.put(key, value);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+        weight += added;
+        //? Least recently used first; the new entry is last and always fits on its own
+        Iterator<V> eldest = entries.values().iterator();
+        while (weight > maxWeight) {
+            weight -= weigher.applyAsLong(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
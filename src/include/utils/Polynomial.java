@@ -0,0 +1,301 @@
+package include.utils;
+
+import java.util.Arrays;
+
+public class Polynomial implements CompiledFunction {
+    //? A real polynomial held as its coefficient array, lowest power first, and evaluated with
+    //? Horner's scheme: n multiply-adds for p(x), and p'(x) alongside it in the same loop.
+    //? Immutable and thread-safe.
+
+    //* Highest power expanded from an expression like (x - 1)^k
+    private static final int MAX_DEGREE = 64;
+
+    private final double[] coefficients;
+
+    public Polynomial(double... coefficients) {
+        /*
+         * Constructor for a polynomial from its coefficients
+         * @param coefficients c[0] + c[1]x + ... + c[n]x^n; trailing zeros are dropped
+         */
+        int n = coefficients.length;
+        while (n > 1 && coefficients[n - 1] == 0) {
+            n--;
+        }
+        this.coefficients = n == 0 ? new double[] {0} : Arrays.copyOf(coefficients, n);
+    }
+
+    public static Polynomial expand(ExpressionNode node, String variable) {
+        /*
+         * Method to read an expression tree as a polynomial, multiplying out products and powers
+         * @param node The expression
+         * @param variable The polynomial's variable
+         * @return The polynomial, or null if the expression is not a polynomial in variable
+         */
+        return convert(Differentiator.simplify(node), variable, true);
+    }
+
+    public static Polynomial extract(ExpressionNode node, String variable) {
+        /*
+         * Method to read an expression that is already written as a sum of terms c*x^k
+         * Expanding (x - 1)^10 and evaluating the monomial form loses accuracy near x = 1, so
+         * the evaluation fast path only takes polynomials whose written form is already expanded
+         * @return The polynomial, or null if the expression is not written in that form
+         */
+        return convert(Differentiator.simplify(node), variable, false);
+    }
+
+    private static Polynomial convert(ExpressionNode node, String variable, boolean expandProducts) {
+        switch (node.getType()) {
+            case CONSTANT:
+                return new Polynomial(node.getValue());
+            case VARIABLE:
+                return node.getName().equals(variable) ? new Polynomial(0, 1) : null;
+            case NEGATE: {
+                Polynomial p = convert(node.getLeft(), variable, expandProducts);
+                return p == null ? null : p.scale(-1);
+            }
+            case ADD:
+            case SUBTRACT: {
+                Polynomial p = convert(node.getLeft(), variable, expandProducts);
+                Polynomial q = convert(node.getRight(), variable, expandProducts);
+                if (p == null || q == null) {
+                    return null;
+                }
+                return p.add(node.getType() == ExpressionNode.Type.ADD ? q : q.scale(-1));
+            }
+            case MULTIPLY: {
+                Polynomial p = convert(node.getLeft(), variable, expandProducts);
+                Polynomial q = convert(node.getRight(), variable, expandProducts);
+                if (p == null || q == null) {
+                    return null;
+                }
+                if (!expandProducts && !p.isMonomial() && !q.isMonomial()) {
+                    return null;
+                }
+                return p.degree() + q.degree() > MAX_DEGREE ? null : p.multiply(q);
+            }
+            case DIVIDE: {
+                //? Only division by a non-zero constant keeps it a polynomial
+                Polynomial p = convert(node.getLeft(), variable, expandProducts);
+                Polynomial q = convert(node.getRight(), variable, expandProducts);
+                if (p == null || q == null || q.degree() > 0 || q.coefficients[0] == 0) {
+                    return null;
+                }
+                return p.scale(1 / q.coefficients[0]);
+            }
+            case POWER: {
+                ExpressionNode exponent = node.getRight();
+                if (!exponent.isConstant()) {
+                    return null;
+                }
+                double k = exponent.getValue();
+                Polynomial base = convert(node.getLeft(), variable, expandProducts);
+                if (base == null || k < 0 || k != Math.rint(k) || base.degree() * k > MAX_DEGREE) {
+                    return null;
+                }
+                if (!expandProducts && !base.isMonomial() && k > 1) {
+                    return null;
+                }
+                Polynomial result = new Polynomial(1);
+                for (int i = 0; i < (int) k; i++) {
+                    result = result.multiply(base);
+                }
+                return result;
+            }
+            default:
+                //? Functions of the variable and modulo are not polynomial; constant ones were folded
+                return null;
+        }
+    }
+
+    public int degree() {
+        return coefficients.length - 1;
+    }
+
+    public double getCoefficient(int power) {
+        return power < coefficients.length ? coefficients[power] : 0;
+    }
+
+    public double[] getCoefficients() {
+        //* A copy, lowest power first
+        return coefficients.clone();
+    }
+
+    private boolean isMonomial() {
+        int nonZero = 0;
+        for (double c : coefficients) {
+            if (c != 0) {
+                nonZero++;
+            }
+        }
+        return nonZero <= 1;
+    }
+
+    @Override
+    public double apply(double x) {
+        double p = coefficients[coefficients.length - 1];
+        for (int i = coefficients.length - 2; i >= 0; i--) {
+            p = p * x + coefficients[i];
+        }
+        return p;
+    }
+
+    @Override
+    public void evaluate(double[] xs, double[] out) {
+        BytecodeCompiler.checkBatch(xs, out);
+        for (int i = 0; i < xs.length; i++) {
+            out[i] = apply(xs[i]);
+        }
+    }
+
+    public double evaluate(double x, double[] derivatives) {
+        /*
+         * Method to evaluate p(x) and p'(x) in one Horner pass
+         * @param x The point to evaluate at
+         * @param derivatives Receives p'(x) at index 0
+         * @return p(x)
+         */
+        int n = coefficients.length - 1;
+        double p = coefficients[n];
+        double dp = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            dp = dp * x + p;
+            p = p * x + coefficients[i];
+        }
+        derivatives[0] = dp;
+        return p;
+    }
+
+    public void evaluate(double re, double im, double[] out) {
+        /*
+         * Method to evaluate p and p' at a complex point in one Horner pass
+         * @param re Real part of z
+         * @param im Imaginary part of z
+         * @param out Receives Re p(z), Im p(z), Re p'(z), Im p'(z) at indices 0..3
+         */
+        int n = coefficients.length - 1;
+        double pr = coefficients[n];
+        double pi = 0;
+        double dr = 0;
+        double di = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            //? p' = p' * z + p, then p = p * z + c
+            double t = dr * re - di * im + pr;
+            di = dr * im + di * re + pi;
+            dr = t;
+            t = pr * re - pi * im + coefficients[i];
+            pi = pr * im + pi * re;
+            pr = t;
+        }
+        out[0] = pr;
+        out[1] = pi;
+        out[2] = dr;
+        out[3] = di;
+    }
+
+    public Polynomial derivative() {
+        if (coefficients.length == 1) {
+            return new Polynomial(0);
+        }
+        double[] d = new double[coefficients.length - 1];
+        for (int i = 1; i < coefficients.length; i++) {
+            d[i - 1] = i * coefficients[i];
+        }
+        return new Polynomial(d);
+    }
+
+    public Polynomial add(Polynomial other) {
+        double[] sum = new double[Math.max(coefficients.length, other.coefficients.length)];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = getCoefficient(i) + other.getCoefficient(i);
+        }
+        return new Polynomial(sum);
+    }
+
+    public Polynomial multiply(Polynomial other) {
+        double[] product = new double[coefficients.length + other.coefficients.length - 1];
+        for (int i = 0; i < coefficients.length; i++) {
+            for (int j = 0; j < other.coefficients.length; j++) {
+                product[i + j] += coefficients[i] * other.coefficients[j];
+            }
+        }
+        return new Polynomial(product);
+    }
+
+    public Polynomial[] divide(Polynomial divisor) {
+        /*
+         * Method for polynomial long division
+         * @param divisor A non-zero polynomial
+         * @return {quotient, remainder} with this = quotient * divisor + remainder
+         * @throws IllegalArgumentException if the divisor is the zero polynomial
+         */
+        int m = divisor.degree();
+        double lead = divisor.coefficients[m];
+        if (m == 0 && lead == 0) {
+            throw new IllegalArgumentException("Division by the zero polynomial.");
+        }
+        int n = degree();
+        if (n < m) {
+            return new Polynomial[] {new Polynomial(0), this};
+        }
+        double[] remainder = coefficients.clone();
+        double[] quotient = new double[n - m + 1];
+        for (int k = n - m; k >= 0; k--) {
+            double factor = remainder[k + m] / lead;
+            quotient[k] = factor;
+            for (int j = 0; j < m; j++) {
+                remainder[k + j] -= factor * divisor.coefficients[j];
+            }
+            remainder[k + m] = 0;
+        }
+        return new Polynomial[] {new Polynomial(quotient), new Polynomial(Arrays.copyOf(remainder, m))};
+    }
+
+    public boolean isZero() {
+        return coefficients.length == 1 && coefficients[0] == 0;
+    }
+
+    public Polynomial scale(double factor) {
+        double[] scaled = new double[coefficients.length];
+        for (int i = 0; i < scaled.length; i++) {
+            scaled[i] = coefficients[i] * factor;
+        }
+        return new Polynomial(scaled);
+    }
+
+    @Override
+    public String toString() {
+        return toString("x");
+    }
+
+    public String toString(String variable) {
+        //* Highest power first, e.g. "x^3 - x - 1"
+        StringBuilder text = new StringBuilder();
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            double c = coefficients[i];
+            if (c == 0 && coefficients.length > 1) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append(c < 0 ? " - " : " + ");
+                c = Math.abs(c);
+            }
+            String number = c == Math.rint(c) && Math.abs(c) < 1e15 ? String.valueOf((long) c) : String.valueOf(c);
+            if (i == 0 || (c != 1 && c != -1)) {
+                text.append(number);
+                if (i > 0) {
+                    text.append('*');
+                }
+            } else if (c == -1) {
+                text.append('-');
+            }
+            if (i > 0) {
+                text.append(variable);
+                if (i > 1) {
+                    text.append('^').append(i);
+                }
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,11 @@
+package include.utils;
+
+public interface RootFinder {
+    //? One iteration of a single-variable root-finding method. RootFindingEngine owns the loop
+    //? and the budgets; implementations only hold the method state and advance it one step.
+
+    RootFindingEngine.Status step(int iteration);
+
+    //? Current best estimate: the converged root, or the value reported when a budget runs out
+    double getRoot();
+}
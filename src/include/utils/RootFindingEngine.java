@@ -0,0 +1,135 @@
+package include.utils;
+
+public class RootFindingEngine {
+    //? Iterative driver shared by the bracketing and open solvers. Runs a RootFinder in a plain
+    //? loop (constant stack depth, no recursion) under hard iteration and evaluation budgets.
+
+    public static final int DEFAULT_MAX_EVALUATIONS = 100000;
+
+    public enum Status {
+        //? Returned by a step that wants another iteration
+        RUNNING,
+
+        //? The method's own convergence test passed
+        CONVERGED,
+
+        //? The method cannot continue (e.g. zero derivative); getRoot() holds the last estimate
+        STOPPED,
+
+        MAX_ITERATIONS,
+
+        MAX_EVALUATIONS,
+
+        //? Stopped early by the ConvergenceMonitor; getStopReason() has the details
+        DIVERGING,
+
+        OSCILLATING,
+
+        STAGNATED,
+
+        NON_FINITE
+    }
+
+    private final int maxIterations;
+    private final int maxEvaluations;
+    private final CompiledFunction function;
+    private final EvaluationMemo memo;
+    private ConvergenceMonitor monitor;
+    private int iterations;
+    private int evaluations;
+
+    public RootFindingEngine(int maxIterations, int maxEvaluations) {
+        this(maxIterations, maxEvaluations, null);
+    }
+
+    public RootFindingEngine(int maxIterations, int maxEvaluations, CompiledFunction function) {
+        /*
+         * Constructor for a single solve
+         * @param maxIterations Upper bound on the number of steps
+         * @param maxEvaluations Upper bound on function evaluations, checked before every step
+         * @param function The function being solved, memoized by evaluate(x); null if unused
+         */
+        if (maxIterations < 0 || maxEvaluations < 0) {
+            throw new IllegalArgumentException("Iteration and evaluation budgets must be non-negative.");
+        }
+        this.maxIterations = maxIterations;
+        this.maxEvaluations = maxEvaluations;
+        this.function = function;
+        this.memo = function == null ? null : new EvaluationMemo();
+    }
+
+    public Status run(RootFinder finder) {
+        /*
+         * Method to iterate a root finder until it finishes or a budget is exhausted
+         * @param finder The method state to advance
+         * @return Why the loop ended; the estimate is available from finder.getRoot()
+         */
+        while (true) {
+            if (iterations >= maxIterations) {
+                return Status.MAX_ITERATIONS;
+            }
+            if (evaluations >= maxEvaluations) {
+                return Status.MAX_EVALUATIONS;
+            }
+            iterations++;
+            Status status = finder.step(iterations);
+            if (status != Status.RUNNING) {
+                return status;
+            }
+            if (monitor != null) {
+                status = monitor.observe(finder.getRoot());
+                if (status != Status.RUNNING) {
+                    return status;
+                }
+            }
+        }
+    }
+
+    public void setMonitor(ConvergenceMonitor monitor) {
+        //? Watches finder.getRoot() after every step that wants to continue; null disables it
+        this.monitor = monitor;
+    }
+
+    public ConvergenceMonitor getMonitor() {
+        return monitor;
+    }
+
+    public String getStopReason() {
+        //* Why the monitor ended the run, null if it did not
+        return monitor == null ? null : monitor.getReason();
+    }
+
+    public double evaluate(double x) {
+        /*
+         * Method to evaluate the solve's function, reusing the value if x was seen before
+         * @param x The point to evaluate at
+         * @return f(x); only a real call counts toward the evaluation budget
+         */
+        int slot = memo.indexOf(x);
+        if (slot >= 0) {
+            return memo.valueAt(slot);
+        }
+        double value = evaluate(function, x);
+        memo.put(x, value);
+        return value;
+    }
+
+    public double evaluate(CompiledFunction function, double x) {
+        //* Uncached evaluation of any other function (derivatives, stateful evaluators), still budgeted
+        evaluations++;
+        return function.apply(x);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getEvaluations() {
+        //* Actual function calls made, memo hits excluded
+        return evaluations;
+    }
+
+    public int getMemoHits() {
+        return memo == null ? 0 : memo.getHits();
+    }
+}
@@ -0,0 +1,12 @@
+package include.utils;
+
+public enum TraceLevel {
+    //? Only the numeric result (getRoot / getSolution); no solution steps or answer lines are built
+    OFF,
+
+    //? Final answers, iteration count and error messages, without the per-iteration steps
+    SUMMARY,
+
+    //? Every step, as shown in the GUI
+    FULL
+}